@@ -0,0 +1,29 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量操作结果DTO")
+public class BatchResultDTO {
+    @Schema(description = "处理行数")
+    private Integer total;
+    @Schema(description = "成功行数")
+    private Integer succeeded;
+    @Schema(description = "失败行数")
+    private Integer failed;
+    @Schema(description = "成功的房屋ID")
+    private List<Long> houseIds;
+    @Schema(description = "失败明细（最多返回前若干条）")
+    private List<BatchRowErrorDTO> errors;
+    @Schema(description = "是否因超过行数上限或读取中断而有行未处理")
+    private Boolean truncated;
+}
@@ -0,0 +1,21 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量操作单行错误DTO")
+public class BatchRowErrorDTO {
+    @Schema(description = "行号（导入时为文件行号，批量修改时为请求中的序号，从1开始）")
+    private Long row;
+    @Schema(description = "房屋ID")
+    private Long houseId;
+    @Schema(description = "错误信息")
+    private String message;
+}
@@ -0,0 +1,15 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "批量修改房屋状态DTO")
+public class BatchStatusUpdateDTO {
+    @Schema(description = "房屋ID列表")
+    private List<Long> houseIds;
+    @Schema(description = "状态(0:下架,1:待出租,2:已出租)")
+    private Integer status;
+}
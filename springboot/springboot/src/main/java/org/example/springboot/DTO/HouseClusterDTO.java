@@ -0,0 +1,29 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "地图房源聚合点DTO")
+public class HouseClusterDTO {
+    @Schema(description = "聚合点中心纬度")
+    private Double latitude;
+    @Schema(description = "聚合点中心经度")
+    private Double longitude;
+    @Schema(description = "房源数量")
+    private Integer count;
+    @Schema(description = "最低价格")
+    private BigDecimal minPrice;
+    @Schema(description = "最高价格")
+    private BigDecimal maxPrice;
+    @Schema(description = "房屋ID（仅聚合点只有一套房源时返回）")
+    private Long houseId;
+}
@@ -0,0 +1,23 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "疑似重复房源DTO")
+public class HouseDuplicateDTO {
+    @Schema(description = "房屋ID")
+    private Long houseId;
+    @Schema(description = "疑似重复的房屋ID")
+    private Long duplicateOfId;
+    @Schema(description = "标题和描述的估计相似度(0~1)")
+    private Double textSimilarity;
+    @Schema(description = "内容相同的图片数")
+    private Integer matchedImages;
+}
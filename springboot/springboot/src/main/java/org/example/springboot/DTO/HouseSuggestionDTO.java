@@ -0,0 +1,21 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "搜索框联想词DTO")
+public class HouseSuggestionDTO {
+    @Schema(description = "联想词")
+    private String text;
+    @Schema(description = "来源(TITLE:房屋标题,ADDRESS:地址,TYPE:房屋类型)")
+    private String source;
+    @Schema(description = "相关待出租房源数量")
+    private Integer count;
+}
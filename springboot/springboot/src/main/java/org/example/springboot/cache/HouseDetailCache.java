@@ -0,0 +1,220 @@
+package org.example.springboot.cache;
+
+import jakarta.annotation.PostConstruct;
+import org.example.springboot.entity.House;
+import org.example.springboot.event.HouseBatchChangedEvent;
+import org.example.springboot.event.HouseChangedEvent;
+import org.example.springboot.event.UserChangedEvent;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 房屋详情本地缓存（读穿透）
+ * 缓存已填充房东信息的房屋，按条数上限（分段 LRU）和过期时间淘汰。
+ * 房屋变更、房东资料变更在事务提交后精确失效；失效时递增版本号，
+ * 失效前已开始的加载结果不会写回缓存，避免旧数据覆盖新数据。
+ * 读取返回副本，调用方修改不会影响缓存内容。
+ */
+@Component
+public class HouseDetailCache {
+    private static final int SEGMENT_COUNT = 16;
+    private static final int VERSION_STRIPES = 1024;
+
+    @Value("${house.detail-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${house.detail-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    /** 按房屋ID分条的版本号，房屋失效时递增 */
+    private final AtomicLongArray houseVersions = new AtomicLongArray(VERSION_STRIPES);
+    /** 房东资料版本号，任一用户资料变更时递增 */
+    private final AtomicLong landlordVersion = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private static final class Entry {
+        private final House house;
+        private final long expiresAt;
+
+        private Entry(House house, long expiresAt) {
+            this.house = house;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 按访问顺序排列的分段，超出容量时淘汰最久未访问的条目；只在进程内使用，不会序列化
+     */
+    @SuppressWarnings("serial")
+    private final class Segment extends LinkedHashMap<Long, Entry> {
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        int capacity = Math.max(1, maxSize / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * 读取房屋详情，未命中时调用 loader 加载并写入缓存
+     * @param id 房屋ID
+     * @param loader 加载已填充关联信息的房屋，不存在时返回 null
+     * @return 房屋副本，不存在时返回 null
+     */
+    public House get(Long id, Function<Long, House> loader) {
+        if (id == null) {
+            return null;
+        }
+        Segment segment = segmentOf(id);
+        long now = System.currentTimeMillis();
+        synchronized (segment) {
+            Entry entry = segment.get(id);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hits.increment();
+                    return copy(entry.house);
+                }
+                segment.remove(id);
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        long houseVersion = houseVersions.get(stripeOf(id));
+        long userVersion = landlordVersion.get();
+        House house = loader.apply(id);
+        if (house == null) {
+            return null;
+        }
+        House cached = copy(house);
+        synchronized (segment) {
+            // 加载期间发生过失效则不写回
+            if (houseVersions.get(stripeOf(id)) == houseVersion && landlordVersion.get() == userVersion) {
+                segment.put(id, new Entry(cached, now + ttlSeconds * 1000));
+            }
+        }
+        return house;
+    }
+
+    /**
+     * 使单个房屋失效
+     */
+    public void invalidate(Long id) {
+        if (id == null) {
+            return;
+        }
+        Segment segment = segmentOf(id);
+        synchronized (segment) {
+            houseVersions.incrementAndGet(stripeOf(id));
+            if (segment.remove(id) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * 使某房东的全部房屋失效
+     */
+    public void invalidateByLandlord(Long landlordId) {
+        if (landlordId == null) {
+            return;
+        }
+        landlordVersion.incrementAndGet();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.values().removeIf(entry -> {
+                    if (landlordId.equals(entry.house.getLandlordId())) {
+                        invalidations.increment();
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHouseChanged(HouseChangedEvent event) {
+        invalidate(event.getHouseId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHousesChanged(HouseBatchChangedEvent event) {
+        event.getHouseIds().forEach(this::invalidate);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidateByLandlord(event.getUserId());
+    }
+
+    /**
+     * 累计统计数据
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0D : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private static House copy(House house) {
+        House copy = new House();
+        BeanUtils.copyProperties(house, copy);
+        return copy;
+    }
+
+    private static int stripeOf(Long id) {
+        return (int) (id ^ (id >>> 32)) & (VERSION_STRIPES - 1);
+    }
+
+    private Segment segmentOf(Long id) {
+        return segments[(int) (id ^ (id >>> 32)) & (SEGMENT_COUNT - 1)];
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.springboot.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.HouseType;
+import org.example.springboot.mapper.HouseTypeMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 房屋类型字典
+ * house_type 数据量小且几乎不变，启动时整体加载为不可变快照，读路径不再访问数据库；
+ * 类型增删改的事务提交后重新加载并原子替换快照。
+ * 返回的 HouseType 为快照内共享对象，调用方只读，不应修改。
+ */
+@Component
+public class HouseTypeDictionary {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseTypeDictionary.class);
+
+    @Resource
+    private HouseTypeMapper houseTypeMapper;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * 不可变快照：按ID排序的列表和ID索引
+     */
+    private static final class Snapshot {
+        private final List<HouseType> types;
+        private final Map<Long, HouseType> byId;
+
+        private Snapshot(List<HouseType> source) {
+            Map<Long, HouseType> index = new LinkedHashMap<>();
+            for (HouseType type : source) {
+                HouseType copy = new HouseType();
+                BeanUtils.copyProperties(type, copy);
+                index.put(copy.getId(), copy);
+            }
+            this.byId = Map.copyOf(index);
+            this.types = List.copyOf(index.values());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // 数据库暂不可用时不阻止启动，首次读取时再加载
+            LOGGER.error("加载房屋类型字典失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库重新加载并替换快照
+     */
+    public void reload() {
+        List<HouseType> types = houseTypeMapper.selectList(new LambdaQueryWrapper<HouseType>()
+                .orderByAsc(HouseType::getId));
+        snapshot.set(new Snapshot(types));
+        LOGGER.info("房屋类型字典已加载，共{}条", types.size());
+    }
+
+    /**
+     * 在当前事务提交后重新加载；没有事务时立即加载
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    /**
+     * 获取全部房屋类型（按ID升序）
+     */
+    public List<HouseType> getAll() {
+        return current().types;
+    }
+
+    public HouseType get(Long id) {
+        return id == null ? null : current().byId.get(id);
+    }
+
+    public boolean contains(Long id) {
+        return get(id) != null;
+    }
+
+    public String getName(Long id) {
+        HouseType type = get(id);
+        return type != null ? type.getName() : null;
+    }
+
+    /**
+     * 为房屋填充类型名称
+     */
+    public void fillTypeNames(Collection<House> houses) {
+        if (houses == null || houses.isEmpty()) {
+            return;
+        }
+        Snapshot current = current();
+        for (House house : houses) {
+            if (house != null && house.getTypeId() != null) {
+                HouseType type = current.byId.get(house.getTypeId());
+                if (type != null) {
+                    house.setTypeName(type.getName());
+                }
+            }
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    reload();
+                    current = snapshot.get();
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.springboot.cache;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.User;
+import org.example.springboot.mapper.HouseMapper;
+import org.example.springboot.mapper.UserMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 请求级一级缓存（Identity Map）
+ * 同一次请求内按ID重复查询 User / House 时只访问一次数据库，请求结束后随请求属性一起释放。
+ * 不在Web请求线程内调用时（定时任务、异步任务等）直接透传到Mapper。
+ */
+@Component
+public class RequestIdentityMap {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestIdentityMap.class);
+
+    private static final String SCOPE_ATTRIBUTE = RequestIdentityMap.class.getName() + ".SCOPE";
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private HouseMapper houseMapper;
+
+    private final LongAdder totalHits = new LongAdder();
+    private final LongAdder totalMisses = new LongAdder();
+    private final LongAdder totalRequests = new LongAdder();
+
+    /**
+     * 单次请求内的缓存内容，仅由处理该请求的线程访问
+     */
+    private static class Scope {
+        private final Map<Long, User> users = new HashMap<>();
+        private final Map<Long, House> houses = new HashMap<>();
+        private int hits;
+        private int misses;
+    }
+
+    public User getUser(Long id) {
+        return get(id, scope -> scope.users, userMapper);
+    }
+
+    public House getHouse(Long id) {
+        return get(id, scope -> scope.houses, houseMapper);
+    }
+
+    public Map<Long, User> getUsers(Collection<Long> ids) {
+        return getAll(ids, scope -> scope.users, userMapper, User::getId);
+    }
+
+    public Map<Long, House> getHouses(Collection<Long> ids) {
+        return getAll(ids, scope -> scope.houses, houseMapper, House::getId);
+    }
+
+    /**
+     * 用户数据被修改后移出当前请求的缓存
+     */
+    public void evictUser(Long id) {
+        Scope scope = currentScope(false);
+        if (scope != null) {
+            scope.users.remove(id);
+        }
+    }
+
+    /**
+     * 房屋数据被修改后移出当前请求的缓存
+     */
+    public void evictHouse(Long id) {
+        Scope scope = currentScope(false);
+        if (scope != null) {
+            scope.houses.remove(id);
+        }
+    }
+
+    /**
+     * 请求结束时调用：记录命中情况并释放缓存
+     * @param requestUri 请求路径，仅用于日志
+     */
+    public void complete(String requestUri) {
+        Scope scope = currentScope(false);
+        if (scope == null) {
+            return;
+        }
+        totalRequests.increment();
+        if (scope.hits > 0 || scope.misses > 0) {
+            LOGGER.debug("请求一级缓存统计 uri={} hits={} misses={}", requestUri, scope.hits, scope.misses);
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(SCOPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * 累计统计数据
+     */
+    public Map<String, Object> getStatistics() {
+        long hits = totalHits.sum();
+        long misses = totalMisses.sum();
+        long requests = totalRequests.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0D : (double) hits / (hits + misses));
+        stats.put("avgHitsPerRequest", requests == 0 ? 0D : (double) hits / requests);
+        return stats;
+    }
+
+    private <T> T get(Long id, Function<Scope, Map<Long, T>> region, BaseMapper<T> mapper) {
+        if (id == null) {
+            return null;
+        }
+        Scope scope = currentScope(true);
+        if (scope == null) {
+            return mapper.selectById(id);
+        }
+
+        Map<Long, T> cache = region.apply(scope);
+        if (cache.containsKey(id)) {
+            recordHits(scope, 1);
+            return cache.get(id);
+        }
+        recordMisses(scope, 1);
+        T entity = mapper.selectById(id);
+        cache.put(id, entity);
+        return entity;
+    }
+
+    private <T> Map<Long, T> getAll(Collection<Long> ids, Function<Scope, Map<Long, T>> region,
+                                    BaseMapper<T> mapper, Function<T, Long> idGetter) {
+        Map<Long, T> result = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        Scope scope = currentScope(true);
+        Map<Long, T> cache = scope != null ? region.apply(scope) : null;
+
+        Set<Long> missing = new LinkedHashSet<>();
+        int hits = 0;
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id == null) {
+                continue;
+            }
+            if (cache != null && cache.containsKey(id)) {
+                hits++;
+                T cached = cache.get(id);
+                if (cached != null) {
+                    result.put(id, cached);
+                }
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (scope != null) {
+            recordHits(scope, hits);
+            recordMisses(scope, missing.size());
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        for (T entity : mapper.selectBatchIds(missing)) {
+            result.put(idGetter.apply(entity), entity);
+        }
+        if (cache != null) {
+            // 不存在的ID同样记录下来，避免同一请求内重复查询
+            for (Long id : missing) {
+                cache.put(id, result.get(id));
+            }
+        }
+        return result;
+    }
+
+    private void recordHits(Scope scope, long count) {
+        if (count > 0) {
+            scope.hits += count;
+            totalHits.add(count);
+        }
+    }
+
+    private void recordMisses(Scope scope, long count) {
+        if (count > 0) {
+            scope.misses += count;
+            totalMisses.add(count);
+        }
+    }
+
+    private Scope currentScope(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Scope scope = (Scope) attributes.getAttribute(SCOPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (scope == null && create) {
+            scope = new Scope();
+            attributes.setAttribute(SCOPE_ATTRIBUTE, scope, RequestAttributes.SCOPE_REQUEST);
+        }
+        return scope;
+    }
+}
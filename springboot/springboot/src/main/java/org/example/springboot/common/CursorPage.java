@@ -0,0 +1,38 @@
+package org.example.springboot.common;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ * 不返回总数；nextCursor 为空表示已经是最后一页
+ */
+@Data
+public class CursorPage<T> {
+    private List<T> records;
+    private Long size;
+    private Boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * 由多查询一行的结果构造分页：查询 size+1 行，多出的一行只用于判断是否还有下一页
+     * @param rows 按 (create_time DESC, id DESC) 排序的查询结果
+     * @param size 每页大小
+     * @param cursorOf 取行的游标
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, SeekCursor> cursorOf) {
+        CursorPage<T> page = new CursorPage<>();
+        boolean hasNext = rows.size() > size;
+        List<T> records = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        page.setRecords(records);
+        page.setSize((long) size);
+        page.setHasNext(hasNext);
+        if (hasNext && !records.isEmpty()) {
+            page.setNextCursor(cursorOf.apply(records.get(records.size() - 1)).encode());
+        }
+        return page;
+    }
+}
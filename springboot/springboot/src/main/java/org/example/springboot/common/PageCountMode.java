@@ -0,0 +1,13 @@
+package org.example.springboot.common;
+
+/**
+ * 分页总数统计方式
+ */
+public enum PageCountMode {
+    /** 每次执行 COUNT，返回精确总数 */
+    EXACT,
+    /** 不执行 COUNT，多取一行判断是否有下一页 */
+    NONE,
+    /** 按查询条件缓存总数，缓存有效期内不再执行 COUNT，总数为近似值 */
+    CACHED
+}
@@ -0,0 +1,51 @@
+package org.example.springboot.common;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 不执行 COUNT 的分页对象
+ * 查询时 LIMIT 为 size+1，多出的一行只用于判断是否还有下一页；
+ * 查询后调用 {@link #finish()} 去掉探测行，并把 total 设为已知的下界，
+ * 使前端分页组件至少能显示出“下一页”。
+ */
+public class ProbePage<T> extends Page<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final long pageSize;
+    private boolean hasNext;
+
+    public ProbePage(long current, long size) {
+        super(current, size + 1, false);
+        this.pageSize = size;
+    }
+
+    @Override
+    public long offset() {
+        long current = getCurrent();
+        return current <= 1 ? 0 : Math.max((current - 1) * pageSize, 0);
+    }
+
+    /**
+     * 查询完成后调用：截掉探测行、恢复每页大小并计算总数下界
+     */
+    public ProbePage<T> finish() {
+        List<T> records = getRecords();
+        if (getSize() != pageSize) {
+            hasNext = records.size() > pageSize;
+            if (hasNext) {
+                setRecords(new ArrayList<>(records.subList(0, (int) pageSize)));
+            }
+            setSize(pageSize);
+        }
+        setTotal(offset() + getRecords().size() + (hasNext ? 1 : 0));
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+}
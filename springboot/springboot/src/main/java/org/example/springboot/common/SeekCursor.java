@@ -0,0 +1,52 @@
+package org.example.springboot.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.springboot.exception.ServiceException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 键集分页游标，记录上一页最后一行的 (create_time, id)
+ * 对外以 URL 安全的 Base64 字符串传递，客户端不应解析其内容
+ */
+@Getter
+@AllArgsConstructor
+public class SeekCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createTime;
+    private final Long id;
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = createTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析客户端传回的游标，空字符串表示从第一页开始
+     * @param cursor 游标字符串
+     * @return 游标，首页返回 null
+     */
+    public static SeekCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index <= 0) {
+                throw new ServiceException("无效的分页游标");
+            }
+            return new SeekCursor(LocalDateTime.parse(raw.substring(0, index)), Long.valueOf(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ServiceException("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.springboot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 异步及定时任务配置
+ * 房源提醒使用独立的有界线程池，队列满时拒绝新任务，不会拖慢发起方
+ * 重复房源检测的图片哈希使用独立的有界线程池，房屋变更后读取图片不占用请求线程
+ * 合同生成同样使用独立的有界线程池，被拒绝的任务留在 contract_job 表中由定时轮询补做
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${search-alert.executor.core-size:2}")
+    private int searchAlertCoreSize;
+
+    @Value("${search-alert.executor.max-size:4}")
+    private int searchAlertMaxSize;
+
+    @Value("${search-alert.executor.queue-capacity:10000}")
+    private int searchAlertQueueCapacity;
+
+    @Value("${house.duplicate.executor.core-size:1}")
+    private int duplicateHashCoreSize;
+
+    @Value("${house.duplicate.executor.queue-capacity:1000}")
+    private int duplicateHashQueueCapacity;
+
+    @Value("${contract.executor.core-size:2}")
+    private int contractCoreSize;
+
+    @Value("${contract.executor.queue-capacity:1000}")
+    private int contractQueueCapacity;
+
+    /**
+     * 房源提醒线程池
+     */
+    @Bean("searchAlertExecutor")
+    public Executor searchAlertExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(searchAlertCoreSize);
+        executor.setMaxPoolSize(searchAlertMaxSize);
+        executor.setQueueCapacity(searchAlertQueueCapacity);
+        executor.setThreadNamePrefix("search-alert-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 重复房源检测的图片哈希线程池
+     */
+    @Bean("duplicateHashExecutor")
+    public Executor duplicateHashExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(duplicateHashCoreSize);
+        executor.setMaxPoolSize(duplicateHashCoreSize);
+        executor.setQueueCapacity(duplicateHashQueueCapacity);
+        executor.setThreadNamePrefix("duplicate-hash-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 合同生成线程池
+     */
+    @Bean("contractExecutor")
+    public Executor contractExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(contractCoreSize);
+        executor.setMaxPoolSize(contractCoreSize);
+        executor.setQueueCapacity(contractQueueCapacity);
+        executor.setThreadNamePrefix("contract-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
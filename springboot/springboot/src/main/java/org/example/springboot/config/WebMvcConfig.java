@@ -1,5 +1,7 @@
 package org.example.springboot.config;
 
+import jakarta.annotation.Resource;
+import org.example.springboot.cache.RequestIdentityMap;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -12,6 +14,9 @@ import jakarta.servlet.http.HttpServletResponse;
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(new HandlerInterceptor() {
@@ -23,6 +28,13 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 return true;
             }
         });
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                // 请求结束，输出请求级缓存命中情况并释放
+                requestIdentityMap.complete(request.getRequestURI());
+            }
+        });
     }
 
     @Override
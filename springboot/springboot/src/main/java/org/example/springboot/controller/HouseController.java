@@ -4,16 +4,25 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import org.example.springboot.DTO.BatchStatusUpdateDTO;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.House;
 import org.example.springboot.entity.User;
+import org.example.springboot.enumClass.HouseImportFormat;
+import org.example.springboot.search.ListingSort;
+import org.example.springboot.service.HouseBatchService;
+import org.example.springboot.service.HouseDuplicateService;
+import org.example.springboot.service.HouseFavoriteService;
 import org.example.springboot.service.HouseService;
 import org.example.springboot.util.JwtTokenUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.List;
 
 @Tag(name="房屋管理接口")
 @RestController
@@ -24,7 +33,16 @@ public class HouseController {
     @Resource
     private HouseService houseService;
     
-    @Operation(summary = "分页查询房屋信息")
+    @Resource
+    private HouseBatchService houseBatchService;
+    
+    @Resource
+    private HouseDuplicateService houseDuplicateService;
+    
+    @Resource
+    private HouseFavoriteService houseFavoriteService;
+    
+    @Operation(summary = "分页查询房屋信息（传 cursor 参数时为游标模式，首页传空字符串；sort 仅对待出租房源生效，POPULAR 为按热度；fuzzy=true 时标题关键词容许错别字）")
     @GetMapping("/page")
     public Result<?> getHousesByPage(
             @RequestParam(defaultValue = "") String title,
@@ -33,15 +51,99 @@ public class HouseController {
             @RequestParam(required = false) Long typeId,
             @RequestParam(required = false) Long landLordId,
             @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) List<String> facilities,
+            @RequestParam(defaultValue = "NEWEST") ListingSort sort,
+            @RequestParam(defaultValue = "false") Boolean fuzzy,
             @RequestParam(defaultValue = "1") Integer currentPage,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
 //        if (status == null) {
 //            status = 1; // 默认查询待出租状态
 //        }
-        Page<House> page = houseService.getHousesByPage(title,landLordId, minPrice, maxPrice, typeId, status, currentPage, size);
+        if (cursor != null) {
+            return Result.success(houseService.getHousesByCursor(title, landLordId, minPrice, maxPrice, typeId, status, facilities, sort, fuzzy, cursor, size));
+        }
+        Page<House> page = houseService.getHousesByPage(title,landLordId, minPrice, maxPrice, typeId, status, facilities, sort, fuzzy, currentPage, size);
         return Result.success(page);
     }
     
+    @Operation(summary = "关键词检索房屋（按相关度排序）")
+    @GetMapping("/search")
+    public Result<?> searchHouses(
+            @RequestParam String keyword,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long typeId,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) List<String> facilities,
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        Page<House> page = houseService.searchHouses(keyword, minPrice, maxPrice, typeId, status, facilities, currentPage, size);
+        return Result.success(page);
+    }
+    
+    @Operation(summary = "查询附近的房屋（按距离排序，半径单位公里）")
+    @GetMapping("/nearby")
+    public Result<?> getNearbyHouses(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(defaultValue = "3") Double radius,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long typeId,
+            @RequestParam(defaultValue = "1") Integer status,
+            @RequestParam(required = false) List<String> facilities,
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        Page<House> page = houseService.getNearbyHouses(lat, lng, radius, minPrice, maxPrice, typeId, status,
+                facilities, currentPage, size);
+        return Result.success(page);
+    }
+    
+    @Operation(summary = "查询矩形范围内的房屋（按到范围中心的距离排序）")
+    @GetMapping("/in-bounds")
+    public Result<?> getHousesInBounds(
+            @RequestParam Double minLat,
+            @RequestParam Double minLng,
+            @RequestParam Double maxLat,
+            @RequestParam Double maxLng,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long typeId,
+            @RequestParam(defaultValue = "1") Integer status,
+            @RequestParam(required = false) List<String> facilities,
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        Page<House> page = houseService.getHousesInBounds(minLat, minLng, maxLat, maxLng, minPrice, maxPrice, typeId,
+                status, facilities, currentPage, size);
+        return Result.success(page);
+    }
+    
+    @Operation(summary = "地图视野内待出租房源聚合")
+    @GetMapping("/clusters")
+    public Result<?> getHouseClusters(
+            @RequestParam Double minLat,
+            @RequestParam Double minLng,
+            @RequestParam Double maxLat,
+            @RequestParam Double maxLng,
+            @RequestParam Integer zoom) {
+        return Result.success(houseService.getHouseClusters(minLat, minLng, maxLat, maxLng, zoom));
+    }
+    
+    @Operation(summary = "搜索框联想词（支持汉字前缀和拼音首字母）")
+    @GetMapping("/suggest")
+    public Result<?> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        return Result.success(houseService.suggest(prefix, limit));
+    }
+    
+    @Operation(summary = "获取配套设施列表及房屋数量")
+    @GetMapping("/facilities")
+    public Result<?> getFacilities() {
+        return Result.success(houseService.getFacilities());
+    }
+    
     @Operation(summary = "房东获取自己的房屋列表")
     @GetMapping("/landlord")
     public Result<?> getLandlordHouses(
@@ -66,6 +168,59 @@ public class HouseController {
         return Result.success(house);
     }
     
+    @Operation(summary = "相似房源推荐（同类型、价格面积接近、距离近）")
+    @GetMapping("/{id}/similar")
+    public Result<?> getSimilarHouses(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") Integer limit) {
+        return Result.success(houseService.getSimilarHouses(id, limit));
+    }
+    
+    @Operation(summary = "收藏房屋")
+    @PostMapping("/{id}/favorite")
+    public Result<?> addFavorite(@PathVariable Long id) {
+        houseFavoriteService.addFavorite(id);
+        return Result.success("收藏成功");
+    }
+    
+    @Operation(summary = "取消收藏")
+    @DeleteMapping("/{id}/favorite")
+    public Result<?> removeFavorite(@PathVariable Long id) {
+        houseFavoriteService.removeFavorite(id);
+        return Result.success("已取消收藏");
+    }
+    
+    @Operation(summary = "分页查询我的收藏")
+    @GetMapping("/favorites")
+    public Result<?> getMyFavorites(
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(houseFavoriteService.getMyFavorites(currentPage, size));
+    }
+    
+    @Operation(summary = "疑似重复房源（标题描述高度相似或包含相同图片，仅房东本人和管理员可查看）")
+    @GetMapping("/{id}/duplicates")
+    public Result<?> getDuplicateHouses(@PathVariable Long id) {
+        return Result.success(houseDuplicateService.getDuplicates(id));
+    }
+    
+    @Operation(summary = "管理员分页查看全部疑似重复房源")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/duplicates")
+    public Result<?> getFlaggedDuplicates(
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(houseDuplicateService.getFlagged(currentPage, size));
+    }
+    
+    @Operation(summary = "管理员触发重复房源全量扫描（后台并行执行）")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/duplicates/scan")
+    public Result<?> scanDuplicates() {
+        houseDuplicateService.startScan();
+        return Result.success("扫描已开始");
+    }
+    
     @Operation(summary = "发布新房屋")
     @PostMapping
     public Result<?> createHouse(@RequestBody House house) {
@@ -112,6 +267,21 @@ public class HouseController {
         return Result.success("状态更新成功");
     }
     
+    @Operation(summary = "批量导入房屋（请求体为CSV或JSON Lines，单行错误不影响其他行）")
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain", "application/x-ndjson", "application/jsonl",
+            "application/octet-stream"})
+    public Result<?> importHouses(
+            @RequestParam(defaultValue = "CSV") HouseImportFormat format,
+            InputStream body) {
+        return Result.success(houseBatchService.importHouses(body, format));
+    }
+    
+    @Operation(summary = "批量修改房屋状态")
+    @PutMapping("/status/batch")
+    public Result<?> updateHouseStatuses(@RequestBody BatchStatusUpdateDTO request) {
+        return Result.success(houseBatchService.updateStatuses(request.getHouseIds(), request.getStatus()));
+    }
+    
     @Operation(summary = "删除房屋")
     @DeleteMapping("/{id}")
     public Result<?> deleteHouse(@PathVariable Long id) {
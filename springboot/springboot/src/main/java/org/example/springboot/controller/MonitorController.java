@@ -0,0 +1,144 @@
+package org.example.springboot.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
+import org.example.springboot.cache.HouseDetailCache;
+import org.example.springboot.cache.RequestIdentityMap;
+import org.example.springboot.common.Result;
+import org.example.springboot.search.AvailableListingReadModel;
+import org.example.springboot.search.HouseDuplicateDetector;
+import org.example.springboot.search.HouseSimilarityIndex;
+import org.example.springboot.search.SavedSearchPercolator;
+import org.example.springboot.service.ContractJobService;
+import org.example.springboot.service.HouseCounterService;
+import org.example.springboot.service.HouseStatusUpdater;
+import org.example.springboot.service.OrderExpiryService;
+import org.example.springboot.service.OrderStateMachine;
+import org.example.springboot.service.PageQueryTemplate;
+import org.example.springboot.util.SnowflakeIdGenerator;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "系统监控接口")
+@RestController
+@RequestMapping("/monitor")
+public class MonitorController {
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+
+    @Resource
+    private PageQueryTemplate pageQueryTemplate;
+
+    @Resource
+    private HouseDetailCache houseDetailCache;
+
+    @Resource
+    private AvailableListingReadModel availableListingReadModel;
+
+    @Resource
+    private HouseSimilarityIndex houseSimilarityIndex;
+
+    @Resource
+    private SavedSearchPercolator savedSearchPercolator;
+
+    @Resource
+    private HouseDuplicateDetector houseDuplicateDetector;
+
+    @Resource
+    private HouseCounterService houseCounterService;
+
+    @Resource
+    private OrderStateMachine orderStateMachine;
+
+    @Resource
+    private HouseStatusUpdater houseStatusUpdater;
+
+    @Resource
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    @Resource
+    private OrderExpiryService orderExpiryService;
+
+    @Resource
+    private ContractJobService contractJobService;
+
+    @Operation(summary = "请求级缓存命中统计")
+    @GetMapping("/identity-map")
+    public Result<?> getIdentityMapStatistics() {
+        return Result.success(requestIdentityMap.getStatistics());
+    }
+
+    @Operation(summary = "分页总数查询统计")
+    @GetMapping("/page-counts")
+    public Result<?> getPageCountStatistics() {
+        return Result.success(pageQueryTemplate.getStatistics());
+    }
+
+    @Operation(summary = "房屋详情缓存统计")
+    @GetMapping("/house-cache")
+    public Result<?> getHouseCacheStatistics() {
+        return Result.success(houseDetailCache.getStatistics());
+    }
+
+    @Operation(summary = "待出租房源读模型统计")
+    @GetMapping("/listings")
+    public Result<?> getListingStatistics() {
+        return Result.success(availableListingReadModel.getStatistics());
+    }
+
+    @Operation(summary = "相似房源索引统计")
+    @GetMapping("/similarity")
+    public Result<?> getSimilarityStatistics() {
+        return Result.success(houseSimilarityIndex.getStatistics());
+    }
+
+    @Operation(summary = "保存的搜索反向匹配统计")
+    @GetMapping("/saved-searches")
+    public Result<?> getSavedSearchStatistics() {
+        return Result.success(savedSearchPercolator.getStatistics());
+    }
+
+    @Operation(summary = "重复房源检测统计")
+    @GetMapping("/duplicates")
+    public Result<?> getDuplicateStatistics() {
+        return Result.success(houseDuplicateDetector.getStatistics());
+    }
+
+    @Operation(summary = "房屋浏览量和收藏数计数统计")
+    @GetMapping("/counters")
+    public Result<?> getCounterStatistics() {
+        return Result.success(houseCounterService.getStatistics());
+    }
+
+    @Operation(summary = "订单状态流转统计（成功数、冲突数、语句耗时）")
+    @GetMapping("/order-transitions")
+    public Result<?> getOrderTransitionStatistics() {
+        return Result.success(orderStateMachine.getStatistics());
+    }
+
+    @Operation(summary = "房屋状态乐观锁竞争统计（按房屋）")
+    @GetMapping("/house-contention")
+    public Result<?> getHouseContentionStatistics() {
+        return Result.success(houseStatusUpdater.getStatistics());
+    }
+
+    @Operation(summary = "ID生成器状态（节点号、预支时间）")
+    @GetMapping("/id-generator")
+    public Result<?> getIdGeneratorStatistics() {
+        return Result.success(snowflakeIdGenerator.getStatistics());
+    }
+
+    @Operation(summary = "待支付订单超时取消统计")
+    @GetMapping("/order-expiry")
+    public Result<?> getOrderExpiryStatistics() {
+        return Result.success(orderExpiryService.getStatistics());
+    }
+
+    @Operation(summary = "合同异步生成任务统计")
+    @GetMapping("/contract-jobs")
+    public Result<?> getContractJobStatistics() {
+        return Result.success(contractJobService.getStatistics());
+    }
+}
@@ -72,7 +72,7 @@ public class OrderController {
         return Result.success(orderService.getLandlordOrders(orderNo, status, currentPage, size));
     }
     
-    @Operation(summary = "管理员获取所有订单")
+    @Operation(summary = "管理员获取所有订单（传 cursor 参数时为游标模式，首页传空字符串）")
     @GetMapping("/admin")
     public Result<?> getAllOrders(
             @RequestParam(required = false) String orderNo,
@@ -80,7 +80,11 @@ public class OrderController {
             @RequestParam(required = false) String tenantUsername,
             @RequestParam(required = false) String landlordUsername,
             @RequestParam(defaultValue = "1") Integer currentPage,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(orderService.getAllOrdersByCursor(orderNo, status, tenantUsername, landlordUsername, cursor, size));
+        }
         return Result.success(orderService.getAllOrders(orderNo, status, tenantUsername, landlordUsername, currentPage, size));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,70 @@
+package org.example.springboot.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
+import org.example.springboot.common.Result;
+import org.example.springboot.entity.SavedSearch;
+import org.example.springboot.service.SavedSearchService;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 保存的搜索及房源提醒控制器
+ */
+@Tag(name = "保存的搜索接口")
+@RestController
+@RequestMapping("/saved-searches")
+public class SavedSearchController {
+
+    @Resource
+    private SavedSearchService savedSearchService;
+
+    @Operation(summary = "获取我保存的搜索")
+    @GetMapping
+    public Result<?> getMySavedSearches() {
+        return Result.success(savedSearchService.getMySavedSearches());
+    }
+
+    @Operation(summary = "保存搜索（有符合条件的房源上架时提醒）")
+    @PostMapping
+    public Result<?> createSavedSearch(@RequestBody SavedSearch search) {
+        savedSearchService.createSavedSearch(search);
+        return Result.success("保存成功");
+    }
+
+    @Operation(summary = "修改保存的搜索")
+    @PutMapping("/{id}")
+    public Result<?> updateSavedSearch(@PathVariable Long id, @RequestBody SavedSearch search) {
+        savedSearchService.updateSavedSearch(id, search);
+        return Result.success("更新成功");
+    }
+
+    @Operation(summary = "删除保存的搜索")
+    @DeleteMapping("/{id}")
+    public Result<?> deleteSavedSearch(@PathVariable Long id) {
+        savedSearchService.deleteSavedSearch(id);
+        return Result.success("删除成功");
+    }
+
+    @Operation(summary = "分页获取我的房源提醒")
+    @GetMapping("/alerts")
+    public Result<?> getMyAlerts(
+            @RequestParam(required = false) Integer readStatus,
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(savedSearchService.getMyAlerts(readStatus, currentPage, size));
+    }
+
+    @Operation(summary = "获取未读房源提醒数")
+    @GetMapping("/alerts/unread-count")
+    public Result<?> countUnreadAlerts() {
+        return Result.success(savedSearchService.countUnreadAlerts());
+    }
+
+    @Operation(summary = "标记房源提醒已读（不传ID时全部标记）")
+    @PutMapping("/alerts/read")
+    public Result<?> markAlertsRead(@RequestParam(required = false) Long id) {
+        savedSearchService.markAlertsRead(id);
+        return Result.success("操作成功");
+    }
+}
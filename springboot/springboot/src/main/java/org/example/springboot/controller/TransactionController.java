@@ -25,13 +25,17 @@ public class TransactionController {
         return Result.success(transactionService.getUserTransactions(type, currentPage, size));
     }
     
-    @Operation(summary = "管理员获取所有交易记录")
+    @Operation(summary = "管理员获取所有交易记录（传 cursor 参数时为游标模式，首页传空字符串）")
     @GetMapping("/admin")
     public Result<?> getAllTransactions(
             @RequestParam(required = false) String username,
             @RequestParam(required = false) Integer type,
             @RequestParam(defaultValue = "1") Integer currentPage,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(transactionService.getAllTransactionsByCursor(username, type, cursor, size));
+        }
         return Result.success(transactionService.getAllTransactions(username, type, currentPage, size));
     }
 } 
\ No newline at end of file
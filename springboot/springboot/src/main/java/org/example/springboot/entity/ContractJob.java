@@ -0,0 +1,46 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 合同生成任务（事务发件箱）
+ */
+@Data
+@TableName("contract_job")
+@Schema(description = "合同生成任务实体类")
+public class ContractJob {
+
+    @TableId(type = IdType.ASSIGN_ID)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @Schema(description = "ID")
+    private Long id;
+
+    @Schema(description = "租赁记录ID")
+    private Long leaseRecordId;
+
+    @Schema(description = "状态(0:待执行,1:执行中,2:已完成,3:已放弃)")
+    private Integer status;
+
+    @Schema(description = "已尝试次数")
+    private Integer attempts;
+
+    @Schema(description = "最早执行时间")
+    private LocalDateTime nextRunTime;
+
+    @Schema(description = "最近一次失败原因")
+    private String lastError;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createTime;
+
+    @Schema(description = "更新时间")
+    private LocalDateTime updateTime;
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
@@ -36,6 +37,12 @@ public class House {
     @Schema(description = "地址")
     private String address;
     
+    @Schema(description = "纬度")
+    private BigDecimal latitude;
+    
+    @Schema(description = "经度")
+    private BigDecimal longitude;
+    
     @Schema(description = "房屋类型ID")
     private Long typeId;
     
@@ -57,6 +64,10 @@ public class House {
     @Schema(description = "更新时间")
     private LocalDateTime updateTime;
     
+    @Version
+    @Schema(description = "版本号，每次修改加一")
+    private Integer version;
+    
     @TableField(exist = false)
     @Schema(description = "房屋类型名称")
     private String typeName;
@@ -67,5 +78,21 @@ public class House {
     @TableField(exist = false)
     @Schema(description = "房东头像")
     private String landlordImg;
+    
+    @TableField(exist = false)
+    @Schema(description = "封面图片")
+    private String coverImage;
+    
+    @TableField(exist = false)
+    @Schema(description = "距查询位置的距离(公里)")
+    private Double distance;
+    
+    @TableField(exist = false)
+    @Schema(description = "浏览量")
+    private Long viewCount;
+    
+    @TableField(exist = false)
+    @Schema(description = "收藏数")
+    private Long favoriteCount;
 
 } 
\ No newline at end of file
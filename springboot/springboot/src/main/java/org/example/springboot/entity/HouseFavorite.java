@@ -0,0 +1,36 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户收藏的房屋
+ */
+@Data
+@TableName("house_favorite")
+@Schema(description = "房屋收藏实体类")
+public class HouseFavorite {
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "ID")
+    private Long id;
+
+    @Schema(description = "用户ID")
+    private Long userId;
+
+    @Schema(description = "房屋ID")
+    private Long houseId;
+
+    @Schema(description = "收藏时间")
+    private LocalDateTime createTime;
+
+    @TableField(exist = false)
+    @Schema(description = "房屋信息")
+    private House house;
+}
@@ -0,0 +1,31 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 房屋计数：浏览量和收藏数
+ */
+@Data
+@TableName("house_stat")
+@Schema(description = "房屋计数实体类")
+public class HouseStat {
+
+    @TableId(type = IdType.INPUT)
+    @Schema(description = "房屋ID")
+    private Long houseId;
+
+    @Schema(description = "浏览量")
+    private Long viewCount;
+
+    @Schema(description = "收藏数")
+    private Long favoriteCount;
+
+    @Schema(description = "更新时间")
+    private LocalDateTime updateTime;
+}
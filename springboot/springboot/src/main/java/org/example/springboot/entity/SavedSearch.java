@@ -0,0 +1,53 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 租客保存的搜索条件，有符合条件的房源上架时提醒
+ */
+@Data
+@TableName("saved_search")
+@Schema(description = "保存的搜索实体类")
+public class SavedSearch {
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "ID")
+    private Long id;
+
+    @Schema(description = "用户ID")
+    private Long userId;
+
+    @Schema(description = "名称")
+    private String name;
+
+    @Schema(description = "关键词（匹配标题、地址、描述）")
+    private String keyword;
+
+    @Schema(description = "最低价格")
+    private BigDecimal minPrice;
+
+    @Schema(description = "最高价格")
+    private BigDecimal maxPrice;
+
+    @Schema(description = "房屋类型ID")
+    private Long typeId;
+
+    @Schema(description = "必须具备的配套设施，逗号分隔")
+    private String facilities;
+
+    @Schema(description = "是否提醒(0:否,1:是)")
+    private Integer notifyEnabled;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createTime;
+
+    @Schema(description = "更新时间")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,45 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 保存的搜索命中新房源的提醒
+ */
+@Data
+@TableName("search_alert")
+@Schema(description = "房源提醒实体类")
+public class SearchAlert {
+
+    @TableId(type = IdType.ASSIGN_ID)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @Schema(description = "ID（插入前由ID生成器分配，按字符串返回以免前端丢失精度）")
+    private Long id;
+
+    @Schema(description = "用户ID")
+    private Long userId;
+
+    @Schema(description = "保存的搜索ID")
+    private Long savedSearchId;
+
+    @Schema(description = "房屋ID")
+    private Long houseId;
+
+    @Schema(description = "是否已读(0:未读,1:已读)")
+    private Integer readStatus;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createTime;
+
+    @TableField(exist = false)
+    @Schema(description = "房屋信息")
+    private House house;
+}
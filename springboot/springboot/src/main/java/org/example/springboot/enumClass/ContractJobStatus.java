@@ -0,0 +1,27 @@
+package org.example.springboot.enumClass;
+
+/**
+ * 合同生成任务状态
+ */
+public enum ContractJobStatus {
+    PENDING(0, "待执行"),
+    RUNNING(1, "执行中"),
+    DONE(2, "已完成"),
+    FAILED(3, "已放弃");
+
+    private final Integer value;
+    private final String description;
+
+    ContractJobStatus(Integer value, String description) {
+        this.value = value;
+        this.description = description;
+    }
+
+    public Integer getValue() {
+        return value;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.springboot.enumClass;
+
+/**
+ * 房屋批量导入的文件格式
+ */
+public enum HouseImportFormat {
+    // 带表头的CSV，列名为房屋字段名
+    CSV,
+    // 每行一个JSON对象
+    JSONL
+}
@@ -0,0 +1,56 @@
+package org.example.springboot.enumClass;
+
+/**
+ * 订单状态流转表：每种操作只允许从一个状态转到另一个状态，并限定操作人
+ */
+public enum OrderTransition {
+    PAY("支付", OrderStatus.WAITING_PAYMENT, OrderStatus.PAID_WAITING_CONFIRM, Actor.TENANT, false),
+    CONFIRM("确认", OrderStatus.PAID_WAITING_CONFIRM, OrderStatus.CONFIRMED, Actor.LANDLORD, true),
+    CANCEL("取消", OrderStatus.WAITING_PAYMENT, OrderStatus.CANCELED, Actor.TENANT, false),
+    REFUND("申请退款", OrderStatus.PAID_WAITING_CONFIRM, OrderStatus.REFUNDED, Actor.TENANT, false);
+
+    /**
+     * 操作人：订单的租客或房东
+     */
+    public enum Actor {
+        TENANT,
+        LANDLORD
+    }
+
+    private final String action;
+    private final OrderStatus from;
+    private final OrderStatus to;
+    private final Actor actor;
+    private final boolean adminAllowed;
+
+    OrderTransition(String action, OrderStatus from, OrderStatus to, Actor actor, boolean adminAllowed) {
+        this.action = action;
+        this.from = from;
+        this.to = to;
+        this.actor = actor;
+        this.adminAllowed = adminAllowed;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public OrderStatus getFrom() {
+        return from;
+    }
+
+    public OrderStatus getTo() {
+        return to;
+    }
+
+    public Actor getActor() {
+        return actor;
+    }
+
+    /**
+     * 管理员是否可以代替操作人执行
+     */
+    public boolean isAdminAllowed() {
+        return adminAllowed;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.springboot.event;
+
+import lombok.Getter;
+
+/**
+ * 合同生成任务创建事件
+ * 任务行写入后发布，事务提交后立即提交到合同线程池执行
+ */
+@Getter
+public class ContractJobCreatedEvent {
+    private final Long jobId;
+
+    public ContractJobCreatedEvent(Long jobId) {
+        this.jobId = jobId;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.springboot.event;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 房屋批量变更事件
+ * 批量导入、批量修改状态时按事务发布，事务提交后各内存索引批量重新加载这些房屋
+ */
+@Getter
+public class HouseBatchChangedEvent {
+    private final List<Long> houseIds;
+
+    public HouseBatchChangedEvent(List<Long> houseIds) {
+        this.houseIds = houseIds;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.springboot.event;
+
+import lombok.Getter;
+
+/**
+ * 房屋数据变更事件
+ * 房屋新增、修改、状态变化或删除时发布，事务提交后由各内存索引按ID重新加载
+ */
+@Getter
+public class HouseChangedEvent {
+    private final Long houseId;
+
+    public HouseChangedEvent(Long houseId) {
+        this.houseId = houseId;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.springboot.event;
+
+import lombok.Getter;
+import org.example.springboot.entity.House;
+
+/**
+ * 房源上架事件
+ * 房屋新发布为待出租或由其他状态恢复为待出租时，在事务提交后发布，携带当时的房屋快照
+ */
+@Getter
+public class HouseListedEvent {
+    private final House house;
+
+    public HouseListedEvent(House house) {
+        this.house = house;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.springboot.event;
+
+import lombok.Getter;
+
+/**
+ * 房屋类型变更事件
+ * 类型新增、改名或删除时发布，冗余了类型名称的读模型据此刷新
+ */
+@Getter
+public class HouseTypeChangedEvent {
+    private final Long typeId;
+
+    public HouseTypeChangedEvent(Long typeId) {
+        this.typeId = typeId;
+    }
+}
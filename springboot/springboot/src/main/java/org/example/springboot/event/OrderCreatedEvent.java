@@ -0,0 +1,20 @@
+package org.example.springboot.event;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单创建事件
+ * 新订单保存后发布，事务提交后登记支付期限
+ */
+@Getter
+public class OrderCreatedEvent {
+    private final Long orderId;
+    private final LocalDateTime createTime;
+
+    public OrderCreatedEvent(Long orderId, LocalDateTime createTime) {
+        this.orderId = orderId;
+        this.createTime = createTime;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.springboot.event;
+
+import lombok.Getter;
+
+/**
+ * 保存的搜索变更事件
+ * 新增、修改或删除时发布，事务提交后由反向匹配索引按ID重新加载
+ */
+@Getter
+public class SavedSearchChangedEvent {
+    private final Long savedSearchId;
+
+    public SavedSearchChangedEvent(Long savedSearchId) {
+        this.savedSearchId = savedSearchId;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.springboot.event;
+
+import lombok.Getter;
+
+/**
+ * 用户资料变更事件
+ * 用户信息修改或删除时发布，冗余了房东姓名、头像的缓存据此失效
+ */
+@Getter
+public class UserChangedEvent {
+    private final Long userId;
+
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.springboot.entity.ContractJob;
+
+/**
+ * 合同生成任务Mapper接口
+ */
+@Mapper
+public interface ContractJobMapper extends BaseMapper<ContractJob> {
+}
@@ -1,12 +1,43 @@
 package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.House;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * 房屋信息数据访问层
  */
 @Mapper
 public interface HouseMapper extends BaseMapper<House> {
-} 
\ No newline at end of file
+
+    /**
+     * 分页查询房屋，关联房东，直接填充 landlordName / landlordImg
+     */
+    Page<House> selectHousePage(Page<House> page,
+                                @Param("title") String title,
+                                @Param("landlordId") Long landlordId,
+                                @Param("minPrice") BigDecimal minPrice,
+                                @Param("maxPrice") BigDecimal maxPrice,
+                                @Param("typeId") Long typeId,
+                                @Param("status") Integer status);
+
+    /**
+     * 键集分页查询房屋，按 (create_time, id) 降序从游标之后取 limit 行
+     * cursorTime / cursorId 为空时从第一行开始
+     */
+    List<House> selectHouseSlice(@Param("title") String title,
+                                 @Param("landlordId") Long landlordId,
+                                 @Param("minPrice") BigDecimal minPrice,
+                                 @Param("maxPrice") BigDecimal maxPrice,
+                                 @Param("typeId") Long typeId,
+                                 @Param("status") Integer status,
+                                 @Param("cursorTime") LocalDateTime cursorTime,
+                                 @Param("cursorId") Long cursorId,
+                                 @Param("limit") int limit);
+}
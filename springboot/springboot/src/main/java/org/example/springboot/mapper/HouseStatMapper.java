@@ -0,0 +1,21 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.springboot.entity.HouseStat;
+
+import java.util.List;
+
+/**
+ * 房屋计数Mapper接口
+ */
+@Mapper
+public interface HouseStatMapper extends BaseMapper<HouseStat> {
+
+    /**
+     * 批量累加计数，一条语句写入多套房屋，不存在的行自动插入
+     * @param deltas 每套房屋的增量，viewCount / favoriteCount 为增量而不是累计值
+     */
+    int upsertDeltas(@Param("deltas") List<HouseStat> deltas);
+}
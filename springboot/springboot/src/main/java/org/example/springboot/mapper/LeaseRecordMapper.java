@@ -1,9 +1,19 @@
 package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.LeaseRecord;
 
 @Mapper
 public interface LeaseRecordMapper extends BaseMapper<LeaseRecord> {
-} 
\ No newline at end of file
+
+    /**
+     * 分页查询租赁记录，关联房屋、租客、房东和订单
+     */
+    Page<LeaseRecord> selectLeaseRecordPage(Page<LeaseRecord> page,
+                                            @Param("status") Integer status,
+                                            @Param("tenantId") Long tenantId,
+                                            @Param("landlordId") Long landlordId);
+}
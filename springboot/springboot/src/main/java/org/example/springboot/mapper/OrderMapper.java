@@ -1,9 +1,38 @@
 package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.Order;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Mapper
 public interface OrderMapper extends BaseMapper<Order> {
-} 
\ No newline at end of file
+
+    /**
+     * 分页查询订单，关联房屋、租客和房东
+     */
+    Page<Order> selectOrderPage(Page<Order> page,
+                                @Param("orderNo") String orderNo,
+                                @Param("status") Integer status,
+                                @Param("tenantId") Long tenantId,
+                                @Param("landlordId") Long landlordId,
+                                @Param("tenantUsername") String tenantUsername,
+                                @Param("landlordUsername") String landlordUsername);
+
+    /**
+     * 键集分页查询订单，按 (create_time, id) 降序从游标之后取 limit 行
+     */
+    List<Order> selectOrderSlice(@Param("orderNo") String orderNo,
+                                 @Param("status") Integer status,
+                                 @Param("tenantId") Long tenantId,
+                                 @Param("landlordId") Long landlordId,
+                                 @Param("tenantUsername") String tenantUsername,
+                                 @Param("landlordUsername") String landlordUsername,
+                                 @Param("cursorTime") LocalDateTime cursorTime,
+                                 @Param("cursorId") Long cursorId,
+                                 @Param("limit") int limit);
+}
@@ -0,0 +1,12 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.springboot.entity.SavedSearch;
+
+/**
+ * 保存的搜索Mapper接口
+ */
+@Mapper
+public interface SavedSearchMapper extends BaseMapper<SavedSearch> {
+}
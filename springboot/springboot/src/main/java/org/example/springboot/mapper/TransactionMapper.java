@@ -1,9 +1,32 @@
 package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.Transaction;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Mapper
 public interface TransactionMapper extends BaseMapper<Transaction> {
-} 
\ No newline at end of file
+
+    /**
+     * 分页查询交易记录，关联订单和用户
+     */
+    Page<Transaction> selectTransactionPage(Page<Transaction> page,
+                                            @Param("userId") Long userId,
+                                            @Param("type") Integer type,
+                                            @Param("username") String username);
+
+    /**
+     * 键集分页查询交易记录，按 (create_time, id) 降序从游标之后取 limit 行
+     */
+    List<Transaction> selectTransactionSlice(@Param("userId") Long userId,
+                                             @Param("type") Integer type,
+                                             @Param("username") String username,
+                                             @Param("cursorTime") LocalDateTime cursorTime,
+                                             @Param("cursorId") Long cursorId,
+                                             @Param("limit") int limit);
+}
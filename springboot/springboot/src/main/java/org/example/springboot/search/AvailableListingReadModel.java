@@ -0,0 +1,374 @@
+package org.example.springboot.search;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.Resource;
+import org.example.springboot.cache.HouseTypeDictionary;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.HouseType;
+import org.example.springboot.entity.User;
+import org.example.springboot.event.HouseTypeChangedEvent;
+import org.example.springboot.event.UserChangedEvent;
+import org.example.springboot.mapper.HouseTypeMapper;
+import org.example.springboot.mapper.UserMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 待出租房源读模型
+ * 只收录待出租的房屋，预先冗余类型名称、房东姓名/头像并解析出封面图，公共列表的房源内容直接由内存返回，
+ * 不再查询数据库、拼装关联信息。
+ * 房源按发布时间倒序存放在不可变数组中：房屋、房东资料、房屋类型变更时，写入方在写锁内
+ * 生成新数组后整体替换，读取方无锁访问当前数组，房东修改房源不会阻塞公共查询。
+ */
+@Component
+public class AvailableListingReadModel implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AvailableListingReadModel.class);
+
+    /** 待出租状态 */
+    private static final int AVAILABLE_STATUS = 1;
+    private static final int BATCH_SIZE = 1000;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private HouseTypeMapper houseTypeMapper;
+
+    @Resource
+    private HouseTypeDictionary houseTypeDictionary;
+
+    /**
+     * 读模型中的一条房源，house 填充完成后不再修改
+     */
+    private static final class Listing {
+        private final House house;
+        private final LocalDateTime createTime;
+        private final long id;
+
+        private Listing(House house) {
+            this(house, house.getCreateTime(), house.getId());
+        }
+
+        private Listing(House house, LocalDateTime createTime, long id) {
+            this.house = house;
+            this.createTime = createTime != null ? createTime : LocalDateTime.MIN;
+            this.id = id;
+        }
+    }
+
+    /** 与数据库 ORDER BY create_time DESC, id DESC 一致 */
+    private static final Comparator<Listing> NEWEST_FIRST = (a, b) -> {
+        int byTime = b.createTime.compareTo(a.createTime);
+        return byTime != 0 ? byTime : Long.compare(b.id, a.id);
+    };
+
+    private final Object writeLock = new Object();
+    private volatile Listing[] listings = new Listing[0];
+    private final Map<Long, Listing> byId = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+
+    @Override
+    public void rebuild(List<House> houses) {
+        List<House> available = houses.stream().filter(AvailableListingReadModel::isAvailable).toList();
+        Map<Long, User> landlords = loadLandlords(available);
+        Listing[] next = new Listing[available.size()];
+        for (int i = 0; i < next.length; i++) {
+            House house = available.get(i);
+            next[i] = new Listing(toView(house, landlords.get(house.getLandlordId()),
+                    houseTypeDictionary.getName(house.getTypeId())));
+        }
+        Arrays.sort(next, NEWEST_FIRST);
+
+        synchronized (writeLock) {
+            byId.clear();
+            for (Listing listing : next) {
+                byId.put(listing.id, listing);
+            }
+            listings = next;
+            ready = true;
+        }
+        LOGGER.info("待出租房源读模型构建完成，房源{}套", next.length);
+    }
+
+    @Override
+    public void upsert(House house) {
+        if (!isAvailable(house)) {
+            remove(house.getId());
+            return;
+        }
+        // 关联数据在锁外加载
+        User landlord = house.getLandlordId() != null ? userMapper.selectById(house.getLandlordId()) : null;
+        Listing listing = new Listing(toView(house, landlord, houseTypeDictionary.getName(house.getTypeId())));
+        synchronized (writeLock) {
+            replace(byId.get(listing.id), listing);
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        if (houseId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            Listing old = byId.get(houseId);
+            if (old != null) {
+                replace(old, null);
+            }
+        }
+    }
+
+    /**
+     * 房东资料变更后刷新其全部房源的姓名和头像
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Long userId = event.getUserId();
+        if (userId == null) {
+            return;
+        }
+        User user = userMapper.selectById(userId);
+        refreshWhere(house -> userId.equals(house.getLandlordId()), house -> {
+            house.setLandlordName(user != null ? user.getName() : null);
+            house.setLandlordImg(user != null ? user.getAvatar() : null);
+        });
+    }
+
+    /**
+     * 房屋类型变更后刷新该类型房源的类型名称
+     * 类型字典同样在提交后重载，先后顺序不确定，因此直接读库
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHouseTypeChanged(HouseTypeChangedEvent event) {
+        Long typeId = event.getTypeId();
+        if (typeId == null) {
+            return;
+        }
+        HouseType type = houseTypeMapper.selectById(typeId);
+        refreshWhere(house -> typeId.equals(house.getTypeId()),
+                house -> house.setTypeName(type != null ? type.getName() : null));
+    }
+
+    /**
+     * 读模型是否已完成首次构建
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 获取单套待出租房源
+     * @return 已填充关联信息的房屋副本，不在读模型中时返回 null
+     */
+    public House get(Long id) {
+        Listing listing = id != null ? byId.get(id) : null;
+        return listing != null ? copy(listing.house) : null;
+    }
+
+    /**
+     * 游标方式查询待出租房源，二分定位游标后顺序读取
+     * @param filter 过滤条件，可为空
+     * @param cursorTime 上一页最后一条的发布时间，为空表示第一页
+     * @param cursorId 上一页最后一条的ID
+     * @param limit 最多返回条数
+     * @return 房屋副本，按发布时间倒序
+     */
+    public List<House> slice(HouseFilter filter, LocalDateTime cursorTime, Long cursorId, int limit) {
+        reads.increment();
+        Listing[] current = listings;
+        int start = 0;
+        if (cursorTime != null && cursorId != null) {
+            int pos = Arrays.binarySearch(current, new Listing(null, cursorTime, cursorId), NEWEST_FIRST);
+            start = pos >= 0 ? pos + 1 : -pos - 1;
+        }
+        boolean unrestricted = isUnrestricted(filter);
+        List<House> rows = new ArrayList<>(Math.min(limit, 64));
+        for (int i = start; i < current.length && rows.size() < limit; i++) {
+            if (unrestricted || matches(current[i], filter)) {
+                rows.add(copy(current[i].house));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 解析封面图：images 字段中的第一张图片
+     */
+    public static String parseCoverImage(String images) {
+        List<String> urls = parseImages(images);
+        return urls.isEmpty() ? null : urls.get(0);
+    }
+
+    /**
+     * 解析 images 字段中的全部图片地址
+     * 兼容 JSON 字符串数组、带 url 字段的对象数组以及逗号分隔的文本
+     */
+    public static List<String> parseImages(String images) {
+        List<String> urls = new ArrayList<>();
+        if (images == null || images.isBlank()) {
+            return urls;
+        }
+        String text = images.trim();
+        if (text.startsWith("[")) {
+            try {
+                JSONArray array = JSONUtil.parseArray(text);
+                for (Object item : array) {
+                    String url = item instanceof JSONObject ? ((JSONObject) item).getStr("url")
+                            : item != null ? item.toString() : null;
+                    if (url != null && !url.isBlank()) {
+                        urls.add(url.trim());
+                    }
+                }
+                return urls;
+            } catch (Exception e) {
+                LOGGER.debug("图片字段不是合法JSON，按分隔文本解析: {}", text);
+            }
+        }
+        for (String item : text.split("[,，;；\\s]+")) {
+            if (!item.isBlank()) {
+                urls.add(item.trim());
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * 累计统计数据
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("size", listings.length);
+        stats.put("reads", reads.sum());
+        stats.put("updates", updates.sum());
+        return stats;
+    }
+
+    private static boolean isAvailable(House house) {
+        return house.getId() != null && Integer.valueOf(AVAILABLE_STATUS).equals(house.getStatus());
+    }
+
+    private static boolean isUnrestricted(HouseFilter filter) {
+        return filter == null || (filter.getHouseIds() == null && filter.getMinPrice() == null
+                && filter.getMaxPrice() == null && filter.getTypeId() == null
+                && filter.getStatus() == null && filter.getLandlordId() == null
+                && (filter.getTitle() == null || filter.getTitle().isEmpty()));
+    }
+
+    private static boolean matches(Listing listing, HouseFilter filter) {
+        House house = listing.house;
+        return filter.matches(house.getId(), house.getPrice(), house.getTypeId(), house.getStatus(),
+                house.getLandlordId()) && filter.matchesTitle(house.getTitle());
+    }
+
+    private static House toView(House house, User landlord, String typeName) {
+        House view = copy(house);
+        view.setTypeName(typeName);
+        view.setLandlordName(landlord != null ? landlord.getName() : null);
+        view.setLandlordImg(landlord != null ? landlord.getAvatar() : null);
+        view.setCoverImage(parseCoverImage(house.getImages()));
+        view.setDistance(null);
+        return view;
+    }
+
+    private static House copy(House house) {
+        House copy = new House();
+        BeanUtils.copyProperties(house, copy);
+        return copy;
+    }
+
+    private Map<Long, User> loadLandlords(List<House> houses) {
+        List<Long> ids = houses.stream().map(House::getLandlordId).filter(Objects::nonNull).distinct().toList();
+        Map<Long, User> landlords = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            for (User user : userMapper.selectBatchIds(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())))) {
+                landlords.put(user.getId(), user);
+            }
+        }
+        return landlords;
+    }
+
+    /**
+     * 用 added 替换 old，二者均可为空；调用方需持有写锁
+     */
+    private void replace(Listing old, Listing added) {
+        Listing[] current = listings;
+        int removeAt = old != null ? Arrays.binarySearch(current, old, NEWEST_FIRST) : -1;
+        Listing[] next;
+        if (removeAt >= 0 && added != null && NEWEST_FIRST.compare(old, added) == 0) {
+            // 排序键未变（最常见的修改），原位替换
+            next = current.clone();
+            next[removeAt] = added;
+        } else {
+            Listing[] base = current;
+            if (removeAt >= 0) {
+                base = new Listing[current.length - 1];
+                System.arraycopy(current, 0, base, 0, removeAt);
+                System.arraycopy(current, removeAt + 1, base, removeAt, base.length - removeAt);
+            }
+            next = base;
+            if (added != null) {
+                int pos = Arrays.binarySearch(base, added, NEWEST_FIRST);
+                int insertAt = pos >= 0 ? pos : -pos - 1;
+                next = new Listing[base.length + 1];
+                System.arraycopy(base, 0, next, 0, insertAt);
+                next[insertAt] = added;
+                System.arraycopy(base, insertAt, next, insertAt + 1, base.length - insertAt);
+            }
+        }
+        listings = next;
+        if (added != null) {
+            byId.put(added.id, added);
+        } else if (old != null) {
+            byId.remove(old.id);
+        }
+        updates.increment();
+    }
+
+    /**
+     * 对满足条件的房源生成修改后的副本并整体替换数组，排序键不变
+     */
+    private void refreshWhere(Predicate<House> condition, Consumer<House> change) {
+        synchronized (writeLock) {
+            Listing[] current = listings;
+            Listing[] next = null;
+            for (int i = 0; i < current.length; i++) {
+                if (condition.test(current[i].house)) {
+                    if (next == null) {
+                        next = current.clone();
+                    }
+                    House view = copy(current[i].house);
+                    change.accept(view);
+                    next[i] = new Listing(view);
+                    byId.put(next[i].id, next[i]);
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            listings = next;
+            updates.increment();
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package org.example.springboot.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.DTO.HouseSuggestionDTO;
+import org.example.springboot.cache.HouseTypeDictionary;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.HouseType;
+import org.example.springboot.entity.Order;
+import org.example.springboot.event.HouseTypeChangedEvent;
+import org.example.springboot.mapper.HouseTypeMapper;
+import org.example.springboot.mapper.OrderMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 搜索框联想词前缀树
+ * 联想词来自待出租房源的标题、地址和房屋类型名称。每个联想词以规范化原文和拼音首字母两种形式
+ * 插入前缀树，地址还会从每个分段处开始插入，输入“三里屯”也能联想到“朝阳区 三里屯路”。
+ * 联想词的热度为引用它的房源数加上这些房源的订单数，前缀树的每个节点缓存子树内热度最高的若干词，
+ * 前缀查询只需走到对应节点直接返回。为控制节点数，前缀树只展开到固定深度，
+ * 更长的键挂在该深度的节点上，查询更长前缀时在此节点内过滤。
+ */
+@Component
+public class HouseAutocompleteIndex implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseAutocompleteIndex.class);
+
+    /** 待出租状态 */
+    private static final int AVAILABLE_STATUS = 1;
+    /** 每个节点缓存的联想词数，也是单次查询的上限 */
+    public static final int TOP_K = 20;
+    /** 前缀树展开深度 */
+    private static final int MAX_NODE_DEPTH = 4;
+    /** 单个键的最大长度 */
+    private static final int MAX_KEY_LENGTH = 32;
+    private static final String SEGMENT_SEPARATORS = "[\\s,，、;；/()（）\\-]+";
+    private static final Entry[] EMPTY = new Entry[0];
+
+    @Resource
+    private OrderMapper orderMapper;
+
+    @Resource
+    private HouseTypeMapper houseTypeMapper;
+
+    @Resource
+    private HouseTypeDictionary houseTypeDictionary;
+
+    /**
+     * 联想词
+     */
+    private static final class Entry {
+        private final String text;
+        private final String source;
+        private final List<String> keys;
+        private long score;
+        private int houses;
+
+        private Entry(String text, String source, List<String> keys) {
+            this.text = text;
+            this.source = source;
+            this.keys = keys;
+        }
+
+        private boolean alive() {
+            return houses > 0;
+        }
+    }
+
+    /**
+     * 展开深度处节点上挂的长键
+     */
+    private static final class DeepKey {
+        private final String key;
+        private final Entry entry;
+
+        private DeepKey(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    private static final class Node {
+        private Map<Character, Node> children;
+        /** 恰好在此结束的键对应的联想词 */
+        private List<Entry> terminals;
+        /** 仅展开深度处的节点使用 */
+        private List<DeepKey> deepKeys;
+        /** 子树内热度最高的联想词 */
+        private Entry[] top = EMPTY;
+
+        private Node child(char c) {
+            return children != null ? children.get(c) : null;
+        }
+    }
+
+    /**
+     * 已收录房源引用的联想词
+     */
+    private static final class Indexed {
+        private final String title;
+        private final String address;
+        private final Long typeId;
+        private final long weight;
+        private final List<Entry> entries = new ArrayList<>(3);
+
+        private Indexed(House house, long weight) {
+            this.title = house.getTitle();
+            this.address = house.getAddress();
+            this.typeId = house.getTypeId();
+            this.weight = weight;
+        }
+    }
+
+    /** 热度降序，其次引用房源数降序、文本较短优先 */
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong((Entry e) -> e.score).reversed()
+            .thenComparing(Comparator.comparingInt((Entry e) -> e.houses).reversed())
+            .thenComparingInt(e -> e.text.length())
+            .thenComparing(e -> e.text);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Long, Indexed> indexedHouses = new HashMap<>();
+    private volatile boolean ready;
+
+    @Override
+    public void rebuild(List<House> houses) {
+        Map<Long, Long> orderCounts = loadOrderCounts();
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            entries.clear();
+            indexedHouses.clear();
+            for (House house : houses) {
+                if (isIndexable(house)) {
+                    addHouse(house, 1 + orderCounts.getOrDefault(house.getId(), 0L),
+                            houseTypeDictionary.getName(house.getTypeId()), false);
+                }
+            }
+            // 全量构建后自底向上一次性计算各节点的热门词
+            computeTops(root);
+            ready = true;
+            LOGGER.info("联想词索引构建完成，房源{}套，联想词{}个", indexedHouses.size(), entries.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(House house) {
+        if (!isIndexable(house)) {
+            remove(house.getId());
+            return;
+        }
+        long weight = 1 + orderMapper.selectCount(new LambdaQueryWrapper<Order>().eq(Order::getHouseId, house.getId()));
+        String typeName = houseTypeDictionary.getName(house.getTypeId());
+        lock.writeLock().lock();
+        try {
+            // 先收录新内容再释放旧引用，未变化的联想词不会被删除后重建
+            Indexed old = indexedHouses.remove(house.getId());
+            addHouse(house, weight, typeName, true);
+            release(old);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        lock.writeLock().lock();
+        try {
+            removeHouse(houseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 类型改名后重新收录该类型的房源
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHouseTypeChanged(HouseTypeChangedEvent event) {
+        Long typeId = event.getTypeId();
+        if (typeId == null) {
+            return;
+        }
+        HouseType type = houseTypeMapper.selectById(typeId);
+        String typeName = type != null ? type.getName() : null;
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Indexed> item : new ArrayList<>(indexedHouses.entrySet())) {
+                Indexed indexed = item.getValue();
+                if (typeId.equals(indexed.typeId)) {
+                    House house = new House();
+                    house.setId(item.getKey());
+                    house.setTitle(indexed.title);
+                    house.setAddress(indexed.address);
+                    house.setTypeId(indexed.typeId);
+                    indexedHouses.remove(item.getKey());
+                    addHouse(house, indexed.weight, typeName, true);
+                    release(indexed);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 按前缀查询联想词，支持汉字前缀和拼音首字母
+     * @param prefix 用户已输入的内容
+     * @param limit 返回条数，不超过 TOP_K
+     * @return 按热度排序的联想词
+     */
+    public List<HouseSuggestionDTO> suggest(String prefix, int limit) {
+        String key = prefix != null ? normalize(prefix) : "";
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int max = Math.min(limit, TOP_K);
+        List<HouseSuggestionDTO> suggestions = new ArrayList<>(max);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < Math.min(key.length(), MAX_NODE_DEPTH) && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return suggestions;
+            }
+            if (key.length() <= MAX_NODE_DEPTH) {
+                for (int i = 0; i < node.top.length && suggestions.size() < max; i++) {
+                    suggestions.add(toSuggestion(node.top[i]));
+                }
+                return suggestions;
+            }
+            if (node.deepKeys == null) {
+                return suggestions;
+            }
+            Set<Entry> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (DeepKey deepKey : node.deepKeys) {
+                if (deepKey.key.startsWith(key)) {
+                    matched.add(deepKey.entry);
+                }
+            }
+            for (Entry entry : topOf(matched)) {
+                if (suggestions.size() >= max) {
+                    break;
+                }
+                suggestions.add(toSuggestion(entry));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 规范化：全角转半角、转小写、合并空白
+     */
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return normalized.replaceAll("\\s+", " ").trim();
+    }
+
+    private static boolean isIndexable(House house) {
+        return house.getId() != null && Integer.valueOf(AVAILABLE_STATUS).equals(house.getStatus());
+    }
+
+    private static HouseSuggestionDTO toSuggestion(Entry entry) {
+        return HouseSuggestionDTO.builder().text(entry.text).source(entry.source).count(entry.houses).build();
+    }
+
+    private Map<Long, Long> loadOrderCounts() {
+        QueryWrapper<Order> countQuery = new QueryWrapper<>();
+        countQuery.select("house_id", "COUNT(*) AS count").groupBy("house_id");
+        Map<Long, Long> counts = new HashMap<>();
+        for (Map<String, Object> row : orderMapper.selectMaps(countQuery)) {
+            Object houseId = row.get("house_id");
+            Object count = row.get("count");
+            if (houseId != null && count != null) {
+                counts.put(((Number) houseId).longValue(), ((Number) count).longValue());
+            }
+        }
+        return counts;
+    }
+
+    private void addHouse(House house, long weight, String typeName, boolean propagate) {
+        Indexed indexed = new Indexed(house, weight);
+        addReference(indexed, house.getTitle(), "TITLE", false);
+        addReference(indexed, house.getAddress(), "ADDRESS", true);
+        addReference(indexed, typeName, "TYPE", false);
+        indexedHouses.put(house.getId(), indexed);
+        if (propagate) {
+            for (Entry entry : indexed.entries) {
+                propagate(entry);
+            }
+        }
+    }
+
+    private void addReference(Indexed indexed, String text, String source, boolean segmented) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String display = text.trim();
+        Entry entry = entries.get(source + '\u0000' + display);
+        if (entry == null) {
+            entry = new Entry(display, source, keysOf(display, segmented));
+            entries.put(source + '\u0000' + display, entry);
+            for (String key : entry.keys) {
+                insertKey(key, entry);
+            }
+        }
+        if (indexed.entries.contains(entry)) {
+            return;
+        }
+        entry.houses++;
+        entry.score += indexed.weight;
+        indexed.entries.add(entry);
+    }
+
+    private void removeHouse(Long houseId) {
+        release(houseId != null ? indexedHouses.remove(houseId) : null);
+    }
+
+    /**
+     * 释放房源对联想词的引用，不再被引用的联想词从前缀树删除
+     */
+    private void release(Indexed indexed) {
+        if (indexed == null) {
+            return;
+        }
+        for (Entry entry : indexed.entries) {
+            entry.houses--;
+            entry.score -= indexed.weight;
+            propagate(entry);
+            if (!entry.alive()) {
+                entries.remove(entry.source + '\u0000' + entry.text);
+                for (String key : entry.keys) {
+                    removeKey(key, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * 联想词可用的键：原文、拼音首字母，分段文本还包括从每个分段开始的后缀
+     */
+    private static List<String> keysOf(String text, boolean segmented) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        addKey(keys, normalized);
+        if (segmented) {
+            String[] segments = normalized.split(SEGMENT_SEPARATORS);
+            int from = 0;
+            for (int i = 0; i < segments.length; i++) {
+                int start = normalized.indexOf(segments[i], from);
+                if (start < 0) {
+                    continue;
+                }
+                from = start + segments[i].length();
+                if (i > 0) {
+                    addKey(keys, normalized.substring(start));
+                }
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static void addKey(Set<String> keys, String key) {
+        if (key.isEmpty()) {
+            return;
+        }
+        keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+        if (PinyinInitials.hasInitials(key)) {
+            String initials = PinyinInitials.initials(key);
+            if (!initials.isEmpty()) {
+                keys.add(initials.length() > MAX_KEY_LENGTH ? initials.substring(0, MAX_KEY_LENGTH) : initials);
+            }
+        }
+    }
+
+    private void insertKey(String key, Entry entry) {
+        Node node = root;
+        int depth = Math.min(key.length(), MAX_NODE_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        if (key.length() >= MAX_NODE_DEPTH) {
+            if (node.deepKeys == null) {
+                node.deepKeys = new ArrayList<>(2);
+            }
+            node.deepKeys.add(new DeepKey(key, entry));
+        } else {
+            if (node.terminals == null) {
+                node.terminals = new ArrayList<>(2);
+            }
+            node.terminals.add(entry);
+        }
+    }
+
+    /**
+     * 删除键并回收空节点
+     */
+    private void removeKey(String key, Entry entry) {
+        Node[] path = path(key);
+        if (path == null) {
+            return;
+        }
+        Node node = path[path.length - 1];
+        if (key.length() >= MAX_NODE_DEPTH) {
+            if (node.deepKeys != null) {
+                node.deepKeys.removeIf(deepKey -> deepKey.entry == entry && deepKey.key.equals(key));
+            }
+        } else if (node.terminals != null) {
+            node.terminals.removeIf(item -> item == entry);
+        }
+        for (int i = path.length - 1; i > 0; i--) {
+            Node current = path[i];
+            boolean empty = (current.children == null || current.children.isEmpty())
+                    && (current.terminals == null || current.terminals.isEmpty())
+                    && (current.deepKeys == null || current.deepKeys.isEmpty());
+            if (!empty) {
+                break;
+            }
+            path[i - 1].children.remove(key.charAt(i - 1));
+        }
+    }
+
+    /**
+     * 从根到键末端节点的路径（含根），路径不完整时返回 null
+     */
+    private Node[] path(String key) {
+        int depth = Math.min(key.length(), MAX_NODE_DEPTH);
+        Node[] path = new Node[depth + 1];
+        path[0] = root;
+        for (int i = 0; i < depth; i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return null;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * 联想词热度变化后，沿其各个键的路径自底向上刷新热门词；
+     * 某节点的热门词不受影响时，更上层的节点也不会受影响
+     */
+    private void propagate(Entry entry) {
+        for (String key : entry.keys) {
+            Node[] path = path(key);
+            if (path == null) {
+                continue;
+            }
+            for (int i = path.length - 1; i > 0; i--) {
+                Node node = path[i];
+                if (!affects(node, entry)) {
+                    break;
+                }
+                node.top = computeTop(node);
+            }
+        }
+    }
+
+    private static boolean affects(Node node, Entry entry) {
+        for (Entry item : node.top) {
+            if (item == entry) {
+                return true;
+            }
+        }
+        return entry.alive() && (node.top.length < TOP_K || RANKING.compare(entry, node.top[node.top.length - 1]) < 0);
+    }
+
+    private static void computeTops(Node node) {
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                computeTops(child);
+            }
+        }
+        node.top = computeTop(node);
+    }
+
+    private static Entry[] computeTop(Node node) {
+        Set<Entry> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (node.terminals != null) {
+            candidates.addAll(node.terminals);
+        }
+        if (node.deepKeys != null) {
+            for (DeepKey deepKey : node.deepKeys) {
+                candidates.add(deepKey.entry);
+            }
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                Collections.addAll(candidates, child.top);
+            }
+        }
+        return topOf(candidates).toArray(EMPTY);
+    }
+
+    /**
+     * 用大小为 TOP_K 的堆选出排名最前的联想词
+     */
+    private static List<Entry> topOf(Set<Entry> candidates) {
+        PriorityQueue<Entry> heap = new PriorityQueue<>(TOP_K + 1, RANKING.reversed());
+        for (Entry entry : candidates) {
+            if (entry.alive()) {
+                heap.offer(entry);
+                if (heap.size() > TOP_K) {
+                    heap.poll();
+                }
+            }
+        }
+        List<Entry> sorted = new ArrayList<>(heap);
+        sorted.sort(RANKING);
+        return sorted;
+    }
+}
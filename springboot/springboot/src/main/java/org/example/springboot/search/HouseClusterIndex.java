@@ -0,0 +1,352 @@
+package org.example.springboot.search;
+
+import org.example.springboot.DTO.HouseClusterDTO;
+import org.example.springboot.entity.House;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 地图房源聚合索引
+ * 只收录待出租且有经纬度的房屋。按 Web 墨卡托瓦片组织成四叉树：
+ * 最细层级的节点保存房屋，上层节点由四个子节点汇总出数量、坐标和以及最低/最高价格。
+ * 房屋上下架或出租时只重算其所在叶子到根的一条路径。
+ * 缩放级别 z 的视野按 z+2 层级的瓦片聚合，即每个 256px 瓦片切成 4×4 个聚合格。
+ */
+@Component
+public class HouseClusterIndex implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseClusterIndex.class);
+
+    /** 待出租状态 */
+    private static final int AVAILABLE_STATUS = 1;
+    private static final int MIN_LEVEL = 2;
+    private static final int MAX_LEVEL = 18;
+    /** 聚合格相对地图缩放级别的细分层数 */
+    private static final int CELL_SUBDIVISION = 2;
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    /**
+     * 叶子节点中的房屋
+     */
+    private static final class Member {
+        private final Long id;
+        private final double latitude;
+        private final double longitude;
+        private final BigDecimal price;
+
+        private Member(House house) {
+            this.id = house.getId();
+            this.latitude = house.getLatitude().doubleValue();
+            this.longitude = house.getLongitude().doubleValue();
+            this.price = house.getPrice();
+        }
+    }
+
+    /**
+     * 四叉树节点的汇总值
+     */
+    private static final class Node {
+        private int count;
+        private double sumLatitude;
+        private double sumLongitude;
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+        /** 只有一套房屋时为其ID */
+        private Long singleHouseId;
+        /** 仅叶子节点使用 */
+        private List<Member> members;
+
+        private void reset() {
+            count = 0;
+            sumLatitude = 0;
+            sumLongitude = 0;
+            minPrice = null;
+            maxPrice = null;
+            singleHouseId = null;
+        }
+
+        private void addPrice(BigDecimal price) {
+            if (price == null) {
+                return;
+            }
+            if (minPrice == null || price.compareTo(minPrice) < 0) {
+                minPrice = price;
+            }
+            if (maxPrice == null || price.compareTo(maxPrice) > 0) {
+                maxPrice = price;
+            }
+        }
+
+        private void addMember(Member member) {
+            singleHouseId = count == 0 ? member.id : null;
+            count++;
+            sumLatitude += member.latitude;
+            sumLongitude += member.longitude;
+            addPrice(member.price);
+        }
+
+        private void addNode(Node child) {
+            singleHouseId = count == 0 ? child.singleHouseId : null;
+            count += child.count;
+            sumLatitude += child.sumLatitude;
+            sumLongitude += child.sumLongitude;
+            addPrice(child.minPrice);
+            addPrice(child.maxPrice);
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** 下标为层级，每层按瓦片坐标索引节点 */
+    private final List<Map<Long, Node>> levels = new ArrayList<>(MAX_LEVEL + 1);
+    /** 房屋所在的叶子瓦片 */
+    private final Map<Long, Long> leafOfHouse = new HashMap<>();
+    private volatile boolean ready;
+
+    public HouseClusterIndex() {
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            levels.add(level >= MIN_LEVEL ? new HashMap<>() : Collections.emptyMap());
+        }
+    }
+
+    @Override
+    public void rebuild(List<House> houses) {
+        lock.writeLock().lock();
+        try {
+            for (int level = MIN_LEVEL; level <= MAX_LEVEL; level++) {
+                levels.get(level).clear();
+            }
+            leafOfHouse.clear();
+            for (House house : houses) {
+                if (isClusterable(house)) {
+                    addToLeaf(new Member(house));
+                }
+            }
+            // 自底向上逐层汇总
+            for (int level = MAX_LEVEL; level > MIN_LEVEL; level--) {
+                for (Map.Entry<Long, Node> entry : levels.get(level).entrySet()) {
+                    long parent = parentKey(entry.getKey());
+                    levels.get(level - 1).computeIfAbsent(parent, k -> new Node()).addNode(entry.getValue());
+                }
+            }
+            ready = true;
+            LOGGER.info("地图聚合索引构建完成，房屋{}套，叶子瓦片{}个", leafOfHouse.size(), levels.get(MAX_LEVEL).size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(House house) {
+        lock.writeLock().lock();
+        try {
+            Long oldLeaf = removeFromLeaf(house.getId());
+            Long newLeaf = isClusterable(house) ? addToLeaf(new Member(house)) : null;
+            if (oldLeaf != null) {
+                refreshAncestors(oldLeaf);
+            }
+            if (newLeaf != null && !newLeaf.equals(oldLeaf)) {
+                refreshAncestors(newLeaf);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        lock.writeLock().lock();
+        try {
+            Long oldLeaf = removeFromLeaf(houseId);
+            if (oldLeaf != null) {
+                refreshAncestors(oldLeaf);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 计算视野内的聚合点
+     * @param minLat 视野最小纬度
+     * @param minLng 视野最小经度，大于 maxLng 时表示视野跨越 180 度经线
+     * @param maxLat 视野最大纬度
+     * @param maxLng 视野最大经度
+     * @param zoom 地图缩放级别
+     * @return 聚合点列表
+     */
+    public List<HouseClusterDTO> clusters(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        int level = Math.max(MIN_LEVEL, Math.min(MAX_LEVEL, zoom + CELL_SUBDIVISION));
+        long minX = tileX(minLng, level);
+        long maxX = tileX(maxLng, level);
+        // 墨卡托瓦片的 y 轴自北向南增大
+        long minY = tileY(maxLat, level);
+        long maxY = tileY(minLat, level);
+
+        List<HouseClusterDTO> clusters = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (minLng <= maxLng) {
+                collect(level, minX, maxX, minY, maxY, clusters);
+            } else if (maxX >= minX) {
+                // 跨越 180 度经线且两端落在同一列瓦片，覆盖整圈
+                collect(level, 0, (1L << level) - 1, minY, maxY, clusters);
+            } else {
+                // 跨越 180 度经线：拆成 [minLng, 180] 和 [-180, maxLng] 两段
+                collect(level, minX, (1L << level) - 1, minY, maxY, clusters);
+                collect(level, 0, maxX, minY, maxY, clusters);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return clusters;
+    }
+
+    /**
+     * 收集一层中瓦片坐标在矩形范围内的节点；范围内的格子比节点多时遍历节点，否则逐格查找
+     */
+    private void collect(int level, long minX, long maxX, long minY, long maxY, List<HouseClusterDTO> clusters) {
+        Map<Long, Node> nodes = levels.get(level);
+        long cellCount = (maxX - minX + 1) * (maxY - minY + 1);
+        if (cellCount > nodes.size()) {
+            for (Map.Entry<Long, Node> entry : nodes.entrySet()) {
+                long x = tileXOf(entry.getKey());
+                long y = tileYOf(entry.getKey());
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    clusters.add(toCluster(entry.getValue()));
+                }
+            }
+        } else {
+            for (long x = minX; x <= maxX; x++) {
+                for (long y = minY; y <= maxY; y++) {
+                    Node node = nodes.get(key(level, x, y));
+                    if (node != null) {
+                        clusters.add(toCluster(node));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isClusterable(House house) {
+        return house.getId() != null && house.getLatitude() != null && house.getLongitude() != null
+                && Integer.valueOf(AVAILABLE_STATUS).equals(house.getStatus());
+    }
+
+    private static HouseClusterDTO toCluster(Node node) {
+        return HouseClusterDTO.builder()
+                .latitude(node.sumLatitude / node.count)
+                .longitude(node.sumLongitude / node.count)
+                .count(node.count)
+                .minPrice(node.minPrice)
+                .maxPrice(node.maxPrice)
+                .houseId(node.singleHouseId)
+                .build();
+    }
+
+    private Long addToLeaf(Member member) {
+        long leaf = key(MAX_LEVEL, tileX(member.longitude, MAX_LEVEL), tileY(member.latitude, MAX_LEVEL));
+        Node node = levels.get(MAX_LEVEL).computeIfAbsent(leaf, k -> new Node());
+        if (node.members == null) {
+            node.members = new ArrayList<>();
+        }
+        node.members.add(member);
+        node.addMember(member);
+        leafOfHouse.put(member.id, leaf);
+        return leaf;
+    }
+
+    private Long removeFromLeaf(Long houseId) {
+        Long leaf = houseId != null ? leafOfHouse.remove(houseId) : null;
+        if (leaf == null) {
+            return null;
+        }
+        Node node = levels.get(MAX_LEVEL).get(leaf);
+        if (node != null) {
+            node.members.removeIf(member -> member.id.equals(houseId));
+            if (node.members.isEmpty()) {
+                levels.get(MAX_LEVEL).remove(leaf);
+            } else {
+                node.reset();
+                for (Member member : node.members) {
+                    node.addMember(member);
+                }
+            }
+        }
+        return leaf;
+    }
+
+    /**
+     * 叶子变化后，沿路径逐层由四个子节点重算父节点
+     */
+    private void refreshAncestors(long leaf) {
+        long child = leaf;
+        for (int level = MAX_LEVEL - 1; level >= MIN_LEVEL; level--) {
+            long parent = parentKey(child);
+            long x = tileXOf(parent) * 2;
+            long y = tileYOf(parent) * 2;
+            Node node = new Node();
+            for (int dx = 0; dx < 2; dx++) {
+                for (int dy = 0; dy < 2; dy++) {
+                    Node sub = levels.get(level + 1).get(key(level + 1, x + dx, y + dy));
+                    if (sub != null) {
+                        node.addNode(sub);
+                    }
+                }
+            }
+            if (node.count == 0) {
+                levels.get(level).remove(parent);
+            } else {
+                levels.get(level).put(parent, node);
+            }
+            child = parent;
+        }
+    }
+
+    private static long tileX(double longitude, int level) {
+        double n = 1L << level;
+        long x = (long) Math.floor((longitude + 180) / 360 * n);
+        return Math.max(0, Math.min((long) n - 1, x));
+    }
+
+    private static long tileY(double latitude, int level) {
+        double lat = Math.toRadians(Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude)));
+        double n = 1L << level;
+        long y = (long) Math.floor((1 - Math.log(Math.tan(lat) + 1 / Math.cos(lat)) / Math.PI) / 2 * n);
+        return Math.max(0, Math.min((long) n - 1, y));
+    }
+
+    /**
+     * 节点键：高 6 位为层级，其后依次为 x、y 各 29 位
+     */
+    private static long key(int level, long x, long y) {
+        return ((long) level << 58) | (x << 29) | y;
+    }
+
+    private static int levelOf(long key) {
+        return (int) (key >>> 58);
+    }
+
+    private static long tileXOf(long key) {
+        return (key >>> 29) & ((1L << 29) - 1);
+    }
+
+    private static long tileYOf(long key) {
+        return key & ((1L << 29) - 1);
+    }
+
+    private static long parentKey(long key) {
+        return key(levelOf(key) - 1, tileXOf(key) >> 1, tileYOf(key) >> 1);
+    }
+}
@@ -0,0 +1,652 @@
+package org.example.springboot.search;
+
+import jakarta.annotation.Resource;
+import org.example.springboot.DTO.HouseDuplicateDTO;
+import org.example.springboot.entity.House;
+import org.example.springboot.util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 重复房源检测
+ * 文本：标题加描述规范化后取三字符片段，计算 MinHash 签名（64 个哈希），分 16 段每段 4 个值做 LSH 分桶，
+ * 任意一段相同即为候选，再用签名估计 Jaccard 相似度确认；相似度 0.8 的两套房屋几乎必然成为候选。
+ * 图片：对 /img 下的本地图片计算 64 位差值哈希（缩成 9x8 灰度图后比较相邻像素），哈希拆成 4 段 16 位分别建表，
+ * 汉明距离不超过 3 的两张图至少有一段完全相同，因此查表即可找到候选，缩放、重新压缩后的同一张图也能识别。
+ * 新房屋只需查自己的签名段和图片哈希段对应的桶，与房源总数基本无关。
+ * 单套房屋变更时读取图片、计算哈希在独立线程池中进行，不占用提交事务的请求线程，算完后再更新索引；
+ * 同一房屋先后多次变更时只应用最后一次的结果。
+ * 启动和管理员触发全量扫描时在独立的 ForkJoinPool 中并行计算全部签名和图片哈希，重新生成疑似重复记录；
+ * 扫描期间的增量变更在扫描结束后重放。
+ * 每对疑似重复只记在较新的房屋上（通常是重复发布的一方）。
+ */
+@Component
+public class HouseDuplicateDetector implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseDuplicateDetector.class);
+
+    private static final int SHINGLE_LENGTH = 3;
+    /** 规范化后少于该长度的文本不参与比较 */
+    private static final int MIN_TEXT_LENGTH = 10;
+    private static final int NUM_HASHES = 64;
+    private static final int BANDS = 16;
+    private static final int ROWS = NUM_HASHES / BANDS;
+    /** 估计相似度达到该值视为文本重复 */
+    private static final double TEXT_THRESHOLD = 0.8;
+    private static final int HASH_PARTS = 4;
+    /** 汉明距离不超过该值视为同一张图片，须小于 HASH_PARTS */
+    private static final int MAX_IMAGE_DISTANCE = 3;
+    /** 哈希中 1 或 0 的位数少于该值的图片不参与比较 */
+    private static final int MIN_IMAGE_BITS = 4;
+    private static final long MAX_IMAGE_BYTES = 20L * 1024 * 1024;
+    /** 单套房屋最多返回的疑似重复数 */
+    private static final int MAX_CANDIDATES = 20;
+    private static final Comparator<HouseDuplicateDTO> BY_SCORE = Comparator
+            .comparingInt((HouseDuplicateDTO dto) -> -dto.getMatchedImages())
+            .thenComparingDouble(dto -> -dto.getTextSimilarity())
+            .thenComparing(HouseDuplicateDTO::getDuplicateOfId);
+
+    private static final int[] SEEDS = new int[NUM_HASHES];
+
+    static {
+        Random random = new Random(0x5EED_D0C5L);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            SEEDS[i] = random.nextInt();
+        }
+    }
+
+    /** 扫描期间被删除的房屋 */
+    private static final House REMOVED = new House();
+
+    /**
+     * 单套房屋的签名
+     */
+    private static final class Entry {
+        private final long id;
+        /** 文本过短时为空 */
+        private final int[] signature;
+        private final long[] imageHashes;
+
+        private Entry(long id, int[] signature, long[] imageHashes) {
+            this.id = id;
+            this.signature = signature;
+            this.imageHashes = imageHashes;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Entry> entries = new HashMap<>();
+    /** LSH 段 -> 房屋ID */
+    private Map<Long, List<Long>> textBuckets = new HashMap<>();
+    /** 段序号和 16 位图片哈希段 -> 房屋ID */
+    private Map<Integer, List<Long>> imageBuckets = new HashMap<>();
+    /** 较新的房屋ID -> 较早的房屋ID -> 疑似重复 */
+    private Map<Long, Map<Long, HouseDuplicateDTO>> flags = new HashMap<>();
+
+    /** 图片地址 -> 哈希，读取失败的不缓存 */
+    private final Map<String, Long> imageHashCache = new ConcurrentHashMap<>();
+    private final AtomicBoolean scanning = new AtomicBoolean();
+    /** 扫描期间的增量变更，扫描结束后重放 */
+    private final Map<Long, House> changedDuringScan = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+    private volatile Map<String, Object> lastScan = new LinkedHashMap<>();
+    /** 房屋ID -> 最近一次变更的序号，只有序号仍为最新的计算结果才写入索引 */
+    private final Map<Long, Long> pendingChanges = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final AtomicLong staleResults = new AtomicLong();
+    private final AtomicLong rejectedHashes = new AtomicLong();
+
+    @Value("${house.duplicate.scan-parallelism:0}")
+    private int scanParallelism;
+
+    @Resource(name = "duplicateHashExecutor")
+    private Executor duplicateHashExecutor;
+
+    /**
+     * 启动时在后台全量扫描，读取图片不阻塞应用启动
+     */
+    @Override
+    public void rebuild(List<House> houses) {
+        if (!startScan(houses)) {
+            LOGGER.warn("重复房源扫描正在进行，忽略本次重建");
+        }
+    }
+
+    /**
+     * 在哈希线程池中读取图片并更新索引；线程池已满时只用已缓存的图片哈希，不在调用线程读取图片
+     */
+    @Override
+    public void upsert(House house) {
+        if (house.getId() == null) {
+            return;
+        }
+        if (scanning.get()) {
+            changedDuringScan.put(house.getId(), house);
+        }
+        long sequence = changeSequence.incrementAndGet();
+        pendingChanges.put(house.getId(), sequence);
+        try {
+            duplicateHashExecutor.execute(() -> apply(house, sequence, computeEntry(house, true)));
+        } catch (RejectedExecutionException e) {
+            rejectedHashes.incrementAndGet();
+            LOGGER.warn("图片哈希线程池已满，房屋{}只按文本和已缓存的图片检测", house.getId());
+            apply(house, sequence, computeEntry(house, false));
+        }
+    }
+
+    /**
+     * 写入计算结果；期间房屋又有变更或已删除时丢弃
+     */
+    private void apply(House house, long sequence, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (!pendingChanges.remove(house.getId(), sequence)) {
+                staleResults.incrementAndGet();
+                return;
+            }
+            removeEntry(house.getId());
+            addEntry(entry);
+            List<HouseDuplicateDTO> candidates = candidates(entry);
+            for (HouseDuplicateDTO candidate : candidates) {
+                addFlag(candidate);
+            }
+            if (!candidates.isEmpty()) {
+                LOGGER.info("发现疑似重复房源: houseId={}, 候选{}个", house.getId(), candidates.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        if (scanning.get()) {
+            changedDuringScan.put(houseId, REMOVED);
+        }
+        lock.writeLock().lock();
+        try {
+            // 尚在计算中的变更作废
+            pendingChanges.remove(houseId);
+            removeEntry(houseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isScanning() {
+        return scanning.get();
+    }
+
+    /**
+     * 查找与指定房屋疑似重复的房屋，按相同图片数和文本相似度排序
+     * 房屋不在索引中时（例如刚发布、事务尚未提交）按传入的内容现算
+     */
+    public List<HouseDuplicateDTO> findDuplicates(House house) {
+        Entry entry = null;
+        lock.readLock().lock();
+        try {
+            if (house.getId() != null) {
+                entry = entries.get(house.getId());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (entry == null) {
+            entry = computeEntry(house, true);
+        }
+        lock.readLock().lock();
+        try {
+            return candidates(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 全部疑似重复记录，较新的房屋在前
+     */
+    public List<HouseDuplicateDTO> getFlagged() {
+        lock.readLock().lock();
+        try {
+            List<HouseDuplicateDTO> result = new ArrayList<>();
+            for (Map<Long, HouseDuplicateDTO> pairs : flags.values()) {
+                result.addAll(pairs.values());
+            }
+            result.sort(Comparator.comparing(HouseDuplicateDTO::getHouseId).reversed()
+                    .thenComparing(HouseDuplicateDTO::getDuplicateOfId));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在后台并行扫描全部房屋，重新计算签名、图片哈希和疑似重复记录
+     * @return 已有扫描在进行时返回 false
+     */
+    public boolean startScan(List<House> houses) {
+        if (!scanning.compareAndSet(false, true)) {
+            return false;
+        }
+        changedDuringScan.clear();
+        int parallelism = scanParallelism > 0 ? scanParallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        CompletableFuture.runAsync(() -> scan(houses, parallelism), pool)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        LOGGER.error("重复房源扫描失败", e);
+                    }
+                    changedDuringScan.clear();
+                    scanning.set(false);
+                    pool.shutdown();
+                });
+        return true;
+    }
+
+    public Map<String, Object> getStatistics() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("scanning", scanning.get());
+            stats.put("size", entries.size());
+            stats.put("textBuckets", textBuckets.size());
+            stats.put("imageBuckets", imageBuckets.size());
+            stats.put("cachedImageHashes", imageHashCache.size());
+            stats.put("pendingChanges", pendingChanges.size());
+            stats.put("staleResults", staleResults.get());
+            stats.put("rejectedHashes", rejectedHashes.get());
+            stats.put("flaggedHouses", flags.size());
+            stats.put("lastScan", lastScan);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在当前 ForkJoinPool 中执行，并行流使用同一个池
+     */
+    private void scan(List<House> houses, int parallelism) {
+        long start = System.currentTimeMillis();
+        imageHashCache.clear();
+        List<Entry> scanned = houses.parallelStream()
+                .filter(house -> house.getId() != null)
+                .map(house -> computeEntry(house, true))
+                .toList();
+        long hashed = System.currentTimeMillis();
+
+        Map<Long, Entry> newEntries = new HashMap<>(scanned.size() * 2);
+        Map<Long, List<Long>> newTextBuckets = new HashMap<>();
+        Map<Integer, List<Long>> newImageBuckets = new HashMap<>();
+        for (Entry entry : scanned) {
+            newEntries.put(entry.id, entry);
+            index(entry, newTextBuckets, newImageBuckets);
+        }
+        List<HouseDuplicateDTO> pairs = scanned.parallelStream()
+                .flatMap(entry -> candidates(entry, newEntries, newTextBuckets, newImageBuckets).stream())
+                .filter(pair -> pair.getHouseId() > pair.getDuplicateOfId())
+                .toList();
+        Map<Long, Map<Long, HouseDuplicateDTO>> newFlags = new HashMap<>();
+        for (HouseDuplicateDTO pair : pairs) {
+            newFlags.computeIfAbsent(pair.getHouseId(), key -> new HashMap<>()).put(pair.getDuplicateOfId(), pair);
+        }
+
+        lock.writeLock().lock();
+        try {
+            entries = newEntries;
+            textBuckets = newTextBuckets;
+            imageBuckets = newImageBuckets;
+            flags = newFlags;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // 扫描期间的变更可能基于旧数据计算，需按最新内容重放
+        int replayed = 0;
+        for (Long houseId : new ArrayList<>(changedDuringScan.keySet())) {
+            House house = changedDuringScan.remove(houseId);
+            if (house == REMOVED) {
+                remove(houseId);
+            } else if (house != null) {
+                upsert(house);
+            }
+            replayed++;
+        }
+
+        int images = 0;
+        for (Entry entry : scanned) {
+            images += entry.imageHashes.length;
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("finishedAt", System.currentTimeMillis());
+        summary.put("houses", scanned.size());
+        summary.put("images", images);
+        summary.put("pairs", pairs.size());
+        summary.put("replayed", replayed);
+        summary.put("parallelism", parallelism);
+        summary.put("hashMillis", hashed - start);
+        summary.put("totalMillis", System.currentTimeMillis() - start);
+        lastScan = summary;
+        LOGGER.info("重复房源扫描完成，房屋{}套，图片{}张，疑似重复{}对，耗时{}ms",
+                scanned.size(), images, pairs.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @param readImages 为 false 时只使用已缓存的图片哈希，不读取图片文件
+     */
+    private Entry computeEntry(House house, boolean readImages) {
+        int[] signature = signature(house.getTitle(), house.getDescription());
+        List<Long> hashes = new ArrayList<>();
+        for (String url : AvailableListingReadModel.parseImages(house.getImages())) {
+            Long hash = readImages ? imageHash(url) : imageHashCache.get(url);
+            if (hash != null && !hashes.contains(hash)) {
+                hashes.add(hash);
+            }
+        }
+        long[] imageHashes = new long[hashes.size()];
+        for (int i = 0; i < imageHashes.length; i++) {
+            imageHashes[i] = hashes.get(i);
+        }
+        return new Entry(house.getId() != null ? house.getId() : -1, signature, imageHashes);
+    }
+
+    private void addEntry(Entry entry) {
+        entries.put(entry.id, entry);
+        index(entry, textBuckets, imageBuckets);
+    }
+
+    /**
+     * 移除房屋的签名以及与其相关的全部疑似重复记录
+     */
+    private void removeEntry(Long houseId) {
+        Entry entry = entries.remove(houseId);
+        if (entry != null) {
+            if (entry.signature != null) {
+                for (int band = 0; band < BANDS; band++) {
+                    removeFrom(textBuckets, bandKey(entry.signature, band), houseId);
+                }
+            }
+            for (long hash : entry.imageHashes) {
+                for (int part = 0; part < HASH_PARTS; part++) {
+                    removeFrom(imageBuckets, partKey(hash, part), houseId);
+                }
+            }
+        }
+        flags.remove(houseId);
+        flags.values().removeIf(pairs -> pairs.remove(houseId) != null && pairs.isEmpty());
+    }
+
+    private void addFlag(HouseDuplicateDTO candidate) {
+        HouseDuplicateDTO pair = candidate.getHouseId() > candidate.getDuplicateOfId() ? candidate
+                : new HouseDuplicateDTO(candidate.getDuplicateOfId(), candidate.getHouseId(),
+                candidate.getTextSimilarity(), candidate.getMatchedImages());
+        flags.computeIfAbsent(pair.getHouseId(), key -> new HashMap<>()).put(pair.getDuplicateOfId(), pair);
+    }
+
+    private List<HouseDuplicateDTO> candidates(Entry entry) {
+        return candidates(entry, entries, textBuckets, imageBuckets);
+    }
+
+    /**
+     * 查桶得到候选，再用签名和图片哈希确认
+     */
+    private static List<HouseDuplicateDTO> candidates(Entry entry, Map<Long, Entry> entries,
+                                                      Map<Long, List<Long>> textBuckets,
+                                                      Map<Integer, List<Long>> imageBuckets) {
+        Set<Long> ids = new HashSet<>();
+        if (entry.signature != null) {
+            for (int band = 0; band < BANDS; band++) {
+                List<Long> bucket = textBuckets.get(bandKey(entry.signature, band));
+                if (bucket != null) {
+                    ids.addAll(bucket);
+                }
+            }
+        }
+        for (long hash : entry.imageHashes) {
+            for (int part = 0; part < HASH_PARTS; part++) {
+                List<Long> bucket = imageBuckets.get(partKey(hash, part));
+                if (bucket != null) {
+                    ids.addAll(bucket);
+                }
+            }
+        }
+        ids.remove(entry.id);
+        List<HouseDuplicateDTO> result = new ArrayList<>();
+        for (Long id : ids) {
+            Entry other = entries.get(id);
+            if (other == null) {
+                continue;
+            }
+            double similarity = entry.signature != null && other.signature != null
+                    ? estimateSimilarity(entry.signature, other.signature) : 0;
+            int matchedImages = matchedImages(entry.imageHashes, other.imageHashes);
+            if (similarity >= TEXT_THRESHOLD || matchedImages > 0) {
+                result.add(new HouseDuplicateDTO(entry.id, other.id, similarity, matchedImages));
+            }
+        }
+        result.sort(BY_SCORE);
+        return result.size() > MAX_CANDIDATES ? new ArrayList<>(result.subList(0, MAX_CANDIDATES)) : result;
+    }
+
+    private static void index(Entry entry, Map<Long, List<Long>> textBuckets, Map<Integer, List<Long>> imageBuckets) {
+        if (entry.signature != null) {
+            for (int band = 0; band < BANDS; band++) {
+                textBuckets.computeIfAbsent(bandKey(entry.signature, band), key -> new ArrayList<>(1)).add(entry.id);
+            }
+        }
+        for (long hash : entry.imageHashes) {
+            for (int part = 0; part < HASH_PARTS; part++) {
+                List<Long> bucket = imageBuckets.computeIfAbsent(partKey(hash, part), key -> new ArrayList<>(1));
+                // 同一房屋的多张图片可能落在同一个桶
+                if (bucket.isEmpty() || bucket.get(bucket.size() - 1) != entry.id) {
+                    bucket.add(entry.id);
+                }
+            }
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, List<Long>> buckets, K key, Long houseId) {
+        List<Long> bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.removeIf(houseId::equals);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 标题和描述的 MinHash 签名，规范化后文本过短时返回 null
+     */
+    static int[] signature(String title, String description) {
+        String text = HouseFuzzyIndex.normalize(title) + HouseFuzzyIndex.normalize(description);
+        if (text.length() < MIN_TEXT_LENGTH) {
+            return null;
+        }
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        Set<Integer> shingles = new HashSet<>();
+        for (int i = 0; i + SHINGLE_LENGTH <= text.length(); i++) {
+            int shingle = text.substring(i, i + SHINGLE_LENGTH).hashCode();
+            if (!shingles.add(shingle)) {
+                continue;
+            }
+            for (int h = 0; h < NUM_HASHES; h++) {
+                int value = mix(shingle ^ SEEDS[h]);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 签名中相同位置取值相同的比例即 Jaccard 相似度的估计
+     */
+    static double estimateSimilarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / NUM_HASHES;
+    }
+
+    private static int matchedImages(long[] a, long[] b) {
+        int matched = 0;
+        for (long x : a) {
+            for (long y : b) {
+                if (Long.bitCount(x ^ y) <= MAX_IMAGE_DISTANCE) {
+                    matched++;
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[i];
+        }
+        return key ^ (key >>> 29);
+    }
+
+    private static int partKey(long hash, int part) {
+        return part << 16 | (int) (hash >>> (part * 16)) & 0xFFFF;
+    }
+
+    /**
+     * MurmurHash3 的 fmix32
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private Long imageHash(String url) {
+        Long cached = imageHashCache.get(url);
+        if (cached != null) {
+            return cached;
+        }
+        Path file = resolveImage(url);
+        if (file == null) {
+            return null;
+        }
+        try {
+            if (!Files.isRegularFile(file) || Files.size(file) > MAX_IMAGE_BYTES) {
+                return null;
+            }
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image == null) {
+                return null;
+            }
+            long hash = differenceHash(image);
+            if (Long.bitCount(hash) < MIN_IMAGE_BITS || Long.bitCount(hash) > Long.SIZE - MIN_IMAGE_BITS) {
+                // 纯色或渐变图几乎没有信息量，不参与比较
+                return null;
+            }
+            imageHashCache.put(url, hash);
+            return hash;
+        } catch (Exception e) {
+            LOGGER.debug("读取房屋图片失败: {}", url, e);
+            return null;
+        }
+    }
+
+    /**
+     * 将图片地址映射为 /img 目录下的本地文件，外部图片或目录之外的路径返回 null
+     */
+    static Path resolveImage(String url) {
+        if (url == null) {
+            return null;
+        }
+        int index = url.indexOf("/img/");
+        if (index < 0) {
+            return null;
+        }
+        String relative = url.substring(index + "/img/".length());
+        int query = relative.indexOf('?');
+        if (query >= 0) {
+            relative = relative.substring(0, query);
+        }
+        if (relative.isBlank()) {
+            return null;
+        }
+        Path root = Path.of(FileUtil.FILE_BASE_PATH, "img").toAbsolutePath().normalize();
+        Path file = root.resolve(relative).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    /**
+     * 差值哈希：按区域平均缩成 9x8 灰度图，每行相邻像素左边更亮记 1
+     */
+    static long differenceHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] sums = new double[9 * 8];
+        int[] counts = new int[9 * 8];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellY = y * 8 / height;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                double gray = 0.299 * (rgb >> 16 & 0xFF) + 0.587 * (rgb >> 8 & 0xFF) + 0.114 * (rgb & 0xFF);
+                int cell = cellY * 9 + x * 9 / width;
+                sums[cell] += gray;
+                counts[cell]++;
+            }
+        }
+        long hash = 0;
+        int bit = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                int cell = y * 9 + x;
+                double left = counts[cell] > 0 ? sums[cell] / counts[cell] : 0;
+                double right = counts[cell + 1] > 0 ? sums[cell + 1] / counts[cell + 1] : 0;
+                if (left > right) {
+                    hash |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+        return hash;
+    }
+}
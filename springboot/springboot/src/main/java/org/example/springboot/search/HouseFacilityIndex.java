@@ -0,0 +1,220 @@
+package org.example.springboot.search;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import org.example.springboot.entity.House;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 房屋配套设施位图索引
+ * 每种设施（规范化后的名称）对应一个以房屋ID为下标的位图，
+ * 多个设施的筛选只需对位图求交集，不再逐行解析 facilities JSON。
+ * 房屋ID为自增主键、分布稠密，几十万套房屋时每个位图仅几十KB。
+ */
+@Component
+public class HouseFacilityIndex implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseFacilityIndex.class);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, BitSet> housesByFacility = new HashMap<>();
+    /** 规范化名称到首次出现时原始名称的映射，用于展示 */
+    private final Map<String, String> displayNames = new HashMap<>();
+    private volatile boolean ready;
+
+    @Override
+    public void rebuild(List<House> houses) {
+        lock.writeLock().lock();
+        try {
+            housesByFacility.clear();
+            displayNames.clear();
+            for (House house : houses) {
+                add(house);
+            }
+            ready = true;
+            LOGGER.info("房屋设施索引构建完成，设施{}种", housesByFacility.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(House house) {
+        lock.writeLock().lock();
+        try {
+            clear(house.getId());
+            add(house);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        lock.writeLock().lock();
+        try {
+            clear(houseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引是否已完成首次构建
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 查询同时具备全部设施的房屋
+     * @param facilities 必须具备的设施名称
+     * @return 以房屋ID为下标的位图副本；未指定设施时返回 null 表示不限
+     */
+    public BitSet housesWithAll(Collection<String> facilities) {
+        Set<String> required = normalizeAll(facilities);
+        if (required.isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (String facility : required) {
+                BitSet houses = housesByFacility.get(facility);
+                if (houses == null) {
+                    return new BitSet();
+                }
+                if (result == null) {
+                    result = (BitSet) houses.clone();
+                } else {
+                    result.and(houses);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 设施词表及各设施的房屋数量，按名称排序
+     */
+    public Map<String, Integer> getFacilityCounts() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> sorted = new TreeMap<>();
+            for (Map.Entry<String, BitSet> entry : housesByFacility.entrySet()) {
+                sorted.put(displayNames.get(entry.getKey()), entry.getValue().cardinality());
+            }
+            return new LinkedHashMap<>(sorted);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 解析 facilities 字段
+     * 兼容 JSON 数组 ["空调","洗衣机"]、JSON 对象 {"空调":true} 以及逗号、顿号分隔的文本
+     * @param facilities 数据库中的原始值
+     * @return 设施名称（保留原文，去重）
+     */
+    public static Set<String> parseFacilities(String facilities) {
+        Set<String> names = new LinkedHashSet<>();
+        if (facilities == null || facilities.isBlank()) {
+            return names;
+        }
+        String text = facilities.trim();
+        try {
+            if (text.startsWith("[")) {
+                JSONArray array = JSONUtil.parseArray(text);
+                for (Object item : array) {
+                    addName(names, item != null ? item.toString() : null);
+                }
+                return names;
+            }
+            if (text.startsWith("{")) {
+                JSONObject object = JSONUtil.parseObj(text);
+                for (Map.Entry<String, Object> entry : object.entrySet()) {
+                    if (!Boolean.FALSE.equals(entry.getValue()) && !"false".equals(String.valueOf(entry.getValue()))) {
+                        addName(names, entry.getKey());
+                    }
+                }
+                return names;
+            }
+        } catch (Exception e) {
+            LOGGER.debug("设施字段不是合法JSON，按分隔文本解析: {}", text);
+        }
+        for (String item : text.split("[,，、;；\\s]+")) {
+            addName(names, item);
+        }
+        return names;
+    }
+
+    private static void addName(Set<String> names, String name) {
+        if (name != null && !name.isBlank()) {
+            names.add(name.trim());
+        }
+    }
+
+    static String normalize(String name) {
+        return Normalizer.normalize(name.trim(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> normalizeAll(Collection<String> facilities) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (facilities != null) {
+            for (String facility : facilities) {
+                if (facility != null && !facility.isBlank()) {
+                    normalized.add(normalize(facility));
+                }
+            }
+        }
+        return normalized;
+    }
+
+    private void add(House house) {
+        Long id = house.getId();
+        if (id == null || id < 0 || id > Integer.MAX_VALUE) {
+            return;
+        }
+        for (String name : parseFacilities(house.getFacilities())) {
+            String key = normalize(name);
+            displayNames.putIfAbsent(key, name);
+            housesByFacility.computeIfAbsent(key, k -> new BitSet()).set(id.intValue());
+        }
+    }
+
+    private void clear(Long houseId) {
+        if (houseId == null || houseId < 0 || houseId > Integer.MAX_VALUE) {
+            return;
+        }
+        int bit = houseId.intValue();
+        // 设施词表很小，直接清除每个位图上的对应位
+        housesByFacility.entrySet().removeIf(entry -> {
+            entry.getValue().clear(bit);
+            if (entry.getValue().isEmpty()) {
+                displayNames.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+}
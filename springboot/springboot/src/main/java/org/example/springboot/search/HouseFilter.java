@@ -0,0 +1,62 @@
+package org.example.springboot.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * 房屋列表结构化过滤条件，在内存索引内部应用
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HouseFilter {
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Long typeId;
+    private Integer status;
+    private Long landlordId;
+    /** 候选房屋（以房屋ID为下标的位图，如设施筛选结果），为空表示不限 */
+    private BitSet houseIds;
+    /** 标题包含的文字，与数据库 title LIKE '%...%' 一致，不区分大小写；为空表示不限 */
+    private String title;
+
+    /**
+     * 判断房屋是否满足过滤条件
+     */
+    public boolean matches(Long houseId, BigDecimal price, Long houseTypeId, Integer houseStatus, Long houseLandlordId) {
+        if (houseIds != null && (houseId == null || houseId > Integer.MAX_VALUE || !houseIds.get(houseId.intValue()))) {
+            return false;
+        }
+        if (minPrice != null && (price == null || price.compareTo(minPrice) < 0)) {
+            return false;
+        }
+        if (maxPrice != null && (price == null || price.compareTo(maxPrice) > 0)) {
+            return false;
+        }
+        if (typeId != null && !typeId.equals(houseTypeId)) {
+            return false;
+        }
+        if (status != null && !status.equals(houseStatus)) {
+            return false;
+        }
+        return landlordId == null || landlordId.equals(houseLandlordId);
+    }
+
+    /**
+     * 判断标题是否包含过滤文字
+     * @param houseTitle 房屋标题
+     */
+    public boolean matchesTitle(String houseTitle) {
+        if (title == null || title.isEmpty()) {
+            return true;
+        }
+        return houseTitle != null && houseTitle.toLowerCase(Locale.ROOT).contains(title.toLowerCase(Locale.ROOT));
+    }
+}
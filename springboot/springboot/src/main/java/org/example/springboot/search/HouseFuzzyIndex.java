@@ -0,0 +1,340 @@
+package org.example.springboot.search;
+
+import org.example.springboot.entity.House;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 标题、地址模糊匹配索引
+ * 以字符二元组（2-gram）建立倒排表，二元组词表大且多数很稀疏，倒排表用有序 int 数组而不是位图。查询时先按二元组命中数筛选候选：与查询串编辑距离不超过 k 的文本
+ * 至多丢失 2k 个查询二元组，命中数低于下限的房屋直接排除。3 个字的查询允许 1 处错误时下限为 0，
+ * 为此另外索引间隔一个字的跳跃二元组：中间字写错时首尾两字仍能命中，中间字漏写时首尾两字相邻。
+ * 初筛之后再用位并行的 Levenshtein 自动机（Myers 算法）
+ * 计算查询串与标题、地址任意子串的最小编辑距离，保留距离不超过 k 的房屋。
+ * 查询长度、参与校验的候选数和返回结果数都有上限，保证响应时间可控。
+ */
+@Component
+public class HouseFuzzyIndex implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseFuzzyIndex.class);
+
+    /** 参与模糊匹配的最大查询长度，Myers 算法用一个 long 表示模式串 */
+    private static final int MAX_QUERY_LENGTH = 32;
+    /** 参与编辑距离校验的最大候选数，按二元组命中数从高到低选取 */
+    private static final int MAX_CANDIDATES = 2000;
+    /** 最多返回的匹配数 */
+    private static final int MAX_RESULTS = 1000;
+    private static final char SKIP_MARK = '\u0000';
+
+    /**
+     * 索引中的房屋文本（已规范化）
+     */
+    private static final class Doc {
+        private final String title;
+        private final String address;
+        private final Set<String> grams;
+
+        private Doc(House house) {
+            this.title = normalize(house.getTitle());
+            this.address = normalize(house.getAddress());
+            this.grams = new LinkedHashSet<>();
+            addGrams(title, grams);
+            addGrams(address, grams);
+            addSkipGrams(title, grams);
+            addSkipGrams(address, grams);
+        }
+    }
+
+    /**
+     * 有序的房屋ID数组
+     */
+    private static final class Posting {
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(int id) {
+            int pos = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0 && pos < size) {
+                return;
+            }
+            int insertAt = pos >= 0 ? pos : -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private volatile boolean ready;
+
+    @Override
+    public void rebuild(List<House> houses) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+            for (House house : houses) {
+                add(house);
+            }
+            ready = true;
+            LOGGER.info("模糊匹配索引构建完成，房屋{}套，二元组{}个", docs.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(House house) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(house.getId());
+            add(house);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(houseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 查询词规范化后至少 2 个字符才能按二元组匹配，单字查询应走精确检索
+     */
+    public static boolean supports(String keyword) {
+        return normalize(keyword).length() >= 2;
+    }
+
+    /**
+     * 模糊匹配标题或地址
+     * 允许的编辑距离随查询长度增加：不超过 2 个字符时须精确包含，3~5 个字符允许 1 处错误，更长允许 2 处
+     * @param keyword 查询词
+     * @return 命中房屋ID到最小编辑距离的映射，按距离升序、ID降序
+     */
+    public Map<Long, Integer> match(String keyword) {
+        String query = normalize(keyword);
+        if (query.length() < 2) {
+            return Collections.emptyMap();
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            query = query.substring(0, MAX_QUERY_LENGTH);
+        }
+        int maxDistance = query.length() <= 2 ? 0 : query.length() <= 5 ? 1 : 2;
+        Set<String> queryGrams = new LinkedHashSet<>();
+        addGrams(query, queryGrams);
+        int required = Math.max(1, queryGrams.size() - 2 * maxDistance);
+        if (query.length() == 3) {
+            addSkipGrams(query, queryGrams);
+            queryGrams.add("" + query.charAt(0) + query.charAt(2));
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Integer> candidates = candidates(queryGrams, required);
+            Map<Long, Integer> distances = new HashMap<>();
+            Map<Character, Long> peq = patternMasks(query);
+            for (Integer id : candidates) {
+                Doc doc = docs.get(id);
+                int distance = Math.min(searchDistance(query, peq, doc.title),
+                        searchDistance(query, peq, doc.address));
+                if (distance <= maxDistance) {
+                    distances.put((long) id, distance);
+                }
+            }
+            return sortByDistance(distances);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 规范化：NFKC、小写，只保留汉字、字母和数字
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String normalized = HouseTokenizer.normalize(text);
+        StringBuilder builder = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void addGrams(String text, Set<String> grams) {
+        for (int i = 0; i + 1 < text.length(); i++) {
+            grams.add(text.substring(i, i + 2));
+        }
+    }
+
+    /**
+     * 跳跃二元组：第 i 和第 i+2 个字符，中间以规范化后不会出现的字符分隔
+     */
+    private static void addSkipGrams(String text, Set<String> grams) {
+        for (int i = 0; i + 2 < text.length(); i++) {
+            grams.add("" + text.charAt(i) + SKIP_MARK + text.charAt(i + 2));
+        }
+    }
+
+    /**
+     * 按二元组命中数筛选候选，命中数高的优先
+     */
+    private List<Integer> candidates(Set<String> queryGrams, int required) {
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (String gram : queryGrams) {
+            Posting posting = postings.get(gram);
+            if (posting == null) {
+                continue;
+            }
+            for (int i = 0; i < posting.size; i++) {
+                hits.merge(posting.ids[i], 1, Integer::sum);
+            }
+        }
+        List<Map.Entry<Integer, Integer>> passed = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : hits.entrySet()) {
+            if (entry.getValue() >= required) {
+                passed.add(entry);
+            }
+        }
+        if (passed.size() > MAX_CANDIDATES) {
+            passed.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed());
+            passed = passed.subList(0, MAX_CANDIDATES);
+        }
+        List<Integer> ids = new ArrayList<>(passed.size());
+        for (Map.Entry<Integer, Integer> entry : passed) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * 模式串中每个字符出现位置的位掩码
+     */
+    static Map<Character, Long> patternMasks(String pattern) {
+        Map<Character, Long> peq = new HashMap<>();
+        for (int i = 0; i < pattern.length(); i++) {
+            peq.merge(pattern.charAt(i), 1L << i, (a, b) -> a | b);
+        }
+        return peq;
+    }
+
+    /**
+     * Myers 位并行算法：模式串与文本任意子串的最小编辑距离
+     * 距离已降到 0 时提前结束；文本为空时返回模式串长度
+     */
+    static int searchDistance(String pattern, Map<Character, Long> peq, String text) {
+        int m = pattern.length();
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0L;
+        int score = m;
+        int best = m;
+        for (int j = 0; j < text.length(); j++) {
+            long eq = peq.getOrDefault(text.charAt(j), 0L);
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // 子串可从文本任意位置开始，第 0 行恒为 0，左移后不补 1
+            ph <<= 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            if (score < best) {
+                best = score;
+                if (best == 0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static Map<Long, Integer> sortByDistance(Map<Long, Integer> distances) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(distances.entrySet());
+        entries.sort(Map.Entry.<Long, Integer>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed()));
+        Map<Long, Integer> sorted = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : entries) {
+            if (sorted.size() >= MAX_RESULTS) {
+                break;
+            }
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
+    }
+
+    private void add(House house) {
+        Long id = house.getId();
+        if (id == null || id < 0 || id > Integer.MAX_VALUE) {
+            return;
+        }
+        Doc doc = new Doc(house);
+        docs.put(id.intValue(), doc);
+        for (String gram : doc.grams) {
+            postings.computeIfAbsent(gram, g -> new Posting()).add(id.intValue());
+        }
+    }
+
+    private void removeDoc(Long houseId) {
+        if (houseId == null || houseId < 0 || houseId > Integer.MAX_VALUE) {
+            return;
+        }
+        Doc old = docs.remove(houseId.intValue());
+        if (old == null) {
+            return;
+        }
+        for (String gram : old.grams) {
+            Posting posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(houseId.intValue());
+                if (posting.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.example.springboot.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.springboot.entity.House;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 房屋地理位置网格索引
+ * 按固定经纬度步长把房屋划入网格，半径/矩形查询只访问覆盖范围内的网格，
+ * 再用球面距离精确过滤；价格、类型、状态等条件在索引内部一并过滤。
+ * 没有经纬度的房屋不进入索引。
+ */
+@Component
+public class HouseGeoIndex implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseGeoIndex.class);
+
+    /** 网格步长（度），纬度方向约 1.1 公里 */
+    private static final double CELL_DEGREES = 0.01;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    /**
+     * 索引中的房屋位置
+     */
+    @Getter
+    public static final class Point {
+        private final Long id;
+        private final double latitude;
+        private final double longitude;
+        private final BigDecimal price;
+        private final Long typeId;
+        private final Integer status;
+        private final Long landlordId;
+
+        private Point(House house) {
+            this.id = house.getId();
+            this.latitude = house.getLatitude().doubleValue();
+            this.longitude = house.getLongitude().doubleValue();
+            this.price = house.getPrice();
+            this.typeId = house.getTypeId();
+            this.status = house.getStatus();
+            this.landlordId = house.getLandlordId();
+        }
+
+        public boolean matches(HouseFilter filter) {
+            return filter == null || filter.matches(id, price, typeId, status, landlordId);
+        }
+    }
+
+    /**
+     * 半径查询结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Hit {
+        private final Long id;
+        /** 距离（公里） */
+        private final double distance;
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final Map<Long, Point> points = new HashMap<>();
+    private volatile boolean ready;
+
+    @Override
+    public void rebuild(List<House> houses) {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            points.clear();
+            for (House house : houses) {
+                add(house);
+            }
+            ready = true;
+            LOGGER.info("房屋地理索引构建完成，已定位房屋{}套，网格{}个", points.size(), cells.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(House house) {
+        lock.writeLock().lock();
+        try {
+            removePoint(house.getId());
+            add(house);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        lock.writeLock().lock();
+        try {
+            removePoint(houseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 查询半径范围内的房屋，按距离升序
+     * @param latitude 中心点纬度
+     * @param longitude 中心点经度
+     * @param radiusKm 半径（公里）
+     * @param filter 过滤条件，可为空
+     * @return 命中的房屋及距离
+     */
+    public List<Hit> withinRadius(double latitude, double longitude, double radiusKm, HouseFilter filter) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double lngDelta = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        List<Hit> hits = new ArrayList<>();
+        forEachInBounds(latitude - latDelta, longitude - lngDelta, latitude + latDelta, longitude + lngDelta, filter,
+                point -> {
+                    double distance = distanceKm(latitude, longitude, point.latitude, point.longitude);
+                    if (distance <= radiusKm) {
+                        hits.add(new Hit(point.id, distance));
+                    }
+                });
+        hits.sort(Comparator.comparingDouble(Hit::getDistance).thenComparing(Hit::getId));
+        return hits;
+    }
+
+    /**
+     * 遍历矩形范围内满足条件的房屋
+     * 回调在读锁内执行，不应再访问其他索引
+     */
+    public void forEachInBounds(double minLat, double minLng, double maxLat, double maxLng,
+                                HouseFilter filter, Consumer<Point> consumer) {
+        long minLatCell = cellOf(minLat);
+        long maxLatCell = cellOf(maxLat);
+        long minLngCell = cellOf(minLng);
+        long maxLngCell = cellOf(maxLng);
+        long cellCount = (maxLatCell - minLatCell + 1) * (maxLngCell - minLngCell + 1);
+
+        lock.readLock().lock();
+        try {
+            if (cellCount > cells.size()) {
+                // 范围覆盖的网格比已有网格还多时，直接遍历已有网格
+                for (Map.Entry<Long, List<Point>> entry : cells.entrySet()) {
+                    long latCell = entry.getKey() >> 32;
+                    long lngCell = (int) entry.getKey().longValue();
+                    if (latCell >= minLatCell && latCell <= maxLatCell && lngCell >= minLngCell && lngCell <= maxLngCell) {
+                        visit(entry.getValue(), minLat, minLng, maxLat, maxLng, filter, consumer);
+                    }
+                }
+                return;
+            }
+            for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+                for (long lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+                    List<Point> cell = cells.get(cellKey(latCell, lngCell));
+                    if (cell != null) {
+                        visit(cell, minLat, minLng, maxLat, maxLng, filter, consumer);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 两点间球面距离（公里）
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static void visit(List<Point> cell, double minLat, double minLng, double maxLat, double maxLng,
+                              HouseFilter filter, Consumer<Point> consumer) {
+        for (Point point : cell) {
+            if (point.latitude >= minLat && point.latitude <= maxLat
+                    && point.longitude >= minLng && point.longitude <= maxLng && point.matches(filter)) {
+                consumer.accept(point);
+            }
+        }
+    }
+
+    private static long cellOf(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(long latCell, long lngCell) {
+        return (latCell << 32) | (lngCell & 0xFFFFFFFFL);
+    }
+
+    private void add(House house) {
+        if (house.getId() == null || house.getLatitude() == null || house.getLongitude() == null) {
+            return;
+        }
+        Point point = new Point(house);
+        points.put(point.id, point);
+        cells.computeIfAbsent(cellKey(cellOf(point.latitude), cellOf(point.longitude)), k -> new ArrayList<>())
+                .add(point);
+    }
+
+    private void removePoint(Long houseId) {
+        Point old = points.remove(houseId);
+        if (old == null) {
+            return;
+        }
+        long key = cellKey(cellOf(old.latitude), cellOf(old.longitude));
+        List<Point> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(old);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.springboot.search;
+
+import org.example.springboot.entity.House;
+
+import java.util.List;
+
+/**
+ * 房屋内存索引
+ * 实现类由 HouseIndexUpdater 统一维护：启动时全量构建，房屋变更事务提交后增量更新
+ */
+public interface HouseIndex {
+
+    /**
+     * 使用全部房屋重建索引
+     */
+    void rebuild(List<House> houses);
+
+    /**
+     * 新增或更新单个房屋
+     */
+    void upsert(House house);
+
+    /**
+     * 移除单个房屋
+     */
+    void remove(Long houseId);
+}
@@ -0,0 +1,126 @@
+package org.example.springboot.search;
+
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.House;
+import org.example.springboot.event.HouseBatchChangedEvent;
+import org.example.springboot.event.HouseChangedEvent;
+import org.example.springboot.mapper.HouseMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 房屋内存索引维护器
+ * 启动完成后全量加载房屋构建所有 HouseIndex；收到 HouseChangedEvent（或批量的 HouseBatchChangedEvent）时在事务提交后
+ * 重新读取一次该房屋并分发给各索引，单个索引出错不影响其他索引。
+ * 全量构建期间（服务已在接收请求）发生变更的房屋先照常增量更新并记录下来，构建完成后重新读取并再分发一次，
+ * 避免增量结果被构建所用的旧快照覆盖。
+ */
+@Component
+public class HouseIndexUpdater {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseIndexUpdater.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Resource
+    private HouseMapper houseMapper;
+
+    @Autowired
+    private List<HouseIndex> houseIndexes;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    /** 全量构建期间变更的房屋ID */
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        // 先开始记录再读取快照，快照之后提交的变更都会被记录
+        changedDuringRebuild.clear();
+        rebuilding.set(true);
+        List<House> houses;
+        try {
+            houses = houseMapper.selectList(null);
+            for (HouseIndex index : houseIndexes) {
+                try {
+                    index.rebuild(houses);
+                } catch (Exception e) {
+                    LOGGER.error("构建房屋索引失败: {}", index.getClass().getSimpleName(), e);
+                }
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+        // 此后的变更直接增量更新即可，构建期间记录的房屋按最新数据重新分发
+        List<Long> changed = new ArrayList<>(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        reload(changed);
+        LOGGER.info("房屋索引构建完成，房屋{}套，索引{}个，构建期间变更{}套，耗时{}ms",
+                houses.size(), houseIndexes.size(), changed.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHouseChanged(HouseChangedEvent event) {
+        Long houseId = event.getHouseId();
+        if (houseId == null) {
+            return;
+        }
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(houseId);
+        }
+        apply(houseId, houseMapper.selectById(houseId));
+    }
+
+    /**
+     * 批量变更时按批读取房屋，再逐套分发
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHousesChanged(HouseBatchChangedEvent event) {
+        if (rebuilding.get()) {
+            changedDuringRebuild.addAll(event.getHouseIds());
+        }
+        reload(event.getHouseIds());
+    }
+
+    /**
+     * 按批重新读取房屋并逐套分发，已删除的房屋从索引移除
+     */
+    private void reload(List<Long> houseIds) {
+        for (int from = 0; from < houseIds.size(); from += BATCH_SIZE) {
+            List<Long> ids = houseIds.subList(from, Math.min(from + BATCH_SIZE, houseIds.size()));
+            Map<Long, House> houses = new HashMap<>(ids.size() * 2);
+            for (House house : houseMapper.selectBatchIds(ids)) {
+                houses.put(house.getId(), house);
+            }
+            for (Long houseId : ids) {
+                apply(houseId, houses.get(houseId));
+            }
+        }
+    }
+
+    private void apply(Long houseId, House house) {
+        for (HouseIndex index : houseIndexes) {
+            try {
+                if (house == null) {
+                    index.remove(houseId);
+                } else {
+                    index.upsert(house);
+                }
+            } catch (Exception e) {
+                LOGGER.error("更新房屋索引失败: {}, houseId={}", index.getClass().getSimpleName(), houseId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package org.example.springboot.search;
+
+import org.example.springboot.entity.House;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 房屋全文检索内存倒排索引
+ * 对标题、地址、描述分词建立倒排表，按字段加权的 BM25 计算相关度；
+ * 价格、类型、状态、房东等过滤条件在索引内部完成，无需对 house 表做 LIKE 全表扫描。
+ * 没有关键词时也可只按过滤条件（含设施位图）列出房屋。
+ * 标题包含条件另建标题字符 n-gram 倒排表（单字和相邻两字，中文、字母、数字一视同仁，"30" 可命中 "300"），
+ * 按查询文字的 n-gram 求交集得到候选，再逐个确认标题确实包含该文字，结果与 title LIKE '%...%' 相同。
+ */
+@Component
+public class HouseSearchIndex implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseSearchIndex.class);
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float ADDRESS_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    /**
+     * 结果排序方式
+     */
+    public enum SortMode {
+        /** 按相关度降序，相关度相同按发布时间 */
+        RELEVANCE,
+        /** 按发布时间降序 */
+        NEWEST
+    }
+
+    /**
+     * 索引内的房屋文档
+     */
+    private static final class Doc {
+        private final Long id;
+        private final BigDecimal price;
+        private final Long typeId;
+        private final Integer status;
+        private final Long landlordId;
+        private final String title;
+        private final long createTime;
+        private final Map<String, Float> termWeights;
+        private final float length;
+
+        private Doc(House house) {
+            this.id = house.getId();
+            this.price = house.getPrice();
+            this.typeId = house.getTypeId();
+            this.status = house.getStatus();
+            this.landlordId = house.getLandlordId();
+            this.title = house.getTitle();
+            this.createTime = toMillis(house.getCreateTime());
+            this.termWeights = new HashMap<>();
+            addField(house.getTitle(), TITLE_WEIGHT);
+            addField(house.getAddress(), ADDRESS_WEIGHT);
+            addField(house.getDescription(), DESCRIPTION_WEIGHT);
+            float total = 0f;
+            for (float weight : termWeights.values()) {
+                total += weight;
+            }
+            this.length = total;
+        }
+
+        /**
+         * 仅含排序键的游标文档
+         */
+        private Doc(Long id, long createTime) {
+            this.id = id;
+            this.price = null;
+            this.typeId = null;
+            this.status = null;
+            this.landlordId = null;
+            this.title = null;
+            this.createTime = createTime;
+            this.termWeights = Collections.emptyMap();
+            this.length = 0f;
+        }
+
+        private void addField(String text, float weight) {
+            for (String token : HouseTokenizer.tokenizeForIndex(text)) {
+                termWeights.merge(token, weight, Float::sum);
+            }
+        }
+
+        private boolean matches(HouseFilter filter) {
+            return filter == null
+                    || (filter.matches(id, price, typeId, status, landlordId) && filter.matchesTitle(title));
+        }
+    }
+
+    /** 发布时间降序，相同时按ID降序，与数据库列表的排序一致 */
+    private static final Comparator<Doc> NEWEST_FIRST = Comparator.comparingLong((Doc d) -> d.createTime).reversed()
+            .thenComparing((Doc d) -> d.id, Comparator.reverseOrder());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    /** 标题 n-gram -> 标题含有该 n-gram 的房屋 */
+    private final Map<String, Set<Long>> titleGrams = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private double totalLength;
+    private volatile boolean ready;
+
+    @Override
+    public void rebuild(List<House> houses) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            titleGrams.clear();
+            docs.clear();
+            totalLength = 0;
+            for (House house : houses) {
+                addDoc(new Doc(house));
+            }
+            ready = true;
+            LOGGER.info("房屋全文索引构建完成，文档{}个，词项{}个，标题n-gram{}个",
+                    docs.size(), postings.size(), titleGrams.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(House house) {
+        Doc doc = new Doc(house);
+        lock.writeLock().lock();
+        try {
+            removeDoc(house.getId());
+            addDoc(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(houseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引是否已完成首次构建
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 检索房屋
+     * @param keyword 关键词，所有查询词项都必须命中；为空时只按过滤条件筛选
+     * @param filter 结构化过滤条件，可为空
+     * @param sortMode 排序方式，没有关键词时总是按发布时间
+     * @return 按排序方式排列的全部命中房屋ID
+     */
+    public List<Long> search(String keyword, HouseFilter filter, SortMode sortMode) {
+        Set<String> terms = HouseTokenizer.tokenizeForQuery(keyword);
+
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty()) {
+                List<Doc> hits = scan(filter, null);
+                hits.sort(NEWEST_FIRST);
+                return toIds(hits, hits.size());
+            }
+            List<Map<Long, Float>> termPostings = lookupPostings(terms);
+            if (termPostings == null) {
+                return Collections.emptyList();
+            }
+            List<Doc> hits = intersect(termPostings, filter, null);
+            if (sortMode == SortMode.RELEVANCE) {
+                Map<Long, Double> scores = score(hits, termPostings);
+                hits.sort(Comparator.comparingDouble((Doc d) -> scores.get(d.id)).reversed().thenComparing(NEWEST_FIRST));
+            } else {
+                hits.sort(NEWEST_FIRST);
+            }
+            return toIds(hits, hits.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按发布时间降序检索游标之后的房屋，供键集分页使用
+     * @param keyword 关键词，为空时只按过滤条件筛选
+     * @param filter 结构化过滤条件，可为空
+     * @param cursorTime 上一页最后一行的发布时间，为空时从头开始
+     * @param cursorId 上一页最后一行的ID
+     * @param limit 最多返回条数
+     * @return 命中的房屋ID
+     */
+    public List<Long> searchAfter(String keyword, HouseFilter filter, LocalDateTime cursorTime, Long cursorId, int limit) {
+        Set<String> terms = HouseTokenizer.tokenizeForQuery(keyword);
+        Doc cursor = cursorTime != null && cursorId != null ? new Doc(cursorId, toMillis(cursorTime)) : null;
+
+        lock.readLock().lock();
+        try {
+            List<Doc> hits;
+            if (terms.isEmpty()) {
+                hits = scan(filter, cursor);
+            } else {
+                List<Map<Long, Float>> termPostings = lookupPostings(terms);
+                if (termPostings == null) {
+                    return Collections.emptyList();
+                }
+                hits = intersect(termPostings, filter, cursor);
+            }
+            hits.sort(NEWEST_FIRST);
+            return toIds(hits, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取各查询词项的倒排表并按长度升序排列，任一词项不存在时返回 null
+     */
+    private List<Map<Long, Float>> lookupPostings(Set<String> terms) {
+        List<Map<Long, Float>> termPostings = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting == null) {
+                return null;
+            }
+            termPostings.add(posting);
+        }
+        // 从最短的倒排表开始求交集
+        termPostings.sort(Comparator.comparingInt(Map::size));
+        return termPostings;
+    }
+
+    private List<Doc> intersect(List<Map<Long, Float>> termPostings, HouseFilter filter, Doc after) {
+        List<Doc> hits = new ArrayList<>();
+        for (Long docId : termPostings.get(0).keySet()) {
+            boolean all = true;
+            for (int i = 1; i < termPostings.size() && all; i++) {
+                all = termPostings.get(i).containsKey(docId);
+            }
+            Doc doc = all ? docs.get(docId) : null;
+            if (doc != null && doc.matches(filter) && (after == null || NEWEST_FIRST.compare(doc, after) > 0)) {
+                hits.add(doc);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * 无关键词时按过滤条件筛选；有标题条件时只遍历标题 n-gram 候选，有候选位图时只遍历位图中的房屋
+     */
+    private List<Doc> scan(HouseFilter filter, Doc after) {
+        List<Doc> hits = new ArrayList<>();
+        if (filter != null && filter.getTitle() != null && !filter.getTitle().isEmpty()) {
+            List<Set<Long>> gramPostings = lookupTitleGrams(filter.getTitle());
+            if (gramPostings == null) {
+                return hits;
+            }
+            for (Long docId : gramPostings.get(0)) {
+                boolean all = true;
+                for (int i = 1; i < gramPostings.size() && all; i++) {
+                    all = gramPostings.get(i).contains(docId);
+                }
+                Doc doc = all ? docs.get(docId) : null;
+                if (doc != null && doc.matches(filter) && (after == null || NEWEST_FIRST.compare(doc, after) > 0)) {
+                    hits.add(doc);
+                }
+            }
+            return hits;
+        }
+        BitSet candidates = filter != null ? filter.getHouseIds() : null;
+        if (candidates != null) {
+            for (int bit = candidates.nextSetBit(0); bit >= 0; bit = candidates.nextSetBit(bit + 1)) {
+                Doc doc = docs.get((long) bit);
+                if (doc != null && doc.matches(filter) && (after == null || NEWEST_FIRST.compare(doc, after) > 0)) {
+                    hits.add(doc);
+                }
+            }
+        } else {
+            for (Doc doc : docs.values()) {
+                if (doc.matches(filter) && (after == null || NEWEST_FIRST.compare(doc, after) > 0)) {
+                    hits.add(doc);
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * 取标题包含条件各 n-gram 的倒排表并按长度升序排列，任一 n-gram 不存在时返回 null
+     */
+    private List<Set<Long>> lookupTitleGrams(String title) {
+        String text = title.toLowerCase(Locale.ROOT);
+        Set<String> grams = new HashSet<>();
+        if (text.length() == 1) {
+            grams.add(text);
+        } else {
+            for (int i = 0; i + 1 < text.length(); i++) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+        List<Set<Long>> gramPostings = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Set<Long> posting = titleGrams.get(gram);
+            if (posting == null) {
+                return null;
+            }
+            gramPostings.add(posting);
+        }
+        gramPostings.sort(Comparator.comparingInt(Set::size));
+        return gramPostings;
+    }
+
+    /**
+     * 标题的单字和相邻两字，统一转小写，与 HouseFilter.matchesTitle 的比较方式一致
+     */
+    private static Set<String> titleGramsOf(String title) {
+        Set<String> grams = new HashSet<>();
+        if (title == null) {
+            return grams;
+        }
+        String text = title.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < text.length(); i++) {
+            grams.add(text.substring(i, i + 1));
+            if (i + 1 < text.length()) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static List<Long> toIds(List<Doc> hits, int limit) {
+        int count = Math.min(hits.size(), limit);
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(hits.get(i).id);
+        }
+        return ids;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    private Map<Long, Double> score(List<Doc> hits, List<Map<Long, Float>> termPostings) {
+        int docCount = docs.size();
+        double avgLength = docCount == 0 ? 1 : Math.max(totalLength / docCount, 1);
+        Map<Long, Double> scores = new HashMap<>(hits.size() * 2);
+        for (Doc doc : hits) {
+            double score = 0;
+            for (Map<Long, Float> posting : termPostings) {
+                double idf = Math.log(1 + (docCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                double tf = posting.get(doc.id);
+                score += idf * tf * (BM25_K1 + 1)
+                        / (tf + BM25_K1 * (1 - BM25_B + BM25_B * doc.length / avgLength));
+            }
+            scores.put(doc.id, score);
+        }
+        return scores;
+    }
+
+    private void addDoc(Doc doc) {
+        if (doc.id == null) {
+            return;
+        }
+        docs.put(doc.id, doc);
+        totalLength += doc.length;
+        for (Map.Entry<String, Float> entry : doc.termWeights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(doc.id, entry.getValue());
+        }
+        for (String gram : titleGramsOf(doc.title)) {
+            titleGrams.computeIfAbsent(gram, k -> new HashSet<>()).add(doc.id);
+        }
+    }
+
+    private void removeDoc(Long docId) {
+        Doc old = docs.remove(docId);
+        if (old == null) {
+            return;
+        }
+        totalLength -= old.length;
+        for (String term : old.termWeights.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(docId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String gram : titleGramsOf(old.title)) {
+            Set<Long> posting = titleGrams.get(gram);
+            if (posting != null) {
+                posting.remove(docId);
+                if (posting.isEmpty()) {
+                    titleGrams.remove(gram);
+                }
+            }
+        }
+    }
+}
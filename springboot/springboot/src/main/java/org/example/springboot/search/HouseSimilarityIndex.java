@@ -0,0 +1,485 @@
+package org.example.springboot.search;
+
+import org.example.springboot.entity.House;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 相似房源索引
+ * 只收录待出租房源，每套房屋提取特征：类型、价格和面积（取对数，按比例而不是差值衡量接近程度）、
+ * 经纬度以及配套设施集合。两套房屋的差异为各项特征差异的加权和：类型不同、价格/面积相差的倍数、
+ * 距离（封顶）以及设施集合的 Jaccard 距离，差异越小越相似。
+ * 各类型的房源按对数价格排好序，查询时从目标价格处向两侧展开，价格差异本身已不小于当前第 K 名时停止；
+ * 同类型房源优先，其次是附近网格内的房源，最后才看其他类型。每个分组参与计算的房源数有上限，
+ * 因此结果是近似的第 K 近邻，单次查询只需计算几千次差异。
+ * 距离按平面近似计算（经度按所在纬度折算为公里），同城范围内误差可以忽略。
+ */
+@Component
+public class HouseSimilarityIndex implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseSimilarityIndex.class);
+
+    /** 单次查询最多返回的房源数 */
+    public static final int MAX_K = 20;
+
+    /** 待出租状态 */
+    private static final int AVAILABLE_STATUS = 1;
+    /** 网格步长（度），纬度方向约 2.2 公里 */
+    private static final double CELL_DEGREES = 0.02;
+    /** 同类型分组最多计算的房源数 */
+    private static final int MAX_SCAN_SAME_TYPE = 2000;
+    /** 其他类型只作补充，每个分组最多计算的房源数 */
+    private static final int MAX_SCAN_OTHER_TYPE = 300;
+    /** 附近网格最多计算的房源数 */
+    private static final int MAX_SCAN_NEARBY = 2000;
+
+    private static final double TYPE_WEIGHT = 1.0;
+    /** 价格相差一倍约增加 1.4 */
+    private static final double PRICE_WEIGHT = 2.0;
+    private static final double AREA_WEIGHT = 1.0;
+    /** 每公里增加 0.2，最多增加 GEO_CAP */
+    private static final double GEO_WEIGHT = 0.2;
+    private static final double GEO_CAP = 2.0;
+    private static final double FACILITY_WEIGHT = 0.5;
+    /** 任意一方缺少价格、面积或位置时该项的差异 */
+    private static final double MISSING_PENALTY = 1.0;
+    private static final double KM_PER_DEGREE = Math.PI * 6371.0088 / 180;
+
+    /**
+     * 房屋特征
+     */
+    private static final class Features {
+        private final long id;
+        private final Long typeId;
+        private final double logPrice;
+        private final double logArea;
+        private final double latitude;
+        private final double longitude;
+        /** 平面坐标（公里） */
+        private final double x;
+        private final double y;
+        /** 设施编号，升序 */
+        private final int[] facilities;
+
+        private Features(House house, int[] facilities) {
+            this.id = house.getId() != null ? house.getId() : -1;
+            this.typeId = house.getTypeId();
+            this.logPrice = logOf(house.getPrice());
+            this.logArea = logOf(house.getArea());
+            boolean located = house.getLatitude() != null && house.getLongitude() != null;
+            this.latitude = located ? house.getLatitude().doubleValue() : Double.NaN;
+            this.longitude = located ? house.getLongitude().doubleValue() : Double.NaN;
+            this.x = longitude * KM_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+            this.y = latitude * KM_PER_DEGREE;
+            this.facilities = facilities;
+        }
+
+        private boolean isLocated() {
+            return !Double.isNaN(latitude);
+        }
+    }
+
+    /**
+     * 候选结果
+     */
+    private static final class Candidate {
+        private final long id;
+        private final double difference;
+
+        private Candidate(long id, double difference) {
+            this.id = id;
+            this.difference = difference;
+        }
+    }
+
+    /** 差异小的在前，相同时新发布（ID大）的在前 */
+    private static final Comparator<Candidate> MOST_SIMILAR = Comparator.<Candidate>comparingDouble(c -> c.difference)
+            .thenComparing(Comparator.<Candidate>comparingLong(c -> c.id).reversed());
+
+    /** 分组内按对数价格排序，缺少价格的单独存放 */
+    private static final Comparator<Features> BY_PRICE = Comparator.<Features>comparingDouble(f -> f.logPrice)
+            .thenComparingLong(f -> f.id);
+
+    /**
+     * 同一类型的房源
+     */
+    private static final class TypeGroup {
+        private final List<Features> priced = new ArrayList<>();
+        private final List<Features> unpriced = new ArrayList<>();
+
+        private void add(Features features, boolean keepSorted) {
+            if (Double.isNaN(features.logPrice)) {
+                unpriced.add(features);
+            } else if (!keepSorted) {
+                priced.add(features);
+            } else {
+                int pos = Collections.binarySearch(priced, features, BY_PRICE);
+                priced.add(pos >= 0 ? pos : -pos - 1, features);
+            }
+        }
+
+        private void remove(Features features) {
+            if (Double.isNaN(features.logPrice)) {
+                unpriced.remove(features);
+                return;
+            }
+            int pos = Collections.binarySearch(priced, features, BY_PRICE);
+            if (pos >= 0) {
+                priced.remove(pos);
+            }
+        }
+
+        private boolean isEmpty() {
+            return priced.isEmpty() && unpriced.isEmpty();
+        }
+    }
+
+    /**
+     * 单次查询的候选集合，保留差异最小的 K 套
+     */
+    private static final class TopK {
+        private final int k;
+        private final long excludeId;
+        private final PriorityQueue<Candidate> heap;
+
+        private TopK(int k, long excludeId) {
+            this.k = k;
+            this.excludeId = excludeId;
+            this.heap = new PriorityQueue<>(k + 1, MOST_SIMILAR.reversed());
+        }
+
+        /**
+         * 同一房源可能同时来自类型分组和附近网格，只在进入结果时去重
+         */
+        private void offer(Features target, Features features) {
+            if (features.id == excludeId) {
+                return;
+            }
+            double limit = heap.size() < k ? Double.MAX_VALUE : heap.peek().difference;
+            double difference = difference(target, features, limit);
+            if (difference > limit) {
+                return;
+            }
+            Candidate candidate = new Candidate(features.id, difference);
+            if (heap.size() >= k && MOST_SIMILAR.compare(candidate, heap.peek()) >= 0) {
+                return;
+            }
+            for (Candidate existing : heap) {
+                if (existing.id == features.id) {
+                    return;
+                }
+            }
+            heap.add(candidate);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        /**
+         * 差异不小于 bound 的房源能否进入结果
+         */
+        private boolean accepts(double bound) {
+            return heap.size() < k || bound < heap.peek().difference;
+        }
+
+        private List<Long> sortedIds() {
+            List<Candidate> candidates = new ArrayList<>(heap);
+            candidates.sort(MOST_SIMILAR);
+            List<Long> ids = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                ids.add(candidate.id);
+            }
+            return ids;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Features> byId = new HashMap<>();
+    private final Map<Long, TypeGroup> groups = new HashMap<>();
+    private final Map<Long, List<Features>> cells = new HashMap<>();
+    /** 规范化设施名称到编号的映射，只增不减 */
+    private final Map<String, Integer> facilityIds = new HashMap<>();
+    private volatile boolean ready;
+
+    @Override
+    public void rebuild(List<House> houses) {
+        lock.writeLock().lock();
+        try {
+            byId.clear();
+            groups.clear();
+            cells.clear();
+            facilityIds.clear();
+            // 全量构建时先追加、最后统一排序
+            for (House house : houses) {
+                add(house, false);
+            }
+            for (TypeGroup group : groups.values()) {
+                group.priced.sort(BY_PRICE);
+            }
+            ready = true;
+            LOGGER.info("相似房源索引构建完成，房源{}套，类型{}个", byId.size(), groups.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(House house) {
+        lock.writeLock().lock();
+        try {
+            removeFeatures(house.getId());
+            add(house, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        lock.writeLock().lock();
+        try {
+            removeFeatures(houseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 查询与指定房屋最相似的待出租房源
+     * @param house 目标房屋，可以不是待出租状态
+     * @param k 返回条数
+     * @return 房屋ID，按相似程度从高到低，不含目标房屋本身
+     */
+    public List<Long> similar(House house, int k) {
+        lock.readLock().lock();
+        try {
+            Features target = new Features(house, lookupFacilities(house.getFacilities()));
+            TopK top = new TopK(k, target.id);
+            TypeGroup sameType = groups.get(target.typeId);
+            if (sameType != null) {
+                scanGroup(target, sameType, 0, MAX_SCAN_SAME_TYPE, top);
+            }
+            if (target.isLocated()) {
+                scanNearby(target, top);
+            }
+            for (Map.Entry<Long, TypeGroup> entry : groups.entrySet()) {
+                if (entry.getValue() != sameType && top.accepts(TYPE_WEIGHT)) {
+                    scanGroup(target, entry.getValue(), TYPE_WEIGHT, MAX_SCAN_OTHER_TYPE, top);
+                }
+            }
+            return top.sortedIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 累计统计数据
+     */
+    public Map<String, Object> getStatistics() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("size", byId.size());
+            stats.put("types", groups.size());
+            stats.put("cells", cells.size());
+            stats.put("facilities", facilityIds.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 从目标价格处向两侧展开，价格差异加上类型差异已无法进入结果时停止
+     */
+    private void scanGroup(Features target, TypeGroup group, double base, int budget, TopK top) {
+        List<Features> priced = group.priced;
+        if (Double.isNaN(target.logPrice)) {
+            // 目标缺少价格时价格项恒为 MISSING_PENALTY，无法按价格剪枝
+            for (int i = 0; i < priced.size() && budget > 0 && top.accepts(base + MISSING_PENALTY); i++, budget--) {
+                top.offer(target, priced.get(i));
+            }
+        } else {
+            int pos = Collections.binarySearch(priced, target, BY_PRICE);
+            int hi = pos >= 0 ? pos : -pos - 1;
+            int lo = hi - 1;
+            while (budget > 0 && (lo >= 0 || hi < priced.size())) {
+                double lowGap = lo >= 0 ? target.logPrice - priced.get(lo).logPrice : Double.MAX_VALUE;
+                double highGap = hi < priced.size() ? priced.get(hi).logPrice - target.logPrice : Double.MAX_VALUE;
+                boolean takeLow = lowGap <= highGap;
+                if (!top.accepts(base + PRICE_WEIGHT * Math.min(lowGap, highGap))) {
+                    break;
+                }
+                Features candidate = priced.get(takeLow ? lo-- : hi++);
+                top.offer(target, candidate);
+                budget--;
+            }
+        }
+        for (int i = 0; i < group.unpriced.size() && budget > 0 && top.accepts(base + MISSING_PENALTY); i++, budget--) {
+            top.offer(target, group.unpriced.get(i));
+        }
+    }
+
+    /**
+     * 目标所在网格及周围 8 个网格内的房源，不限类型
+     */
+    private void scanNearby(Features target, TopK top) {
+        long latCell = cellOf(target.latitude);
+        long lngCell = cellOf(target.longitude);
+        int budget = MAX_SCAN_NEARBY;
+        for (long dLat = -1; dLat <= 1; dLat++) {
+            for (long dLng = -1; dLng <= 1; dLng++) {
+                List<Features> cell = cells.get(cellKey(latCell + dLat, lngCell + dLng));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size() && budget > 0; i++, budget--) {
+                    top.offer(target, cell.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * 两套房屋的差异；类型、价格、面积三项之和已超过 limit 时不再计算距离和设施
+     */
+    private static double difference(Features a, Features b, double limit) {
+        double difference = Objects.equals(a.typeId, b.typeId) ? 0 : TYPE_WEIGHT;
+        difference += Double.isNaN(a.logPrice) || Double.isNaN(b.logPrice) ? MISSING_PENALTY
+                : PRICE_WEIGHT * Math.abs(a.logPrice - b.logPrice);
+        difference += Double.isNaN(a.logArea) || Double.isNaN(b.logArea) ? MISSING_PENALTY
+                : AREA_WEIGHT * Math.abs(a.logArea - b.logArea);
+        if (difference > limit) {
+            return difference;
+        }
+        difference += !a.isLocated() || !b.isLocated() ? MISSING_PENALTY
+                : Math.min(GEO_CAP, GEO_WEIGHT * planarKm(a, b));
+        difference += FACILITY_WEIGHT * jaccardDistance(a.facilities, b.facilities);
+        return difference;
+    }
+
+    private static double planarKm(Features a, Features b) {
+        double dx = a.x - b.x;
+        double dy = a.y - b.y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * 两个升序设施编号集合的 Jaccard 距离，都为空时为 0
+     */
+    private static double jaccardDistance(int[] a, int[] b) {
+        if (a.length == 0 && b.length == 0) {
+            return 0;
+        }
+        int common = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return 1 - (double) common / (a.length + b.length - common);
+    }
+
+    private static double logOf(Number value) {
+        return value != null && value.doubleValue() > 0 ? Math.log(value.doubleValue()) : Double.NaN;
+    }
+
+    /**
+     * 设施名称转为编号；索引中没有的设施用负数编号，与任何房源都不重合
+     */
+    private int[] lookupFacilities(String facilities) {
+        Set<String> names = HouseFacilityIndex.parseFacilities(facilities);
+        int[] ids = new int[names.size()];
+        int unknown = 0;
+        int i = 0;
+        for (String name : names) {
+            Integer id = facilityIds.get(HouseFacilityIndex.normalize(name));
+            ids[i++] = id != null ? id : --unknown;
+        }
+        return distinctSorted(ids);
+    }
+
+    private int[] registerFacilities(String facilities) {
+        Set<String> names = HouseFacilityIndex.parseFacilities(facilities);
+        int[] ids = new int[names.size()];
+        int i = 0;
+        for (String name : names) {
+            ids[i++] = facilityIds.computeIfAbsent(HouseFacilityIndex.normalize(name), key -> facilityIds.size());
+        }
+        return distinctSorted(ids);
+    }
+
+    private static int[] distinctSorted(int[] ids) {
+        return Arrays.stream(ids).distinct().sorted().toArray();
+    }
+
+    private static long cellOf(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(long latCell, long lngCell) {
+        return (latCell << 32) | (lngCell & 0xFFFFFFFFL);
+    }
+
+    private void add(House house, boolean keepSorted) {
+        if (house.getId() == null || !Integer.valueOf(AVAILABLE_STATUS).equals(house.getStatus())) {
+            return;
+        }
+        Features features = new Features(house, registerFacilities(house.getFacilities()));
+        byId.put(features.id, features);
+        groups.computeIfAbsent(features.typeId, key -> new TypeGroup()).add(features, keepSorted);
+        if (features.isLocated()) {
+            cells.computeIfAbsent(cellKey(cellOf(features.latitude), cellOf(features.longitude)),
+                    key -> new ArrayList<>()).add(features);
+        }
+    }
+
+    private void removeFeatures(Long houseId) {
+        Features old = houseId != null ? byId.remove(houseId) : null;
+        if (old == null) {
+            return;
+        }
+        TypeGroup group = groups.get(old.typeId);
+        if (group != null) {
+            group.remove(old);
+            if (group.isEmpty()) {
+                groups.remove(old.typeId);
+            }
+        }
+        if (old.isLocated()) {
+            long key = cellKey(cellOf(old.latitude), cellOf(old.longitude));
+            List<Features> cell = cells.get(key);
+            if (cell != null) {
+                cell.remove(old);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package org.example.springboot.search;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.example.springboot.entity.House;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 待出租房源多字段排序索引
+ * 对每个排序字段（发布时间、价格、面积、单价）维护一个按该字段升序排列的房屋ID数组，
+ * 降序时倒序读取；字段缺失的房屋集中在数组头部，无论升降序都排在最后。
+ * 类型、房东、价格区间以及外部传入的候选集（设施、关键词）都表示为以房屋ID为下标的位图，
+ * 查询时先对位图求交，再沿所选字段的有序数组读取：不带条件时直接按下标取一页；
+ * 候选较少时只对候选排序，候选较多时沿有序数组跳过不在位图中的房屋。
+ * 热度不来自房屋本身，由 HouseCounterService 落库后通过 updatePopularity 推送，重建索引时保留。
+ */
+@Component
+public class HouseSortIndex implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseSortIndex.class);
+
+    /** 待出租状态 */
+    private static final int AVAILABLE_STATUS = 1;
+    private static final int KEY_COUNT = ListingSort.Key.values().length;
+    /** 候选数少于总数的 1/SPARSE_RATIO 时直接对候选排序 */
+    private static final int SPARSE_RATIO = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int POPULARITY = ListingSort.Key.POPULARITY.ordinal();
+    /** 一次更新的热度数超过房源数的 1/RESORT_RATIO 时整体重排 */
+    private static final int RESORT_RATIO = 8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** 各排序字段的取值，下标为房屋ID，NaN 表示缺失 */
+    private final double[][] keys = new double[KEY_COUNT][];
+    /** 各排序字段的有序房屋ID数组，前 size 个有效 */
+    private final int[][] orders = new int[KEY_COUNT][];
+    /** 各排序字段值缺失的房屋数 */
+    private final int[] missing = new int[KEY_COUNT];
+    private int size;
+    private long[] typeOf = new long[0];
+    private long[] landlordOf = new long[0];
+    /** 各房屋的热度，下标为房屋ID，不随重建清空 */
+    private double[] popularity = new double[0];
+    private final BitSet available = new BitSet();
+    private final Map<Long, BitSet> housesByType = new HashMap<>();
+    private final Map<Long, BitSet> housesByLandlord = new HashMap<>();
+    private volatile boolean ready;
+
+    public HouseSortIndex() {
+        for (int k = 0; k < KEY_COUNT; k++) {
+            keys[k] = new double[0];
+            orders[k] = new int[INITIAL_CAPACITY];
+        }
+    }
+
+    @Override
+    public void rebuild(List<House> houses) {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            Arrays.fill(missing, 0);
+            available.clear();
+            housesByType.clear();
+            housesByLandlord.clear();
+            for (House house : houses) {
+                if (isIndexable(house)) {
+                    setAttributes(house);
+                }
+            }
+            // 全量构建时整体排序，不逐个插入
+            Integer[] ids = available.stream().boxed().toArray(Integer[]::new);
+            size = ids.length;
+            for (int k = 0; k < KEY_COUNT; k++) {
+                final int key = k;
+                Arrays.sort(ids, (a, b) -> compareAscending(key, a, b));
+                int[] order = new int[Math.max(INITIAL_CAPACITY, size + size / 4)];
+                for (int i = 0; i < size; i++) {
+                    order[i] = ids[i];
+                    if (Double.isNaN(keys[k][ids[i]])) {
+                        missing[k]++;
+                    }
+                }
+                orders[k] = order;
+            }
+            ready = true;
+            LOGGER.info("房源排序索引构建完成，待出租房源{}套", size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(House house) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(house.getId());
+            if (isIndexable(house)) {
+                setAttributes(house);
+                int id = house.getId().intValue();
+                for (int k = 0; k < KEY_COUNT; k++) {
+                    insert(k, id);
+                }
+                size++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(houseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 更新房屋热度，只调整热度有序数组中这些房屋的位置；数量较多时整体重排
+     * @param scores 房屋ID -> 热度
+     */
+    public void updatePopularity(Map<Long, Double> scores) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            boolean resort = scores.size() > size / RESORT_RATIO;
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                Long houseId = entry.getKey();
+                if (houseId == null || houseId < 0 || houseId >= Integer.MAX_VALUE) {
+                    continue;
+                }
+                int id = houseId.intValue();
+                double score = entry.getValue();
+                if (id >= popularity.length) {
+                    popularity = Arrays.copyOf(popularity, Math.max(id + 1, popularity.length + (popularity.length >> 1)));
+                }
+                popularity[id] = score;
+                if (!available.get(id) || keys[POPULARITY][id] == score) {
+                    continue;
+                }
+                if (resort) {
+                    keys[POPULARITY][id] = score;
+                } else {
+                    int pos = search(POPULARITY, id);
+                    System.arraycopy(orders[POPULARITY], pos + 1, orders[POPULARITY], pos, size - pos - 1);
+                    keys[POPULARITY][id] = score;
+                    size--;
+                    insert(POPULARITY, id);
+                    size++;
+                }
+            }
+            if (resort) {
+                Integer[] ids = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    ids[i] = orders[POPULARITY][i];
+                }
+                Arrays.sort(ids, (a, b) -> compareAscending(POPULARITY, a, b));
+                for (int i = 0; i < size; i++) {
+                    orders[POPULARITY][i] = ids[i];
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按指定排序分页查询待出租房源
+     * @param filter 过滤条件（价格、类型、房东、候选房屋位图），状态条件无需指定，可为空
+     * @param sort 排序方式
+     * @return 当前页的房屋ID（有序）及精确总数
+     */
+    public Page<Long> page(HouseFilter filter, ListingSort sort, Integer currentPage, Integer pageSize) {
+        Page<Long> page = new Page<>(currentPage, pageSize);
+        long offset = page.offset();
+        int limit = (int) Math.max(0, page.getSize());
+        int key = sort.getKey().ordinal();
+        boolean descending = sort.isDescending();
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(filter);
+            if (candidates == null) {
+                // 无过滤条件：按下标直接定位，O(页大小)
+                for (long p = offset; p < size && ids.size() < limit; p++) {
+                    ids.add((long) idAt(key, descending, (int) p));
+                }
+                page.setTotal(size);
+            } else {
+                int total = candidates.cardinality();
+                if (offset < total) {
+                    if ((long) total * SPARSE_RATIO < size) {
+                        sortCandidates(candidates, total, key, descending, offset, limit, ids);
+                    } else {
+                        walkCandidates(candidates, key, descending, offset, limit, ids);
+                    }
+                }
+                page.setTotal(total);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        page.setRecords(ids);
+        return page;
+    }
+
+    private static boolean isIndexable(House house) {
+        Long id = house.getId();
+        return id != null && id >= 0 && id < Integer.MAX_VALUE
+                && Integer.valueOf(AVAILABLE_STATUS).equals(house.getStatus());
+    }
+
+    /**
+     * 记录房屋的排序字段和过滤位图，不修改有序数组
+     */
+    private void setAttributes(House house) {
+        int id = house.getId().intValue();
+        ensureCapacity(id + 1);
+        double[] values = sortValues(house);
+        for (int k = 0; k < KEY_COUNT; k++) {
+            keys[k][id] = values[k];
+        }
+        keys[POPULARITY][id] = id < popularity.length ? popularity[id] : 0;
+        typeOf[id] = house.getTypeId() != null ? house.getTypeId() : -1;
+        landlordOf[id] = house.getLandlordId() != null ? house.getLandlordId() : -1;
+        available.set(id);
+        if (house.getTypeId() != null) {
+            housesByType.computeIfAbsent(house.getTypeId(), t -> new BitSet()).set(id);
+        }
+        if (house.getLandlordId() != null) {
+            housesByLandlord.computeIfAbsent(house.getLandlordId(), l -> new BitSet()).set(id);
+        }
+    }
+
+    private static double[] sortValues(House house) {
+        double[] values = new double[KEY_COUNT];
+        Arrays.fill(values, Double.NaN);
+        if (house.getCreateTime() != null) {
+            values[ListingSort.Key.CREATE_TIME.ordinal()] =
+                    house.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        BigDecimal price = house.getPrice();
+        BigDecimal area = house.getArea();
+        if (price != null) {
+            values[ListingSort.Key.PRICE.ordinal()] = price.doubleValue();
+        }
+        if (area != null) {
+            values[ListingSort.Key.AREA.ordinal()] = area.doubleValue();
+        }
+        if (price != null && area != null && area.signum() > 0) {
+            values[ListingSort.Key.UNIT_PRICE.ordinal()] = price.divide(area, 4, RoundingMode.HALF_UP).doubleValue();
+        }
+        return values;
+    }
+
+    private void removeInternal(Long houseId) {
+        if (houseId == null || houseId < 0 || houseId >= Integer.MAX_VALUE || !available.get(houseId.intValue())) {
+            return;
+        }
+        int id = houseId.intValue();
+        for (int k = 0; k < KEY_COUNT; k++) {
+            int pos = search(k, id);
+            System.arraycopy(orders[k], pos + 1, orders[k], pos, size - pos - 1);
+            if (Double.isNaN(keys[k][id])) {
+                missing[k]--;
+            }
+        }
+        size--;
+        available.clear(id);
+        clearBit(housesByType, typeOf[id], id);
+        clearBit(housesByLandlord, landlordOf[id], id);
+    }
+
+    private static void clearBit(Map<Long, BitSet> bitsets, long key, int id) {
+        BitSet bits = bitsets.get(key);
+        if (bits != null) {
+            bits.clear(id);
+            if (bits.isEmpty()) {
+                bitsets.remove(key);
+            }
+        }
+    }
+
+    private void insert(int key, int id) {
+        int[] order = orders[key];
+        if (size == order.length) {
+            order = Arrays.copyOf(order, order.length + (order.length >> 1));
+            orders[key] = order;
+        }
+        int pos = -search(key, id) - 1;
+        System.arraycopy(order, pos, order, pos + 1, size - pos);
+        order[pos] = id;
+        if (Double.isNaN(keys[key][id])) {
+            missing[key]++;
+        }
+    }
+
+    /**
+     * 在有序数组中二分查找房屋，未找到时返回 -(插入点) - 1
+     */
+    private int search(int key, int id) {
+        int[] order = orders[key];
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareAscending(key, order[mid], id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * 有序数组的排列规则：缺失值在前，其余按字段值、ID升序
+     */
+    private int compareAscending(int key, int a, int b) {
+        double ka = keys[key][a];
+        double kb = keys[key][b];
+        boolean missingA = Double.isNaN(ka);
+        boolean missingB = Double.isNaN(kb);
+        if (missingA != missingB) {
+            return missingA ? -1 : 1;
+        }
+        if (!missingA) {
+            int cmp = Double.compare(ka, kb);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a, b);
+    }
+
+    /**
+     * 结果中第 p 个房屋：先按升序或降序读取有值的部分，再读取缺失值的部分
+     */
+    private int idAt(int key, boolean descending, int p) {
+        int present = size - missing[key];
+        if (p < present) {
+            return descending ? orders[key][size - 1 - p] : orders[key][missing[key] + p];
+        }
+        return orders[key][p - present];
+    }
+
+    /**
+     * 与 idAt 一致的结果顺序比较
+     */
+    private int compareResult(int key, boolean descending, int a, int b) {
+        boolean missingA = Double.isNaN(keys[key][a]);
+        boolean missingB = Double.isNaN(keys[key][b]);
+        if (missingA != missingB) {
+            return missingA ? 1 : -1;
+        }
+        int cmp = compareAscending(key, a, b);
+        return descending && !missingA ? -cmp : cmp;
+    }
+
+    private void sortCandidates(BitSet candidates, int total, int key, boolean descending,
+                                long offset, int limit, List<Long> ids) {
+        Integer[] sorted = new Integer[total];
+        int i = 0;
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            sorted[i++] = id;
+        }
+        Arrays.sort(sorted, (a, b) -> compareResult(key, descending, a, b));
+        for (long p = offset; p < total && ids.size() < limit; p++) {
+            ids.add((long) sorted[(int) p]);
+        }
+    }
+
+    private void walkCandidates(BitSet candidates, int key, boolean descending,
+                                long offset, int limit, List<Long> ids) {
+        long matched = 0;
+        for (int p = 0; p < size && ids.size() < limit; p++) {
+            int id = idAt(key, descending, p);
+            if (candidates.get(id)) {
+                if (matched >= offset) {
+                    ids.add((long) id);
+                }
+                matched++;
+            }
+        }
+    }
+
+    /**
+     * 各过滤条件对应位图的交集
+     * @return 候选房屋位图，没有过滤条件时返回 null
+     */
+    private BitSet candidates(HouseFilter filter) {
+        if (filter == null) {
+            return null;
+        }
+        BitSet result = null;
+        if (filter.getStatus() != null && filter.getStatus() != AVAILABLE_STATUS) {
+            return new BitSet();
+        }
+        if (filter.getHouseIds() != null) {
+            result = and(result, filter.getHouseIds());
+        }
+        if (filter.getTypeId() != null) {
+            result = and(result, housesByType.getOrDefault(filter.getTypeId(), new BitSet()));
+        }
+        if (filter.getLandlordId() != null) {
+            result = and(result, housesByLandlord.getOrDefault(filter.getLandlordId(), new BitSet()));
+        }
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            result = and(result, priceRange(filter.getMinPrice(), filter.getMaxPrice()));
+        }
+        if (result != null) {
+            result.and(available);
+        }
+        return result;
+    }
+
+    private static BitSet and(BitSet result, BitSet bits) {
+        if (result == null) {
+            return (BitSet) bits.clone();
+        }
+        result.and(bits);
+        return result;
+    }
+
+    /**
+     * 沿价格有序数组二分定位区间，生成区间内房屋的位图
+     */
+    private BitSet priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        int key = ListingSort.Key.PRICE.ordinal();
+        int[] order = orders[key];
+        double min = minPrice != null ? minPrice.doubleValue() : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice.doubleValue() : Double.POSITIVE_INFINITY;
+        int from = lowerBound(key, missing[key], min, false);
+        int to = lowerBound(key, from, max, true);
+        BitSet bits = new BitSet();
+        for (int i = from; i < to; i++) {
+            bits.set(order[i]);
+        }
+        return bits;
+    }
+
+    /**
+     * 有值部分中第一个字段值 >= value（inclusive 为 true 时 > value）的位置
+     */
+    private int lowerBound(int key, int from, double value, boolean inclusive) {
+        int[] order = orders[key];
+        int low = from;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            double current = keys[key][order[mid]];
+            if (current < value || (inclusive && current == value)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= typeOf.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, typeOf.length + (typeOf.length >> 1) + INITIAL_CAPACITY);
+        for (int k = 0; k < KEY_COUNT; k++) {
+            int oldLength = keys[k].length;
+            keys[k] = Arrays.copyOf(keys[k], newCapacity);
+            Arrays.fill(keys[k], oldLength, newCapacity, Double.NaN);
+        }
+        typeOf = Arrays.copyOf(typeOf, newCapacity);
+        landlordOf = Arrays.copyOf(landlordOf, newCapacity);
+    }
+}
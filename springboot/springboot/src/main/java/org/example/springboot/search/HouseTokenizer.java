@@ -0,0 +1,83 @@
+package org.example.springboot.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 面向中文的分词器
+ * 汉字按二元组（bigram）切分，同时保留单字以支持单字检索；字母、数字连续串作为一个词并转小写。
+ * 文本先做 NFKC 归一化，全角字母数字与半角等价。
+ */
+public final class HouseTokenizer {
+
+    private HouseTokenizer() {
+    }
+
+    /**
+     * 索引时使用：汉字输出单字和二元组
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens, true);
+        return tokens;
+    }
+
+    /**
+     * 查询时使用：汉字串长度大于1时只输出二元组（全部命中即近似于子串匹配），单个汉字输出单字
+     */
+    public static Set<String> tokenizeForQuery(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens, false);
+        return new LinkedHashSet<>(tokens);
+    }
+
+    public static boolean isHan(int codePoint) {
+        return Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN;
+    }
+
+    public static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+    }
+
+    private static void tokenize(String text, List<String> tokens, boolean forIndex) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String normalized = normalize(text);
+        int[] codePoints = normalized.codePoints().toArray();
+        int i = 0;
+        while (i < codePoints.length) {
+            int cp = codePoints[i];
+            if (isHan(cp)) {
+                int start = i;
+                while (i < codePoints.length && isHan(codePoints[i])) {
+                    i++;
+                }
+                emitHan(codePoints, start, i, tokens, forIndex);
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < codePoints.length && !isHan(codePoints[i]) && Character.isLetterOrDigit(codePoints[i])) {
+                    i++;
+                }
+                tokens.add(new String(codePoints, start, i - start));
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void emitHan(int[] codePoints, int start, int end, List<String> tokens, boolean forIndex) {
+        int length = end - start;
+        if (length == 1 || forIndex) {
+            for (int i = start; i < end; i++) {
+                tokens.add(new String(codePoints, i, 1));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.springboot.search;
+
+/**
+ * 待出租房源列表的排序方式
+ */
+public enum ListingSort {
+    /** 按发布时间降序（默认） */
+    NEWEST(Key.CREATE_TIME, true),
+    /** 按月租金升序 */
+    PRICE_ASC(Key.PRICE, false),
+    /** 按月租金降序 */
+    PRICE_DESC(Key.PRICE, true),
+    /** 按面积升序 */
+    AREA_ASC(Key.AREA, false),
+    /** 按面积降序 */
+    AREA_DESC(Key.AREA, true),
+    /** 按每平方米单价升序 */
+    UNIT_PRICE_ASC(Key.UNIT_PRICE, false),
+    /** 按每平方米单价降序 */
+    UNIT_PRICE_DESC(Key.UNIT_PRICE, true),
+    /** 按热度（浏览量和收藏数）降序 */
+    POPULAR(Key.POPULARITY, true);
+
+    /**
+     * 排序字段
+     */
+    public enum Key {
+        CREATE_TIME,
+        PRICE,
+        AREA,
+        UNIT_PRICE,
+        POPULARITY
+    }
+
+    private final Key key;
+    private final boolean descending;
+
+    ListingSort(Key key, boolean descending) {
+        this.key = key;
+        this.descending = descending;
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+}
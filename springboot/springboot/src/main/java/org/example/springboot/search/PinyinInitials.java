@@ -0,0 +1,97 @@
+package org.example.springboot.search;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+
+/**
+ * 汉字拼音首字母
+ * GB2312 一级汉字按拼音排序，各声母的起始区位码是固定的，据此即可得到首字母，无需拼音词库。
+ * 启动时为 CJK 基本区的每个汉字预先算好首字母；二级汉字（按部首排序）和生僻字没有首字母。
+ * 多音字取 GB2312 收录时的读音。
+ */
+public final class PinyinInitials {
+    private static final char CJK_START = '一';
+    private static final char CJK_END = '龥';
+    /** 各首字母在 GB2312 中的起始编码，最后一项为一级汉字结束位置 */
+    private static final int[] BOUNDARIES = {
+            0xB0A1, 0xB0C5, 0xB2C1, 0xB4EE, 0xB6EA, 0xB7A2, 0xB8C1, 0xB9FE, 0xBBF7, 0xBFA6, 0xC0AC, 0xC2E8,
+            0xC4C3, 0xC5B6, 0xC5BE, 0xC6DA, 0xC8BB, 0xC8F6, 0xCBFA, 0xCDDA, 0xCEF4, 0xD1B9, 0xD4D1, 0xD7FA
+    };
+    private static final char[] LETTERS = "abcdefghjklmnopqrstwxyz".toCharArray();
+    private static final char[] TABLE = buildTable();
+
+    private PinyinInitials() {
+    }
+
+    /**
+     * 汉字的拼音首字母（小写）
+     * @return 首字母，非汉字或无法确定时返回 0
+     */
+    public static char initialOf(char c) {
+        return c >= CJK_START && c <= CJK_END ? TABLE[c - CJK_START] : 0;
+    }
+
+    /**
+     * 文本中是否包含可取首字母的汉字
+     */
+    public static boolean hasInitials(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (initialOf(text.charAt(i)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把文本转换为首字母串：汉字取首字母，字母和数字保留（小写），其他字符忽略
+     */
+    public static String initials(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char initial = initialOf(c);
+            if (initial != 0) {
+                builder.append(initial);
+            } else if (c < 128 && Character.isLetterOrDigit(c)) {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static char[] buildTable() {
+        char[] table = new char[CJK_END - CJK_START + 1];
+        CharsetEncoder encoder = Charset.forName("GB2312").newEncoder();
+        for (char c = CJK_START; c <= CJK_END; c++) {
+            if (!encoder.canEncode(c)) {
+                continue;
+            }
+            try {
+                ByteBuffer bytes = encoder.encode(CharBuffer.wrap(new char[]{c}));
+                if (bytes.remaining() == 2) {
+                    int code = ((bytes.get() & 0xFF) << 8) | (bytes.get() & 0xFF);
+                    table[c - CJK_START] = letterOf(code);
+                }
+            } catch (CharacterCodingException ignored) {
+                // 无法编码的字符没有首字母
+            }
+        }
+        return table;
+    }
+
+    private static char letterOf(int code) {
+        if (code < BOUNDARIES[0] || code >= BOUNDARIES[BOUNDARIES.length - 1]) {
+            return 0;
+        }
+        for (int i = LETTERS.length - 1; i >= 0; i--) {
+            if (code >= BOUNDARIES[i]) {
+                return LETTERS[i];
+            }
+        }
+        return 0;
+    }
+}
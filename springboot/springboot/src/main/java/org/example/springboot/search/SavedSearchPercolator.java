@@ -0,0 +1,375 @@
+package org.example.springboot.search;
+
+import jakarta.annotation.Resource;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.SavedSearch;
+import org.example.springboot.event.HouseListedEvent;
+import org.example.springboot.event.SavedSearchChangedEvent;
+import org.example.springboot.mapper.SavedSearchMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 保存的搜索反向匹配索引
+ * 与普通检索相反：索引的是租客保存的搜索条件，输入一套房屋，找出它满足的全部搜索。
+ * 每个搜索只挂在一个“锚点”下：有关键词时取一个查询词项，否则取一项设施，再否则取房屋类型，
+ * 都没有的挂在公共分组；同类锚点有多个可选时挂到当前最小的分组，避免热门词项的分组过大。
+ * 匹配时只查看房屋自身词项、设施和类型对应的分组，分组内按最低价格排序，只需检查最低价格不超过
+ * 房价的前缀，再逐条校验完整条件，匹配开销与搜索总数无关。
+ * 同时作为房屋索引维护待出租房源集合：房屋新发布或恢复为待出租时发布 HouseListedEvent，
+ * 由提醒服务异步匹配并写入提醒，房东的写操作不等待匹配。
+ */
+@Component
+public class SavedSearchPercolator implements HouseIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SavedSearchPercolator.class);
+
+    /** 待出租状态 */
+    private static final int AVAILABLE_STATUS = 1;
+    private static final String TERM_PREFIX = "t:";
+    private static final String FACILITY_PREFIX = "f:";
+    private static final String TYPE_PREFIX = "y:";
+    private static final String ANY_KEY = "*";
+
+    @Resource
+    private SavedSearchMapper savedSearchMapper;
+
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 匹配结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Match {
+        private final Long savedSearchId;
+        private final Long userId;
+    }
+
+    /**
+     * 编译后的搜索条件
+     */
+    private static final class Query {
+        private final long id;
+        private final Long userId;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+        private final Long typeId;
+        private final Set<String> terms;
+        private final Set<String> facilities;
+        /** 排序键，没有最低价格时排在最前 */
+        private final double floor;
+        private String anchor;
+
+        private Query(SavedSearch search) {
+            this.id = search.getId();
+            this.userId = search.getUserId();
+            this.minPrice = search.getMinPrice();
+            this.maxPrice = search.getMaxPrice();
+            this.typeId = search.getTypeId();
+            this.terms = HouseTokenizer.tokenizeForQuery(search.getKeyword());
+            this.facilities = new LinkedHashSet<>();
+            for (String name : HouseFacilityIndex.parseFacilities(search.getFacilities())) {
+                facilities.add(HouseFacilityIndex.normalize(name));
+            }
+            this.floor = minPrice != null ? minPrice.doubleValue() : Double.NEGATIVE_INFINITY;
+        }
+
+        private boolean matches(Candidate house) {
+            if (minPrice != null && (house.price == null || house.price.compareTo(minPrice) < 0)) {
+                return false;
+            }
+            if (maxPrice != null && (house.price == null || house.price.compareTo(maxPrice) > 0)) {
+                return false;
+            }
+            if (typeId != null && !typeId.equals(house.typeId)) {
+                return false;
+            }
+            return house.tokens.containsAll(terms) && house.facilities.containsAll(facilities);
+        }
+    }
+
+    /** 按最低价格升序，相同时按ID */
+    private static final Comparator<Query> BY_FLOOR = Comparator.<Query>comparingDouble(q -> q.floor)
+            .thenComparingLong(q -> q.id);
+
+    /**
+     * 参与匹配的房屋，词项与全文索引的切分方式一致（标题、地址、描述）
+     */
+    private static final class Candidate {
+        private final BigDecimal price;
+        private final Long typeId;
+        private final Set<String> tokens = new HashSet<>();
+        private final Set<String> facilities = new HashSet<>();
+
+        private Candidate(House house) {
+            this.price = house.getPrice();
+            this.typeId = house.getTypeId();
+            tokens.addAll(HouseTokenizer.tokenizeForIndex(house.getTitle()));
+            tokens.addAll(HouseTokenizer.tokenizeForIndex(house.getAddress()));
+            tokens.addAll(HouseTokenizer.tokenizeForIndex(house.getDescription()));
+            for (String name : HouseFacilityIndex.parseFacilities(house.getFacilities())) {
+                facilities.add(HouseFacilityIndex.normalize(name));
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** 锚点到按最低价格排序的搜索列表 */
+    private final Map<String, List<Query>> buckets = new HashMap<>();
+    private final Map<Long, Query> queries = new HashMap<>();
+    /** 当前待出租的房屋，用于识别上架 */
+    private final BitSet available = new BitSet();
+    private volatile boolean ready;
+
+    private final LongAdder percolations = new LongAdder();
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder matched = new LongAdder();
+
+    /**
+     * 加载全部开启提醒的搜索，并记录当前待出租房源；全量构建不产生提醒
+     */
+    @Override
+    public void rebuild(List<House> houses) {
+        List<SavedSearch> searches = savedSearchMapper.selectList(null);
+        lock.writeLock().lock();
+        try {
+            buckets.clear();
+            queries.clear();
+            for (SavedSearch search : searches) {
+                register(search);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        synchronized (available) {
+            available.clear();
+            for (House house : houses) {
+                if (isAvailable(house) && house.getId() >= 0 && house.getId() <= Integer.MAX_VALUE) {
+                    available.set(house.getId().intValue());
+                }
+            }
+        }
+        ready = true;
+        LOGGER.info("保存的搜索反向索引构建完成，搜索{}个，分组{}个", queries.size(), buckets.size());
+    }
+
+    @Override
+    public void upsert(House house) {
+        if (house.getId() == null || house.getId() < 0 || house.getId() > Integer.MAX_VALUE) {
+            return;
+        }
+        int id = house.getId().intValue();
+        boolean listed;
+        synchronized (available) {
+            listed = isAvailable(house) && !available.get(id);
+            available.set(id, isAvailable(house));
+        }
+        if (listed && ready) {
+            House snapshot = new House();
+            BeanUtils.copyProperties(house, snapshot);
+            eventPublisher.publishEvent(new HouseListedEvent(snapshot));
+        }
+    }
+
+    @Override
+    public void remove(Long houseId) {
+        if (houseId == null || houseId < 0 || houseId > Integer.MAX_VALUE) {
+            return;
+        }
+        synchronized (available) {
+            available.clear(houseId.intValue());
+        }
+    }
+
+    /**
+     * 搜索新增、修改或删除后重新加载该搜索
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSavedSearchChanged(SavedSearchChangedEvent event) {
+        Long id = event.getSavedSearchId();
+        if (id == null) {
+            return;
+        }
+        SavedSearch search = savedSearchMapper.selectById(id);
+        lock.writeLock().lock();
+        try {
+            unregister(id);
+            if (search != null) {
+                register(search);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 找出房屋满足的全部搜索
+     * @param house 房屋
+     * @return 命中的搜索，按搜索ID升序
+     */
+    public List<Match> percolate(House house) {
+        Candidate candidate = new Candidate(house);
+        double price = house.getPrice() != null ? house.getPrice().doubleValue() : Double.NEGATIVE_INFINITY;
+        List<Query> hits = new ArrayList<>();
+        int visited = 0;
+        lock.readLock().lock();
+        try {
+            for (String token : candidate.tokens) {
+                visited += scan(TERM_PREFIX + token, candidate, price, hits);
+            }
+            for (String facility : candidate.facilities) {
+                visited += scan(FACILITY_PREFIX + facility, candidate, price, hits);
+            }
+            if (candidate.typeId != null) {
+                visited += scan(TYPE_PREFIX + candidate.typeId, candidate, price, hits);
+            }
+            visited += scan(ANY_KEY, candidate, price, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+        percolations.increment();
+        checked.add(visited);
+        matched.add(hits.size());
+        hits.sort(Comparator.comparingLong(q -> q.id));
+        List<Match> matches = new ArrayList<>(hits.size());
+        for (Query query : hits) {
+            matches.add(new Match(query.id, query.userId));
+        }
+        return matches;
+    }
+
+    /**
+     * 累计统计数据
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("ready", ready);
+            stats.put("searches", queries.size());
+            stats.put("buckets", buckets.size());
+            int largest = 0;
+            for (List<Query> bucket : buckets.values()) {
+                largest = Math.max(largest, bucket.size());
+            }
+            stats.put("largestBucket", largest);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("percolations", percolations.sum());
+        stats.put("checked", checked.sum());
+        stats.put("matched", matched.sum());
+        return stats;
+    }
+
+    private static boolean isAvailable(House house) {
+        return house.getId() != null && Integer.valueOf(AVAILABLE_STATUS).equals(house.getStatus());
+    }
+
+    /**
+     * 检查分组中最低价格不超过房价的前缀
+     * @return 校验过的搜索数
+     */
+    private int scan(String key, Candidate candidate, double price, List<Query> hits) {
+        List<Query> bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        int visited = 0;
+        for (Query query : bucket) {
+            if (query.floor > price) {
+                break;
+            }
+            visited++;
+            if (query.matches(candidate)) {
+                hits.add(query);
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * 登记搜索，调用方需持有写锁；关闭提醒或没有有效条件的搜索不登记
+     */
+    private void register(SavedSearch search) {
+        if (search.getId() == null || !Integer.valueOf(1).equals(search.getNotifyEnabled())) {
+            return;
+        }
+        Query query = new Query(search);
+        query.anchor = chooseAnchor(query);
+        queries.put(query.id, query);
+        List<Query> bucket = buckets.computeIfAbsent(query.anchor, key -> new ArrayList<>());
+        int pos = Collections.binarySearch(bucket, query, BY_FLOOR);
+        bucket.add(pos >= 0 ? pos : -pos - 1, query);
+    }
+
+    private void unregister(Long id) {
+        Query old = queries.remove(id);
+        if (old == null) {
+            return;
+        }
+        List<Query> bucket = buckets.get(old.anchor);
+        if (bucket != null) {
+            int pos = Collections.binarySearch(bucket, old, BY_FLOOR);
+            if (pos >= 0) {
+                bucket.remove(pos);
+            }
+            if (bucket.isEmpty()) {
+                buckets.remove(old.anchor);
+            }
+        }
+    }
+
+    /**
+     * 词项优先于设施，设施优先于类型；同类中选当前最小的分组
+     */
+    private String chooseAnchor(Query query) {
+        if (!query.terms.isEmpty()) {
+            return smallestBucket(TERM_PREFIX, query.terms);
+        }
+        if (!query.facilities.isEmpty()) {
+            return smallestBucket(FACILITY_PREFIX, query.facilities);
+        }
+        return query.typeId != null ? TYPE_PREFIX + query.typeId : ANY_KEY;
+    }
+
+    private String smallestBucket(String prefix, Set<String> keys) {
+        String best = null;
+        int bestSize = Integer.MAX_VALUE;
+        for (String key : keys) {
+            List<Query> bucket = buckets.get(prefix + key);
+            int size = bucket != null ? bucket.size() : 0;
+            if (size < bestSize) {
+                best = prefix + key;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.cache.HouseTypeDictionary;
+import org.example.springboot.cache.RequestIdentityMap;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.Order;
+import org.example.springboot.entity.User;
+import org.example.springboot.mapper.OrderMapper;
+import org.example.springboot.search.AvailableListingReadModel;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 关联数据批量加载器
+ * 先从一页数据中收集外键，再按实体类型各执行一次 selectBatchIds（房屋类型走内存字典），
+ * 使列表接口的查询次数与每页行数无关
+ */
+@Component
+public class AssociationLoader {
+
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+
+    @Resource
+    private HouseTypeDictionary houseTypeDictionary;
+
+    @Resource
+    private OrderMapper orderMapper;
+
+    /**
+     * 从数据行中收集外键ID（去重、去空）
+     * @param rows 数据行
+     * @param getters 外键取值函数
+     * @return 外键ID集合
+     */
+    @SafeVarargs
+    public static <T> Set<Long> collectIds(Collection<T> rows, Function<T, Long>... getters) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (rows == null) {
+            return ids;
+        }
+        for (T row : rows) {
+            for (Function<T, Long> getter : getters) {
+                Long id = getter.apply(row);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 批量加载用户
+     */
+    public Map<Long, User> loadUsers(Collection<Long> ids) {
+        // 用户和房屋经由请求级缓存加载，同一请求内已查过的ID不再访问数据库
+        return requestIdentityMap.getUsers(ids);
+    }
+
+    /**
+     * 批量加载房屋
+     */
+    public Map<Long, House> loadHouses(Collection<Long> ids) {
+        return requestIdentityMap.getHouses(ids);
+    }
+
+    /**
+     * 批量加载订单
+     */
+    public Map<Long, Order> loadOrders(Collection<Long> ids) {
+        return loadByIds(orderMapper, ids, Order::getId);
+    }
+
+    /**
+     * 为房屋列表填充房屋类型名称和房东信息
+     * 类型名称取自内存字典，房东信息最多一次查询
+     * @param houses 房屋列表
+     */
+    public void fillHouseInfo(List<House> houses) {
+        if (houses == null || houses.isEmpty()) {
+            return;
+        }
+
+        houseTypeDictionary.fillTypeNames(houses);
+        Map<Long, User> landlords = loadUsers(collectIds(houses, House::getLandlordId));
+
+        for (House house : houses) {
+            if (house == null) {
+                continue;
+            }
+            house.setCoverImage(AvailableListingReadModel.parseCoverImage(house.getImages()));
+            User landlord = landlords.get(house.getLandlordId());
+            if (landlord != null) {
+                house.setLandlordName(landlord.getName());
+                house.setLandlordImg(landlord.getAvatar());
+            }
+        }
+    }
+
+    private <T> Map<Long, T> loadByIds(BaseMapper<T> mapper, Collection<Long> ids, Function<T, Long> idGetter) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, T> result = new HashMap<>(distinctIds.size() * 2);
+        for (T entity : mapper.selectBatchIds(distinctIds)) {
+            result.put(idGetter.apply(entity), entity);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,295 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.ContractJob;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.LeaseRecord;
+import org.example.springboot.entity.Order;
+import org.example.springboot.entity.User;
+import org.example.springboot.enumClass.ContractJobStatus;
+import org.example.springboot.event.ContractJobCreatedEvent;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.ContractJobMapper;
+import org.example.springboot.mapper.HouseMapper;
+import org.example.springboot.mapper.LeaseRecordMapper;
+import org.example.springboot.mapper.OrderMapper;
+import org.example.springboot.mapper.UserMapper;
+import org.example.springboot.util.ContractGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 合同生成任务（事务发件箱）
+ * 确认订单时只在同一事务中写入一行 contract_job，不在持有订单、房屋行锁期间渲染 PDF；
+ * 事务提交后任务立即提交到合同线程池，生成完成后回填租赁记录的合同URL。
+ * 执行前以 UPDATE ... WHERE status = 待执行 认领任务，同一任务只会被一个线程（或实例）执行；
+ * 完成和失败时以 WHERE status = 执行中 AND attempts = 认领时的次数 回写，执行超时被恢复并重新认领的任务，
+ * 原执行者的结果不会覆盖新的执行；回填合同URL与标记完成在同一事务中提交。
+ * 线程池已满、进程重启或生成失败的任务留在表中，由定时轮询按退避时间重试，超过最大次数后放弃。
+ */
+@Service
+public class ContractJobService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContractJobService.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    /** 退避的最大倍数 */
+    private static final int MAX_BACKOFF_SHIFT = 6;
+
+    @Resource
+    private ContractJobMapper contractJobMapper;
+
+    @Resource
+    private LeaseRecordMapper leaseRecordMapper;
+
+    @Resource
+    private OrderMapper orderMapper;
+
+    @Resource
+    private HouseMapper houseMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private ContractGenerator contractGenerator;
+
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource(name = "contractExecutor")
+    private Executor contractExecutor;
+
+    @Value("${contract.job.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${contract.job.retry-delay-seconds:30}")
+    private long retryDelaySeconds;
+
+    @Value("${contract.job.running-timeout-seconds:300}")
+    private long runningTimeoutSeconds;
+
+    @Value("${contract.job.poll-batch-size:100}")
+    private int pollBatchSize;
+
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong staleResults = new AtomicLong();
+    private final AtomicLong totalRenderMillis = new AtomicLong();
+    private final AtomicLong maxRenderMillis = new AtomicLong();
+
+    /**
+     * 在调用方的事务中写入合同生成任务，事务提交后开始执行
+     * @param leaseRecordId 租赁记录ID
+     */
+    public ContractJob enqueue(Long leaseRecordId) {
+        LocalDateTime now = LocalDateTime.now();
+        ContractJob job = new ContractJob();
+        job.setLeaseRecordId(leaseRecordId);
+        job.setStatus(ContractJobStatus.PENDING.getValue());
+        job.setAttempts(0);
+        job.setNextRunTime(now);
+        job.setCreateTime(now);
+        job.setUpdateTime(now);
+        contractJobMapper.insert(job);
+        eventPublisher.publishEvent(new ContractJobCreatedEvent(job.getId()));
+        return job;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobCreated(ContractJobCreatedEvent event) {
+        submit(event.getJobId());
+    }
+
+    /**
+     * 定时补做：恢复执行超时的任务，提交已到重试时间的待执行任务
+     */
+    @Scheduled(initialDelayString = "${contract.job.poll-interval-ms:30000}",
+            fixedDelayString = "${contract.job.poll-interval-ms:30000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        // 执行中超时的任务视为执行它的进程已退出
+        int reset = contractJobMapper.update(null, new LambdaUpdateWrapper<ContractJob>()
+                .set(ContractJob::getStatus, ContractJobStatus.PENDING.getValue())
+                .set(ContractJob::getUpdateTime, now)
+                .eq(ContractJob::getStatus, ContractJobStatus.RUNNING.getValue())
+                .lt(ContractJob::getUpdateTime, now.minusSeconds(runningTimeoutSeconds)));
+        if (reset > 0) {
+            recovered.addAndGet(reset);
+            LOGGER.warn("{}个合同生成任务执行超时，已恢复为待执行", reset);
+        }
+        List<ContractJob> due = contractJobMapper.selectList(new LambdaQueryWrapper<ContractJob>()
+                .select(ContractJob::getId)
+                .eq(ContractJob::getStatus, ContractJobStatus.PENDING.getValue())
+                .le(ContractJob::getNextRunTime, now)
+                .orderByAsc(ContractJob::getNextRunTime)
+                .last("LIMIT " + pollBatchSize));
+        for (ContractJob job : due) {
+            submit(job.getId());
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        long done = generated.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", countByStatus(ContractJobStatus.PENDING));
+        stats.put("running", countByStatus(ContractJobStatus.RUNNING));
+        stats.put("failed", countByStatus(ContractJobStatus.FAILED));
+        stats.put("generated", done);
+        stats.put("failedAttempts", failedAttempts.get());
+        stats.put("abandoned", abandoned.get());
+        stats.put("rejected", rejected.get());
+        stats.put("recovered", recovered.get());
+        stats.put("staleResults", staleResults.get());
+        stats.put("avgRenderMillis", done > 0 ? totalRenderMillis.get() / done : 0);
+        stats.put("maxRenderMillis", maxRenderMillis.get());
+        return stats;
+    }
+
+    /**
+     * 提交到合同线程池；线程池已满时留给定时轮询
+     */
+    private void submit(Long jobId) {
+        try {
+            contractExecutor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            LOGGER.warn("合同线程池已满，任务{}留待定时重试", jobId);
+        }
+    }
+
+    /**
+     * 认领并执行任务
+     */
+    private void run(Long jobId) {
+        int claimed = contractJobMapper.update(null, new LambdaUpdateWrapper<ContractJob>()
+                .set(ContractJob::getStatus, ContractJobStatus.RUNNING.getValue())
+                .set(ContractJob::getUpdateTime, LocalDateTime.now())
+                .setSql("attempts = attempts + 1")
+                .eq(ContractJob::getId, jobId)
+                .eq(ContractJob::getStatus, ContractJobStatus.PENDING.getValue()));
+        if (claimed == 0) {
+            // 已被其他线程或实例认领，或已完成
+            return;
+        }
+        // 认领后的次数作为本次执行的版本号，回写时据此判断任务是否已被恢复并重新认领
+        ContractJob job = contractJobMapper.selectById(jobId);
+        if (job == null || !ContractJobStatus.RUNNING.getValue().equals(job.getStatus())) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            String contractUrl = render(job.getLeaseRecordId());
+            long elapsed = System.currentTimeMillis() - start;
+            Boolean finished = transactionTemplate.execute(tx -> {
+                LocalDateTime now = LocalDateTime.now();
+                int done = contractJobMapper.update(null, runningUpdate(job)
+                        .set(ContractJob::getStatus, ContractJobStatus.DONE.getValue())
+                        .set(ContractJob::getLastError, null)
+                        .set(ContractJob::getUpdateTime, now));
+                if (done == 0) {
+                    return false;
+                }
+                leaseRecordMapper.update(null, new LambdaUpdateWrapper<LeaseRecord>()
+                        .set(LeaseRecord::getContractUrl, contractUrl)
+                        .set(LeaseRecord::getUpdateTime, now)
+                        .eq(LeaseRecord::getId, job.getLeaseRecordId()));
+                return true;
+            });
+            if (!Boolean.TRUE.equals(finished)) {
+                staleResults.incrementAndGet();
+                LOGGER.warn("合同生成任务{}已被恢复并重新认领，丢弃本次结果：{}", jobId, contractUrl);
+                return;
+            }
+            generated.incrementAndGet();
+            totalRenderMillis.addAndGet(elapsed);
+            maxRenderMillis.accumulateAndGet(elapsed, Math::max);
+            LOGGER.info("合同生成完成，租赁记录ID：{}，合同URL：{}，耗时{}ms", job.getLeaseRecordId(), contractUrl, elapsed);
+        } catch (Exception e) {
+            fail(job, e);
+        }
+    }
+
+    private String render(Long leaseRecordId) {
+        LeaseRecord leaseRecord = leaseRecordMapper.selectById(leaseRecordId);
+        if (leaseRecord == null) {
+            throw new ServiceException("租赁记录不存在");
+        }
+        Order order = orderMapper.selectById(leaseRecord.getOrderId());
+        House house = houseMapper.selectById(leaseRecord.getHouseId());
+        User tenant = userMapper.selectById(leaseRecord.getTenantId());
+        User landlord = userMapper.selectById(leaseRecord.getLandlordId());
+        if (order == null || house == null || tenant == null || landlord == null) {
+            throw new ServiceException("生成合同失败：缺少必要信息");
+        }
+        String contractUrl = contractGenerator.generateContract(leaseRecord, order, house, tenant, landlord);
+        if (contractUrl == null) {
+            throw new ServiceException("合同PDF生成失败");
+        }
+        return contractUrl;
+    }
+
+    /**
+     * 记录失败原因；未超过最大次数时按指数退避安排重试，否则放弃
+     */
+    private void fail(ContractJob job, Exception e) {
+        failedAttempts.incrementAndGet();
+        int attempts = job.getAttempts();
+        boolean giveUp = attempts >= maxAttempts;
+        String error = String.valueOf(e.getMessage());
+        LocalDateTime now = LocalDateTime.now();
+        int updated = contractJobMapper.update(null, runningUpdate(job)
+                .set(ContractJob::getStatus, (giveUp ? ContractJobStatus.FAILED : ContractJobStatus.PENDING).getValue())
+                .set(ContractJob::getNextRunTime,
+                        now.plusSeconds(retryDelaySeconds << Math.min(attempts - 1, MAX_BACKOFF_SHIFT)))
+                .set(ContractJob::getLastError, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error)
+                .set(ContractJob::getUpdateTime, now));
+        if (updated == 0) {
+            staleResults.incrementAndGet();
+            LOGGER.warn("合同生成任务{}已被恢复并重新认领，丢弃本次失败结果: {}", job.getId(), error);
+            return;
+        }
+        if (giveUp) {
+            abandoned.incrementAndGet();
+            LOGGER.error("合同生成失败{}次，已放弃: jobId={}, 租赁记录ID={}", attempts, job.getId(), job.getLeaseRecordId(), e);
+        } else {
+            LOGGER.warn("合同生成失败，第{}次: jobId={}, 租赁记录ID={}, 原因: {}", attempts, job.getId(), job.getLeaseRecordId(), error);
+        }
+    }
+
+    /**
+     * 仅当任务仍是本次认领的执行时才更新：状态为执行中且次数与认领时相同
+     */
+    private static LambdaUpdateWrapper<ContractJob> runningUpdate(ContractJob job) {
+        return new LambdaUpdateWrapper<ContractJob>()
+                .eq(ContractJob::getId, job.getId())
+                .eq(ContractJob::getStatus, ContractJobStatus.RUNNING.getValue())
+                .eq(ContractJob::getAttempts, job.getAttempts());
+    }
+
+    private long countByStatus(ContractJobStatus status) {
+        return contractJobMapper.selectCount(new LambdaQueryWrapper<ContractJob>()
+                .eq(ContractJob::getStatus, status.getValue()));
+    }
+}
@@ -0,0 +1,398 @@
+package org.example.springboot.service;
+
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvReader;
+import cn.hutool.core.text.csv.CsvRow;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.DTO.BatchResultDTO;
+import org.example.springboot.DTO.BatchRowErrorDTO;
+import org.example.springboot.cache.RequestIdentityMap;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.User;
+import org.example.springboot.enumClass.HouseImportFormat;
+import org.example.springboot.event.HouseBatchChangedEvent;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.HouseMapper;
+import org.example.springboot.util.JwtTokenUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 房屋批量操作服务类
+ * 批量导入按行流式解析，逐行校验后攒够一批在独立事务中批量插入；批量修改状态一次查询校验归属，
+ * 按批用一条 UPDATE 写入。单行错误只记入结果，不影响其他行。
+ */
+@Service
+public class HouseBatchService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseBatchService.class);
+
+    /** 结果中最多返回的错误明细条数 */
+    private static final int MAX_REPORTED_ERRORS = 200;
+
+    @Resource
+    private HouseMapper houseMapper;
+
+    @Resource
+    private HouseService houseService;
+
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${house.batch.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${house.batch.max-rows:5000}")
+    private int maxRows;
+
+    /**
+     * 一次批量操作的进度
+     */
+    private static final class Progress {
+        private int total;
+        private final List<Long> houseIds = new ArrayList<>();
+        private final List<BatchRowErrorDTO> errors = new ArrayList<>();
+        private int failed;
+        private boolean truncated;
+
+        private void fail(long row, Long houseId, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BatchRowErrorDTO(row, houseId, message));
+            }
+        }
+
+        private BatchResultDTO toResult() {
+            return BatchResultDTO.builder()
+                    .total(total).succeeded(houseIds.size()).failed(failed)
+                    .houseIds(houseIds).errors(errors).truncated(truncated)
+                    .build();
+        }
+    }
+
+    /**
+     * 待插入的一行
+     */
+    private static final class PendingRow {
+        private final long row;
+        private final House house;
+
+        private PendingRow(long row, House house) {
+            this.row = row;
+            this.house = house;
+        }
+    }
+
+    /**
+     * 批量导入房屋，房东为当前用户
+     * CSV 需带表头，列名为房屋字段名（title、description、area、price、address、latitude、longitude、
+     * typeId、status、images、facilities），JSONL 每行一个同名字段的对象
+     * @param input 文件内容（UTF-8）
+     * @param format 文件格式
+     * @return 导入结果
+     */
+    public BatchResultDTO importHouses(InputStream input, HouseImportFormat format) {
+        User currentUser = currentLandlord();
+        Progress progress = new Progress();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        RowHandler handler = (row, fields) -> accept(row, fields, currentUser, progress, chunk);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == HouseImportFormat.JSONL) {
+                readJsonLines(reader, progress, handler);
+            } else {
+                readCsv(reader, progress, handler);
+            }
+        } catch (IOException | IORuntimeException e) {
+            // 已读取的行照常写入
+            LOGGER.warn("读取导入文件中断: {}", e.getMessage());
+            progress.truncated = true;
+        }
+        flushInserts(chunk, progress);
+        LOGGER.info("批量导入房屋: landlordId={}, 共{}行, 成功{}行, 失败{}行",
+                currentUser.getId(), progress.total, progress.houseIds.size(), progress.failed);
+        return progress.toResult();
+    }
+
+    /**
+     * 批量修改房屋状态
+     * @param houseIds 房屋ID
+     * @param status 状态(0:下架,1:待出租,2:已出租)
+     * @return 修改结果，行号为ID在请求中的序号
+     */
+    public BatchResultDTO updateStatuses(List<Long> houseIds, Integer status) {
+        User currentUser = JwtTokenUtils.getCurrentUser();
+        if (currentUser == null) {
+            throw new ServiceException("获取当前用户信息失败");
+        }
+        if (status == null || status < 0 || status > 2) {
+            throw new ServiceException("无效的房屋状态值");
+        }
+        if (houseIds == null || houseIds.isEmpty()) {
+            throw new ServiceException("请选择房屋");
+        }
+        if (houseIds.size() > maxRows) {
+            throw new ServiceException("单次最多修改" + maxRows + "套房屋");
+        }
+        boolean admin = "ADMIN".equals(currentUser.getRoleCode());
+
+        // 一次查询取回全部房屋的归属
+        Map<Long, House> existing = new HashMap<>(houseIds.size() * 2);
+        List<Long> distinctIds = houseIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (!distinctIds.isEmpty()) {
+            for (House house : houseMapper.selectList(new LambdaQueryWrapper<House>()
+                    .select(House::getId, House::getLandlordId)
+                    .in(House::getId, distinctIds))) {
+                existing.put(house.getId(), house);
+            }
+        }
+
+        Progress progress = new Progress();
+        List<Long> permitted = new ArrayList<>();
+        Map<Long, Long> rowOf = new HashMap<>();
+        for (int i = 0; i < houseIds.size(); i++) {
+            Long id = houseIds.get(i);
+            progress.total++;
+            House house = id != null ? existing.get(id) : null;
+            if (house == null) {
+                progress.fail(i + 1, id, "房屋不存在");
+            } else if (!admin && !currentUser.getId().equals(house.getLandlordId())) {
+                progress.fail(i + 1, id, "无权修改该房屋状态");
+            } else if (rowOf.putIfAbsent(id, (long) i + 1) != null) {
+                progress.fail(i + 1, id, "房屋重复");
+            } else {
+                permitted.add(id);
+            }
+        }
+
+        for (int from = 0; from < permitted.size(); from += chunkSize) {
+            List<Long> ids = permitted.subList(from, Math.min(from + chunkSize, permitted.size()));
+            try {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    houseMapper.update(null, new LambdaUpdateWrapper<House>()
+                            .in(House::getId, ids)
+                            .eq(!admin, House::getLandlordId, currentUser.getId())
+                            .set(House::getStatus, status)
+                            .set(House::getUpdateTime, LocalDateTime.now())
+                            .setSql("version = version + 1"));
+                    eventPublisher.publishEvent(new HouseBatchChangedEvent(new ArrayList<>(ids)));
+                });
+                ids.forEach(requestIdentityMap::evictHouse);
+                progress.houseIds.addAll(ids);
+            } catch (Exception e) {
+                LOGGER.error("批量修改房屋状态失败: {}", ids, e);
+                for (Long id : ids) {
+                    progress.fail(rowOf.get(id), id, "更新房屋状态失败");
+                }
+            }
+        }
+        return progress.toResult();
+    }
+
+    private User currentLandlord() {
+        User currentUser = JwtTokenUtils.getCurrentUser();
+        if (currentUser == null) {
+            throw new ServiceException("获取当前用户信息失败");
+        }
+        if (!"LANDLORD".equals(currentUser.getRoleCode()) && !"ADMIN".equals(currentUser.getRoleCode())) {
+            throw new ServiceException("只有房东或管理员可以发布房屋");
+        }
+        return currentUser;
+    }
+
+    /**
+     * 行处理回调
+     */
+    private interface RowHandler {
+        void handle(long row, Map<String, String> fields);
+    }
+
+    private void readCsv(Reader reader, Progress progress, RowHandler handler) {
+        CsvReadConfig config = CsvReadConfig.defaultConfig()
+                .setContainsHeader(true)
+                .setSkipEmptyRows(true)
+                .setTrimField(true);
+        CsvReader csvReader = new CsvReader(reader, config);
+        for (CsvRow row : csvReader) {
+            if (!checkRowLimit(progress)) {
+                break;
+            }
+            handler.handle(row.getOriginalLineNumber() + 1, row.getFieldMap());
+        }
+    }
+
+    private void readJsonLines(BufferedReader reader, Progress progress, RowHandler handler) throws IOException {
+        String line;
+        long lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (!checkRowLimit(progress)) {
+                break;
+            }
+            Map<String, String> fields = new HashMap<>();
+            try {
+                JSONObject object = JSONUtil.parseObj(line);
+                for (String key : object.keySet()) {
+                    fields.put(key, object.getStr(key));
+                }
+            } catch (Exception e) {
+                progress.total++;
+                progress.fail(lineNo, null, "不是合法的JSON");
+                continue;
+            }
+            handler.handle(lineNo, fields);
+        }
+    }
+
+    /**
+     * 超过行数上限后停止读取，其余行不处理
+     */
+    private boolean checkRowLimit(Progress progress) {
+        if (progress.total < maxRows) {
+            return true;
+        }
+        progress.truncated = true;
+        return false;
+    }
+
+    private void accept(long row, Map<String, String> fields, User landlord, Progress progress, List<PendingRow> chunk) {
+        progress.total++;
+        House house;
+        try {
+            house = toHouse(fields);
+            houseService.checkNewHouse(house);
+        } catch (ServiceException e) {
+            progress.fail(row, null, e.getMessage());
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        house.setLandlordId(landlord.getId());
+        house.setCreateTime(now);
+        house.setUpdateTime(now);
+        chunk.add(new PendingRow(row, house));
+        if (chunk.size() >= chunkSize) {
+            flushInserts(chunk, progress);
+        }
+    }
+
+    /**
+     * 在一个事务中批量插入；失败时逐行重试，定位出错的行
+     */
+    private void flushInserts(List<PendingRow> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<House> houses = new ArrayList<>(chunk.size());
+        for (PendingRow pending : chunk) {
+            houses.add(pending.house);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                houseMapper.insert(houses);
+                eventPublisher.publishEvent(new HouseBatchChangedEvent(idsOf(houses)));
+            });
+            progress.houseIds.addAll(idsOf(houses));
+        } catch (Exception e) {
+            LOGGER.warn("批量插入房屋失败，改为逐行插入: {}", e.getMessage());
+            for (PendingRow pending : chunk) {
+                pending.house.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> {
+                        houseMapper.insert(pending.house);
+                        eventPublisher.publishEvent(new HouseBatchChangedEvent(List.of(pending.house.getId())));
+                    });
+                    progress.houseIds.add(pending.house.getId());
+                } catch (Exception rowError) {
+                    progress.fail(pending.row, null, "保存失败，请检查字段长度和格式");
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    private static List<Long> idsOf(List<House> houses) {
+        List<Long> ids = new ArrayList<>(houses.size());
+        for (House house : houses) {
+            ids.add(house.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * 按字段名转换为房屋，ID、房东、时间等由服务端设置
+     */
+    private static House toHouse(Map<String, String> fields) {
+        House house = new House();
+        house.setTitle(text(fields, "title"));
+        if (StringUtils.isBlank(house.getTitle())) {
+            throw new ServiceException("标题不能为空");
+        }
+        house.setDescription(text(fields, "description"));
+        house.setAddress(text(fields, "address"));
+        house.setImages(text(fields, "images"));
+        house.setFacilities(text(fields, "facilities"));
+        house.setArea(parse(fields, "area", "面积", BigDecimal::new));
+        house.setPrice(parse(fields, "price", "价格", BigDecimal::new));
+        if (house.getPrice() == null || house.getPrice().signum() <= 0) {
+            throw new ServiceException("价格需大于0");
+        }
+        house.setLatitude(parse(fields, "latitude", "纬度", BigDecimal::new));
+        house.setLongitude(parse(fields, "longitude", "经度", BigDecimal::new));
+        house.setTypeId(parse(fields, "typeId", "房屋类型", Long::valueOf));
+        Integer status = parse(fields, "status", "状态", Integer::valueOf);
+        if (status != null && (status < 0 || status > 2)) {
+            throw new ServiceException("无效的房屋状态值");
+        }
+        house.setStatus(status != null ? status : 1);
+        return house;
+    }
+
+    private static String text(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return StringUtils.isBlank(value) ? null : value.trim();
+    }
+
+    private static <T> T parse(Map<String, String> fields, String name, String label, Function<String, T> parser) {
+        String value = text(fields, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new ServiceException(label + "格式不正确");
+        }
+    }
+}
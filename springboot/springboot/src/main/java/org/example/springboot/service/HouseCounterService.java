@@ -0,0 +1,227 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.HouseStat;
+import org.example.springboot.mapper.HouseStatMapper;
+import org.example.springboot.search.HouseSortIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 房屋浏览量、收藏数计数服务
+ * 详情页每次访问只在内存中对该房屋的 LongAdder 加一，热门房源的并发访问分散到多个单元，不争抢数据库行锁；
+ * 定时把各房屋的增量用一条多行 INSERT ... ON DUPLICATE KEY UPDATE 累加到 house_stat，
+ * 写入成功后才从计数器中扣除已写入的部分，失败的增量留到下次重试，期间新增的计数不会丢失。
+ * 落库后的累计值同时推送给排序索引，作为列表的热度排序依据。
+ */
+@Service
+public class HouseCounterService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseCounterService.class);
+
+    /** 一次收藏折合的浏览量 */
+    private static final double FAVORITE_WEIGHT = 10;
+
+    /**
+     * 单套房屋尚未落库的增量
+     */
+    private static final class Counter {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder favorites = new LongAdder();
+    }
+
+    @Resource
+    private HouseStatMapper houseStatMapper;
+
+    @Resource
+    private HouseSortIndex houseSortIndex;
+
+    @Value("${house.counter.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    /** 房屋ID -> 未落库的增量 */
+    private final Map<Long, Counter> pending = new ConcurrentHashMap<>();
+    /** 房屋ID -> 已落库的累计值 {浏览量, 收藏数}，整体替换不修改 */
+    private final Map<Long, long[]> totals = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    /**
+     * 记录一次浏览
+     */
+    public void recordView(Long houseId) {
+        counter(houseId).views.increment();
+    }
+
+    /**
+     * 记录收藏数变化
+     * @param delta 收藏为 1，取消收藏为 -1
+     */
+    public void recordFavorite(Long houseId, int delta) {
+        counter(houseId).favorites.add(delta);
+    }
+
+    /**
+     * 填充浏览量和收藏数：已落库的累计值加上尚未落库的增量
+     */
+    public void fillCounts(House house) {
+        long[] total = totals.get(house.getId());
+        Counter counter = pending.get(house.getId());
+        long views = total != null ? total[0] : 0;
+        long favorites = total != null ? total[1] : 0;
+        if (counter != null) {
+            views += counter.views.sum();
+            favorites += counter.favorites.sum();
+        }
+        house.setViewCount(views);
+        house.setFavoriteCount(Math.max(favorites, 0));
+    }
+
+    /**
+     * 启动后加载累计值并初始化热度排序
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadTotals() {
+        // 与写入互斥，避免加载的旧值覆盖刚写入的累计值
+        flushLock.lock();
+        try {
+            List<HouseStat> stats = houseStatMapper.selectList(null);
+            Map<Long, Double> scores = new HashMap<>(stats.size() * 2);
+            for (HouseStat stat : stats) {
+                long[] total = {value(stat.getViewCount()), value(stat.getFavoriteCount())};
+                totals.put(stat.getHouseId(), total);
+                scores.put(stat.getHouseId(), popularity(total));
+            }
+            houseSortIndex.updatePopularity(scores);
+            LOGGER.info("房屋计数加载完成，共{}套", stats.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 定时批量写入增量
+     */
+    @Scheduled(initialDelayString = "${house.counter.flush-interval-ms:10000}",
+            fixedDelayString = "${house.counter.flush-interval-ms:10000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            List<HouseStat> deltas = new ArrayList<>();
+            for (Map.Entry<Long, Counter> entry : pending.entrySet()) {
+                long views = entry.getValue().views.sum();
+                long favorites = entry.getValue().favorites.sum();
+                if (views != 0 || favorites != 0) {
+                    HouseStat delta = new HouseStat();
+                    delta.setHouseId(entry.getKey());
+                    delta.setViewCount(views);
+                    delta.setFavoriteCount(favorites);
+                    delta.setUpdateTime(now);
+                    deltas.add(delta);
+                }
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+            Map<Long, Double> scores = new HashMap<>(deltas.size() * 2);
+            int written = 0;
+            for (int from = 0; from < deltas.size(); from += flushBatchSize) {
+                List<HouseStat> batch = deltas.subList(from, Math.min(from + flushBatchSize, deltas.size()));
+                try {
+                    houseStatMapper.upsertDeltas(batch);
+                } catch (Exception e) {
+                    failedBatches.incrementAndGet();
+                    LOGGER.error("房屋计数写入失败，{}套房屋的增量留待下次写入", batch.size(), e);
+                    continue;
+                }
+                for (HouseStat delta : batch) {
+                    // 只扣除已写入的部分，写入期间新增的计数保留
+                    Counter counter = pending.get(delta.getHouseId());
+                    counter.views.add(-delta.getViewCount());
+                    counter.favorites.add(-delta.getFavoriteCount());
+                    long[] old = totals.get(delta.getHouseId());
+                    long[] total = {
+                            (old != null ? old[0] : 0) + delta.getViewCount(),
+                            (old != null ? old[1] : 0) + delta.getFavoriteCount()};
+                    totals.put(delta.getHouseId(), total);
+                    scores.put(delta.getHouseId(), popularity(total));
+                }
+                written += batch.size();
+            }
+            houseSortIndex.updatePopularity(scores);
+            flushes.incrementAndGet();
+            flushedRows.addAndGet(written);
+            lastFlushMillis = System.currentTimeMillis() - start;
+            LOGGER.debug("房屋计数写入完成，{}套，耗时{}ms", written, lastFlushMillis);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 停机前写入剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStatistics() {
+        long pendingViews = 0;
+        long pendingFavorites = 0;
+        for (Counter counter : pending.values()) {
+            pendingViews += counter.views.sum();
+            pendingFavorites += counter.favorites.sum();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("houses", totals.size());
+        stats.put("counters", pending.size());
+        stats.put("pendingViews", pendingViews);
+        stats.put("pendingFavorites", pendingFavorites);
+        stats.put("flushes", flushes.get());
+        stats.put("flushedRows", flushedRows.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("lastFlushMillis", lastFlushMillis);
+        return stats;
+    }
+
+    private Counter counter(Long houseId) {
+        Counter counter = pending.get(houseId);
+        return counter != null ? counter : pending.computeIfAbsent(houseId, id -> new Counter());
+    }
+
+    /**
+     * 热度：浏览量加上按权重折算的收藏数
+     */
+    private static double popularity(long[] total) {
+        return total[0] + FAVORITE_WEIGHT * Math.max(total[1], 0);
+    }
+
+    private static long value(Long value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.Resource;
+import org.example.springboot.DTO.HouseDuplicateDTO;
+import org.example.springboot.cache.RequestIdentityMap;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.User;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.HouseMapper;
+import org.example.springboot.search.HouseDuplicateDetector;
+import org.example.springboot.util.JwtTokenUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 重复房源服务类
+ * 房东或管理员查看某套房屋的疑似重复，管理员查看全部疑似重复记录并触发全量扫描
+ */
+@Service
+public class HouseDuplicateService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseDuplicateService.class);
+
+    @Resource
+    private HouseDuplicateDetector houseDuplicateDetector;
+
+    @Resource
+    private HouseMapper houseMapper;
+
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+
+    /**
+     * 查询与指定房屋疑似重复的房屋
+     * @param id 房屋ID
+     */
+    public List<HouseDuplicateDTO> getDuplicates(Long id) {
+        User currentUser = JwtTokenUtils.getCurrentUser();
+        if (currentUser == null) {
+            throw new ServiceException("获取当前用户信息失败");
+        }
+        House house = requestIdentityMap.getHouse(id);
+        if (house == null) {
+            throw new ServiceException("房屋不存在");
+        }
+        if (!"ADMIN".equals(currentUser.getRoleCode()) && !currentUser.getId().equals(house.getLandlordId())) {
+            throw new ServiceException("无权查看该房屋");
+        }
+        checkReady();
+        return houseDuplicateDetector.findDuplicates(house);
+    }
+
+    /**
+     * 分页查询疑似重复记录，较新的房屋在前
+     */
+    public Page<HouseDuplicateDTO> getFlagged(Integer currentPage, Integer size) {
+        checkReady();
+        List<HouseDuplicateDTO> flagged = houseDuplicateDetector.getFlagged();
+        Page<HouseDuplicateDTO> page = new Page<>(currentPage, size, flagged.size());
+        int from = (int) Math.min(page.offset(), flagged.size());
+        int to = (int) Math.min(from + page.getSize(), flagged.size());
+        page.setRecords(flagged.subList(from, to));
+        return page;
+    }
+
+    /**
+     * 在后台并行扫描全部房屋，重新生成疑似重复记录
+     */
+    public void startScan() {
+        if (houseDuplicateDetector.isScanning()) {
+            throw new ServiceException("重复房源扫描正在进行");
+        }
+        List<House> houses = houseMapper.selectList(null);
+        if (!houseDuplicateDetector.startScan(houses)) {
+            throw new ServiceException("重复房源扫描正在进行");
+        }
+        LOGGER.info("开始重复房源扫描，房屋{}套", houses.size());
+    }
+
+    private void checkReady() {
+        if (!houseDuplicateDetector.isReady()) {
+            throw new ServiceException("重复房源检测正在初始化，请稍后重试");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.Resource;
+import org.example.springboot.cache.RequestIdentityMap;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.HouseFavorite;
+import org.example.springboot.entity.User;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.HouseFavoriteMapper;
+import org.example.springboot.util.JwtTokenUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 房屋收藏服务类
+ * 收藏关系直接落库，房屋的收藏数经 HouseCounterService 定时批量累加
+ */
+@Service
+public class HouseFavoriteService {
+
+    @Resource
+    private HouseFavoriteMapper houseFavoriteMapper;
+
+    @Resource
+    private HouseCounterService houseCounterService;
+
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+
+    @Resource
+    private AssociationLoader associationLoader;
+
+    /**
+     * 收藏房屋
+     * @param houseId 房屋ID
+     */
+    public void addFavorite(Long houseId) {
+        User user = currentUser();
+        if (requestIdentityMap.getHouse(houseId) == null) {
+            throw new ServiceException("房屋不存在");
+        }
+        HouseFavorite favorite = new HouseFavorite();
+        favorite.setUserId(user.getId());
+        favorite.setHouseId(houseId);
+        favorite.setCreateTime(LocalDateTime.now());
+        try {
+            houseFavoriteMapper.insert(favorite);
+        } catch (DuplicateKeyException e) {
+            throw new ServiceException("已收藏该房屋");
+        }
+        houseCounterService.recordFavorite(houseId, 1);
+    }
+
+    /**
+     * 取消收藏
+     * @param houseId 房屋ID
+     */
+    public void removeFavorite(Long houseId) {
+        User user = currentUser();
+        int deleted = houseFavoriteMapper.delete(new LambdaQueryWrapper<HouseFavorite>()
+                .eq(HouseFavorite::getUserId, user.getId())
+                .eq(HouseFavorite::getHouseId, houseId));
+        if (deleted <= 0) {
+            throw new ServiceException("未收藏该房屋");
+        }
+        houseCounterService.recordFavorite(houseId, -1);
+    }
+
+    /**
+     * 分页查询当前用户的收藏，最近收藏的在前
+     */
+    public Page<HouseFavorite> getMyFavorites(Integer currentPage, Integer size) {
+        User user = currentUser();
+        Page<HouseFavorite> page = houseFavoriteMapper.selectPage(new Page<>(currentPage, size),
+                new LambdaQueryWrapper<HouseFavorite>()
+                        .eq(HouseFavorite::getUserId, user.getId())
+                        .orderByDesc(HouseFavorite::getId));
+        List<HouseFavorite> favorites = page.getRecords();
+        if (!favorites.isEmpty()) {
+            Map<Long, House> houses = associationLoader.loadHouses(
+                    AssociationLoader.collectIds(favorites, HouseFavorite::getHouseId));
+            associationLoader.fillHouseInfo(new ArrayList<>(houses.values()));
+            for (HouseFavorite favorite : favorites) {
+                favorite.setHouse(houses.get(favorite.getHouseId()));
+            }
+        }
+        return page;
+    }
+
+    private User currentUser() {
+        User user = JwtTokenUtils.getCurrentUser();
+        if (user == null) {
+            throw new ServiceException("请先登录");
+        }
+        return user;
+    }
+}
@@ -1,25 +1,48 @@
 package org.example.springboot.service;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
+import org.example.springboot.DTO.HouseClusterDTO;
+import org.example.springboot.DTO.HouseSuggestionDTO;
+import org.example.springboot.cache.HouseDetailCache;
+import org.example.springboot.cache.HouseTypeDictionary;
+import org.example.springboot.cache.RequestIdentityMap;
+import org.example.springboot.common.CursorPage;
+import org.example.springboot.common.SeekCursor;
 import org.apache.commons.lang3.StringUtils;
 import org.example.springboot.entity.House;
-import org.example.springboot.entity.HouseType;
 import org.example.springboot.entity.User;
+import org.example.springboot.event.HouseChangedEvent;
 import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.HouseMapper;
-import org.example.springboot.mapper.HouseTypeMapper;
-import org.example.springboot.mapper.UserMapper;
+import org.example.springboot.search.AvailableListingReadModel;
+import org.example.springboot.search.HouseAutocompleteIndex;
+import org.example.springboot.search.HouseClusterIndex;
+import org.example.springboot.search.HouseFacilityIndex;
+import org.example.springboot.search.HouseFilter;
+import org.example.springboot.search.HouseFuzzyIndex;
+import org.example.springboot.search.HouseGeoIndex;
+import org.example.springboot.search.HouseSearchIndex;
+import org.example.springboot.search.HouseSimilarityIndex;
+import org.example.springboot.search.HouseSortIndex;
+import org.example.springboot.search.ListingSort;
 import org.example.springboot.util.JwtTokenUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 房屋服务实现类
@@ -28,69 +51,203 @@ import java.util.List;
 public class HouseService {
     private static final Logger LOGGER = LoggerFactory.getLogger(HouseService.class);
     
+    /** 附近房源查询的最大半径（公里） */
+    private static final double MAX_RADIUS_KM = 50;
+    /** 地图最大缩放级别 */
+    private static final int MAX_ZOOM = 22;
+    
     @Resource
     private HouseMapper houseMapper;
     
     @Resource
-    private HouseTypeMapper houseTypeMapper;
+    private HouseCounterService houseCounterService;
+    
+    @Resource
+    private HouseStatusUpdater houseStatusUpdater;
+    
+    @Resource
+    private HouseTypeDictionary houseTypeDictionary;
+    
+    @Resource
+    private AssociationLoader associationLoader;
+    
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+    
+    @Resource
+    private HouseDetailCache houseDetailCache;
+    
+    @Resource
+    private HouseSearchIndex houseSearchIndex;
+    
+    @Resource
+    private HouseFacilityIndex houseFacilityIndex;
+    
+    @Resource
+    private HouseGeoIndex houseGeoIndex;
+    
+    @Resource
+    private HouseClusterIndex houseClusterIndex;
+    
+    @Resource
+    private AvailableListingReadModel availableListingReadModel;
+    
+    @Resource
+    private HouseSortIndex houseSortIndex;
+    
+    @Resource
+    private HouseAutocompleteIndex houseAutocompleteIndex;
+    
+    @Resource
+    private HouseFuzzyIndex houseFuzzyIndex;
     
     @Resource
-    private UserMapper userMapper;
+    private HouseSimilarityIndex houseSimilarityIndex;
+    
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Resource
+    private PageQueryTemplate pageQueryTemplate;
     
     /**
      * 分页查询房屋信息
+     * 浏览待出租房源时由排序索引按所选字段排序、房源内容取自读模型；有设施或标题条件时走内存索引
+     * （设施位图、标题 n-gram 倒排表），其余情况走数据库关联查询，只支持按发布时间排序。
+     * 标题条件在各路径下都是标题包含该文字（与 title LIKE 一致），不按相关度排序；索引未就绪时才退回 LIKE；
+     * 模糊模式下标题关键词容许错别字，按编辑距离由小到大排列
      * @param title 房屋标题
      * @param minPrice 最低价格
      * @param maxPrice 最高价格
      * @param typeId 房屋类型ID
      * @param status 房屋状态
+     * @param facilities 必须具备的配套设施
+     * @param sort 排序方式，为空时按发布时间降序
+     * @param fuzzy 是否对标题关键词做模糊匹配
      * @param currentPage 当前页
      * @param size 每页大小
      * @return 分页数据
      */
     public Page<House> getHousesByPage(String title, Long landLordId, BigDecimal minPrice, BigDecimal maxPrice,
-                                       Long typeId, Integer status, Integer currentPage, Integer size) {
-        LambdaQueryWrapper<House> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 添加查询条件
-        if (StringUtils.isNotBlank(title)) {
-            queryWrapper.like(House::getTitle, title);
+                                       Long typeId, Integer status, List<String> facilities, ListingSort sort,
+                                       boolean fuzzy, Integer currentPage, Integer size) {
+        ListingSort listingSort = sort != null ? sort : ListingSort.NEWEST;
+        BitSet withFacilities = housesWithFacilities(facilities);
+        if (fuzzy && useFuzzyIndex(title)) {
+            return fuzzySearch(title, landLordId, minPrice, maxPrice, typeId, status, withFacilities, listingSort,
+                    currentPage, size);
         }
-        
-        if (minPrice != null) {
-            queryWrapper.ge(House::getPrice, minPrice);
+        if (useSortIndex(title, status, listingSort)) {
+            BitSet candidates = withFacilities;
+            if (StringUtils.isNotBlank(title)) {
+                // 标题包含该文字的房屋作为候选位图，再按所选字段排序
+                HouseFilter titleFilter = HouseFilter.builder().status(1).houseIds(withFacilities).title(title).build();
+                candidates = toBitSet(houseSearchIndex.search(null, titleFilter, HouseSearchIndex.SortMode.NEWEST));
+            }
+            Page<Long> ids = houseSortIndex.page(listingFilter(minPrice, maxPrice, typeId, landLordId, candidates),
+                    listingSort, currentPage, size);
+            Page<House> page = new Page<>(ids.getCurrent(), ids.getSize(), ids.getTotal());
+            page.setRecords(loadInOrder(ids.getRecords()));
+            return page;
         }
-        
-        if (maxPrice != null) {
-            queryWrapper.le(House::getPrice, maxPrice);
+        if (listingSort != ListingSort.NEWEST) {
+            throw new ServiceException("仅浏览待出租房源时支持该排序方式");
         }
-        
-        // 只有typeId非null时才添加条件
-        if (typeId != null) {
-            queryWrapper.eq(House::getTypeId, typeId);
+        if (withFacilities != null || useTitleIndex(title)) {
+            HouseFilter filter = HouseFilter.builder()
+                    .minPrice(minPrice).maxPrice(maxPrice).typeId(typeId).status(status).landlordId(landLordId)
+                    .houseIds(withFacilities).title(title)
+                    .build();
+            List<Long> ids = houseSearchIndex.search(null, filter, HouseSearchIndex.SortMode.NEWEST);
+            return pageByIds(ids, currentPage, size);
         }
         
-        if (status != null) {
-            queryWrapper.eq(House::getStatus, status);
+        // 一条关联查询带出房东信息，是否执行COUNT由接口配置决定；类型名称取自内存字典
+        Page<House> page = pageQueryTemplate.page("houses-page", currentPage, size,
+                p -> houseMapper.selectHousePage(p, title, landLordId, minPrice, maxPrice, typeId, status),
+                title, landLordId, minPrice, maxPrice, typeId, status);
+        houseTypeDictionary.fillTypeNames(page.getRecords());
+        return page;
+    }
+    
+    /**
+     * 游标方式查询房屋列表，按发布时间倒序
+     * 使用 (create_time, id) 键集定位，不执行 COUNT，翻到多深响应时间都不变
+     * @param sort 排序方式，游标只支持按发布时间降序
+     * @param fuzzy 是否模糊匹配，游标模式不支持
+     * @param cursor 上一页返回的 nextCursor，空字符串表示第一页
+     * @param size 每页大小，不能小于 1，超过 pagination.cursor.max-size 时按上限返回
+     * @return 当前页数据和下一页游标
+     */
+    public CursorPage<House> getHousesByCursor(String title, Long landLordId, BigDecimal minPrice, BigDecimal maxPrice,
+                                               Long typeId, Integer status, List<String> facilities,
+                                               ListingSort sort, boolean fuzzy, String cursor, Integer size) {
+        if (sort != null && sort != ListingSort.NEWEST) {
+            throw new ServiceException("游标分页仅支持按发布时间排序");
         }
-        if(landLordId != null) {
-            queryWrapper.eq(House::getLandlordId, landLordId);
+        if (fuzzy) {
+            throw new ServiceException("游标分页不支持模糊匹配");
         }
-
-        
-        // 按创建时间降序排序
-        queryWrapper.orderByDesc(House::getCreateTime);
-        
-        Page<House> page = houseMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 填充房屋类型名称和房东姓名
-        page.getRecords().forEach(this::fillHouseInfo);
-        
-        return page;
+        int limit = pageQueryTemplate.cursorSize(size);
+        SeekCursor after = SeekCursor.decode(cursor);
+        LocalDateTime cursorTime = after != null ? after.getCreateTime() : null;
+        Long cursorId = after != null ? after.getId() : null;
+        
+        BitSet withFacilities = housesWithFacilities(facilities);
+        List<House> rows;
+        if (useListingReadModel(title, status)) {
+            rows = availableListingReadModel.slice(listingFilter(minPrice, maxPrice, typeId, landLordId, withFacilities),
+                    cursorTime, cursorId, limit + 1);
+        } else if (withFacilities != null || useTitleIndex(title)) {
+            HouseFilter filter = HouseFilter.builder()
+                    .minPrice(minPrice).maxPrice(maxPrice).typeId(typeId).status(status).landlordId(landLordId)
+                    .houseIds(withFacilities).title(title)
+                    .build();
+            List<Long> ids = houseSearchIndex.searchAfter(null, filter, cursorTime, cursorId, limit + 1);
+            rows = loadInOrder(ids);
+        } else {
+            // 多取一行判断是否还有下一页
+            rows = houseMapper.selectHouseSlice(title, landLordId, minPrice, maxPrice, typeId, status,
+                    cursorTime, cursorId, limit + 1);
+            houseTypeDictionary.fillTypeNames(rows);
+        }
+        return CursorPage.of(rows, limit, house -> new SeekCursor(house.getCreateTime(), house.getId()));
+    }
+    
+    /**
+     * 模糊匹配标题和地址：模糊索引给出候选及编辑距离，其余条件仍在内存索引中过滤
+     * 按发布时间排序时结果按编辑距离分组，距离相同的按发布时间降序
+     */
+    private Page<House> fuzzySearch(String title, Long landLordId, BigDecimal minPrice, BigDecimal maxPrice,
+                                    Long typeId, Integer status, BitSet withFacilities, ListingSort sort,
+                                    Integer currentPage, Integer size) {
+        Map<Long, Integer> distances = houseFuzzyIndex.match(title);
+        BitSet matched = toBitSet(new ArrayList<>(distances.keySet()));
+        if (withFacilities != null) {
+            matched.and(withFacilities);
+        }
+        if (sort != ListingSort.NEWEST) {
+            if (!useSortIndex(null, status, sort)) {
+                throw new ServiceException("仅浏览待出租房源时支持该排序方式");
+            }
+            Page<Long> ids = houseSortIndex.page(listingFilter(minPrice, maxPrice, typeId, landLordId, matched),
+                    sort, currentPage, size);
+            Page<House> page = new Page<>(ids.getCurrent(), ids.getSize(), ids.getTotal());
+            page.setRecords(loadInOrder(ids.getRecords()));
+            return page;
+        }
+        HouseFilter filter = HouseFilter.builder()
+                .minPrice(minPrice).maxPrice(maxPrice).typeId(typeId).status(status).landlordId(landLordId)
+                .houseIds(matched)
+                .build();
+        List<Long> ids = new ArrayList<>(houseSearchIndex.search(null, filter, HouseSearchIndex.SortMode.NEWEST));
+        ids.sort(Comparator.comparingInt(distances::get));
+        return pageByIds(ids, currentPage, size);
     }
     
     /**
      * 房东查询自己的房屋
+     * 有标题条件且全文索引已就绪时由标题 n-gram 倒排表筛选，否则走数据库
      * @param title 房屋标题
      * @param status 房屋状态
      * @param currentPage 当前页
@@ -103,42 +260,166 @@ public class HouseService {
         if (currentUser == null) {
             throw new ServiceException("获取当前用户信息失败");
         }
-        
-        LambdaQueryWrapper<House> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(House::getLandlordId, currentUser.getId());
-        
-        if (StringUtils.isNotBlank(title)) {
-            queryWrapper.like(House::getTitle, title);
+        if (useTitleIndex(title)) {
+            HouseFilter filter = HouseFilter.builder().landlordId(currentUser.getId()).status(status).title(title).build();
+            return pageByIds(houseSearchIndex.search(null, filter, HouseSearchIndex.SortMode.NEWEST), currentPage, size);
         }
         
-        if (status != null) {
-            queryWrapper.eq(House::getStatus, status);
-        }
-        
-        queryWrapper.orderByDesc(House::getCreateTime);
-        
-        Page<House> page = houseMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 填充房屋类型名称和房东姓名
-        page.getRecords().forEach(this::fillHouseInfo);
-        
+        Page<House> page = pageQueryTemplate.page("houses-landlord", currentPage, size,
+                p -> houseMapper.selectHousePage(p, title, currentUser.getId(), null, null, null, status),
+                title, currentUser.getId(), status);
+        houseTypeDictionary.fillTypeNames(page.getRecords());
         return page;
     }
     
+    /**
+     * 关键词检索房屋，按相关度排序
+     * @param keyword 关键词
+     * @param minPrice 最低价格
+     * @param maxPrice 最高价格
+     * @param typeId 房屋类型ID
+     * @param status 房屋状态
+     * @param facilities 必须具备的配套设施
+     * @param currentPage 当前页
+     * @param size 每页大小
+     * @return 分页数据
+     */
+    public Page<House> searchHouses(String keyword, BigDecimal minPrice, BigDecimal maxPrice, Long typeId,
+                                    Integer status, List<String> facilities, Integer currentPage, Integer size) {
+        if (!houseSearchIndex.isReady()) {
+            throw new ServiceException("搜索服务正在初始化，请稍后重试");
+        }
+        HouseFilter filter = HouseFilter.builder()
+                .minPrice(minPrice).maxPrice(maxPrice).typeId(typeId).status(status)
+                .houseIds(housesWithFacilities(facilities))
+                .build();
+        List<Long> ids = houseSearchIndex.search(keyword, filter, HouseSearchIndex.SortMode.RELEVANCE);
+        return pageByIds(ids, currentPage, size);
+    }
+    
+    /**
+     * 查询附近的房屋，按距离由近到远排序
+     * @param latitude 中心点纬度
+     * @param longitude 中心点经度
+     * @param radiusKm 半径（公里）
+     * @param minPrice 最低价格
+     * @param maxPrice 最高价格
+     * @param typeId 房屋类型ID
+     * @param status 房屋状态
+     * @param facilities 必须具备的配套设施
+     * @param currentPage 当前页
+     * @param size 每页大小
+     * @return 分页数据，房屋带有 distance 字段
+     */
+    public Page<House> getNearbyHouses(Double latitude, Double longitude, Double radiusKm,
+                                       BigDecimal minPrice, BigDecimal maxPrice, Long typeId, Integer status,
+                                       List<String> facilities, Integer currentPage, Integer size) {
+        checkCoordinate(latitude, longitude);
+        if (radiusKm == null || radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new ServiceException("查询半径需在0到" + (int) MAX_RADIUS_KM + "公里之间");
+        }
+        if (!houseGeoIndex.isReady()) {
+            throw new ServiceException("搜索服务正在初始化，请稍后重试");
+        }
+        HouseFilter filter = HouseFilter.builder()
+                .minPrice(minPrice).maxPrice(maxPrice).typeId(typeId).status(status)
+                .houseIds(housesWithFacilities(facilities))
+                .build();
+        List<HouseGeoIndex.Hit> hits = houseGeoIndex.withinRadius(latitude, longitude, radiusKm, filter);
+        return pageByHits(hits, currentPage, size);
+    }
+    
+    /**
+     * 查询矩形范围（如地图视野）内的房屋，按到范围中心的距离排序
+     * @return 分页数据，房屋带有 distance 字段
+     */
+    public Page<House> getHousesInBounds(Double minLat, Double minLng, Double maxLat, Double maxLng,
+                                         BigDecimal minPrice, BigDecimal maxPrice, Long typeId, Integer status,
+                                         List<String> facilities, Integer currentPage, Integer size) {
+        checkBounds(minLat, minLng, maxLat, maxLng);
+        if (!houseGeoIndex.isReady()) {
+            throw new ServiceException("搜索服务正在初始化，请稍后重试");
+        }
+        HouseFilter filter = HouseFilter.builder()
+                .minPrice(minPrice).maxPrice(maxPrice).typeId(typeId).status(status)
+                .houseIds(housesWithFacilities(facilities))
+                .build();
+        double centerLat = (minLat + maxLat) / 2;
+        double centerLng = (minLng + maxLng) / 2;
+        List<HouseGeoIndex.Hit> hits = new ArrayList<>();
+        houseGeoIndex.forEachInBounds(minLat, minLng, maxLat, maxLng, filter, point -> hits.add(new HouseGeoIndex.Hit(
+                point.getId(), HouseGeoIndex.distanceKm(centerLat, centerLng, point.getLatitude(), point.getLongitude()))));
+        hits.sort(Comparator.comparingDouble(HouseGeoIndex.Hit::getDistance).thenComparing(HouseGeoIndex.Hit::getId));
+        return pageByHits(hits, currentPage, size);
+    }
+    
+    /**
+     * 地图视野内待出租房源的聚合点
+     * @param zoom 地图缩放级别
+     * @return 聚合点（数量、中心坐标、最低/最高价格）
+     */
+    public List<HouseClusterDTO> getHouseClusters(Double minLat, Double minLng, Double maxLat, Double maxLng, Integer zoom) {
+        // 视野可以跨越 180 度经线（最小经度大于最大经度），纬度范围仍须有序
+        checkCoordinate(minLat, minLng);
+        checkCoordinate(maxLat, maxLng);
+        if (minLat > maxLat) {
+            throw new ServiceException("查询范围不合法");
+        }
+        if (zoom == null || zoom < 0 || zoom > MAX_ZOOM) {
+            throw new ServiceException("地图缩放级别需在0到" + MAX_ZOOM + "之间");
+        }
+        if (!houseClusterIndex.isReady()) {
+            throw new ServiceException("搜索服务正在初始化，请稍后重试");
+        }
+        return houseClusterIndex.clusters(minLat, minLng, maxLat, maxLng, zoom);
+    }
+    
     /**
      * 根据ID获取房屋详情
      * @param id 房屋ID
      * @return 房屋信息
      */
     public House getHouseById(Long id) {
-        House house = houseMapper.selectById(id);
+        House house = houseDetailCache.get(id, this::loadHouseDetail);
         if (house == null) {
             throw new ServiceException("房屋不存在");
         }
-        
-        // 填充房屋类型名称和房东姓名
-        fillHouseInfo(house);
-        
+        // 类型名称始终取自内存字典，类型改名无需使缓存失效
+        houseTypeDictionary.fillTypeNames(Collections.singletonList(house));
+        // 浏览量只在内存中累加，定时批量落库
+        houseCounterService.recordView(id);
+        houseCounterService.fillCounts(house);
+        return house;
+    }
+    
+    /**
+     * 相似房源：类型相同、价格和面积接近、距离近、配套设施相似的待出租房源
+     * @param id 房屋ID，该房屋本身不必是待出租状态
+     * @param limit 返回条数
+     * @return 按相似程度从高到低排列的房源，不含该房屋本身
+     */
+    public List<House> getSimilarHouses(Long id, Integer limit) {
+        if (limit == null || limit <= 0 || limit > HouseSimilarityIndex.MAX_K) {
+            throw new ServiceException("返回条数需在1到" + HouseSimilarityIndex.MAX_K + "之间");
+        }
+        House house = requestIdentityMap.getHouse(id);
+        if (house == null) {
+            throw new ServiceException("房屋不存在");
+        }
+        if (!houseSimilarityIndex.isReady()) {
+            throw new ServiceException("搜索服务正在初始化，请稍后重试");
+        }
+        return loadInOrder(houseSimilarityIndex.similar(house, limit));
+    }
+    
+    /**
+     * 从数据库加载房屋并填充房屋类型名称和房东信息，供详情缓存未命中时调用
+     */
+    private House loadHouseDetail(Long id) {
+        House house = requestIdentityMap.getHouse(id);
+        if (house != null) {
+            associationLoader.fillHouseInfo(Collections.singletonList(house));
+        }
         return house;
     }
     
@@ -154,11 +435,7 @@ public class HouseService {
             throw new ServiceException("获取当前用户信息失败");
         }
         
-        // 检查房屋类型是否存在
-        HouseType houseType = houseTypeMapper.selectById(house.getTypeId());
-        if (houseType == null) {
-            throw new ServiceException("所选房屋类型不存在");
-        }
+        checkNewHouse(house);
         
         // 设置房东ID和初始状态
         house.setLandlordId(currentUser.getId());
@@ -173,6 +450,7 @@ public class HouseService {
         if (result <= 0) {
             throw new ServiceException("创建房屋失败");
         }
+        eventPublisher.publishEvent(new HouseChangedEvent(house.getId()));
     }
     
     /**
@@ -196,8 +474,7 @@ public class HouseService {
         
         // 校验房屋类型是否存在
         if (house.getTypeId() != null && !house.getTypeId().equals(existingHouse.getTypeId())) {
-            HouseType houseType = houseTypeMapper.selectById(house.getTypeId());
-            if (houseType == null) {
+            if (!houseTypeDictionary.contains(house.getTypeId())) {
                 throw new ServiceException("所选房屋类型不存在");
             }
         }
@@ -206,17 +483,24 @@ public class HouseService {
         if (!"ADMIN".equals(currentUser.getRoleCode()) && !currentUser.getId().equals(existingHouse.getLandlordId())) {
             throw new ServiceException("无权修改该房屋信息");
         }
+        checkLocation(house);
         
         // 设置ID和更新时间，保留创建时间和房东ID
         house.setId(id);
         house.setUpdateTime(LocalDateTime.now());
         house.setCreateTime(existingHouse.getCreateTime());
         house.setLandlordId(existingHouse.getLandlordId());
+        // 未携带版本号时以刚读到的版本为准；版本号不一致说明期间被其他操作修改过
+        if (house.getVersion() == null) {
+            house.setVersion(existingHouse.getVersion());
+        }
         
         int result = houseMapper.updateById(house);
         if (result <= 0) {
-            throw new ServiceException("更新房屋信息失败");
+            throw new ServiceException("房屋信息已被修改，请刷新后重试");
         }
+        requestIdentityMap.evictHouse(id);
+        eventPublisher.publishEvent(new HouseChangedEvent(id));
     }
     
     /**
@@ -224,7 +508,7 @@ public class HouseService {
      * @param id 房屋ID
      * @param status 状态(0:下架,1:待出租,2:已出租)
      */
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void updateHouseStatus(Long id, Integer status) {
         // 获取当前登录用户
         User currentUser = JwtTokenUtils.getCurrentUser();
@@ -232,31 +516,17 @@ public class HouseService {
             throw new ServiceException("获取当前用户信息失败");
         }
         
-        // 检查房屋是否存在
-        House existingHouse = houseMapper.selectById(id);
-        if (existingHouse == null) {
-            throw new ServiceException("房屋不存在");
-        }
-        
-        // 检查权限：只有管理员或房东可以修改
-        if (!"ADMIN".equals(currentUser.getRoleCode()) && !currentUser.getId().equals(existingHouse.getLandlordId())) {
-            throw new ServiceException("无权修改该房屋状态");
-        }
-        
         // 检查状态值是否有效
-        if (status < 0 || status > 2) {
+        if (status == null || status < 0 || status > 2) {
             throw new ServiceException("无效的房屋状态值");
         }
         
-        House house = new House();
-        house.setId(id);
-        house.setStatus(status);
-        house.setUpdateTime(LocalDateTime.now());
-        
-        int result = houseMapper.updateById(house);
-        if (result <= 0) {
-            throw new ServiceException("更新房屋状态失败");
-        }
+        // 按版本号比较并更新，冲突时重新读取；权限基于每次读到的最新数据检查：只有管理员或房东可以修改
+        boolean admin = "ADMIN".equals(currentUser.getRoleCode());
+        houseStatusUpdater.compareAndSetStatus(id, house -> admin || currentUser.getId().equals(house.getLandlordId()),
+                "无权修改该房屋状态", status);
+        requestIdentityMap.evictHouse(id);
+        eventPublisher.publishEvent(new HouseChangedEvent(id));
     }
     
     /**
@@ -291,32 +561,197 @@ public class HouseService {
         if (result <= 0) {
             throw new ServiceException("删除房屋失败");
         }
+        requestIdentityMap.evictHouse(id);
+        eventPublisher.publishEvent(new HouseChangedEvent(id));
     }
     
     /**
-     * 填充房屋类型名称和房东姓名
-     * @param house 房屋信息
+     * 搜索框联想词，来自待出租房源的标题、地址和类型名称，按热度排序
+     * @param prefix 已输入的汉字前缀或拼音首字母
+     * @param limit 返回条数
+     * @return 联想词列表
      */
-    private void fillHouseInfo(House house) {
-        if (house == null) {
+    public List<HouseSuggestionDTO> suggest(String prefix, Integer limit) {
+        if (StringUtils.isBlank(prefix)) {
+            return Collections.emptyList();
+        }
+        if (limit == null || limit <= 0 || limit > HouseAutocompleteIndex.TOP_K) {
+            throw new ServiceException("返回条数需在1到" + HouseAutocompleteIndex.TOP_K + "之间");
+        }
+        if (!houseAutocompleteIndex.isReady()) {
+            throw new ServiceException("搜索服务正在初始化，请稍后重试");
+        }
+        return houseAutocompleteIndex.suggest(prefix, limit);
+    }
+    
+    /**
+     * 获取房屋配套设施词表及各设施的房屋数量
+     */
+    public Map<String, Integer> getFacilities() {
+        return houseFacilityIndex.getFacilityCounts();
+    }
+    
+    /**
+     * 无关键词、只看待出租房源且读模型已就绪时走读模型
+     */
+    private boolean useListingReadModel(String title, Integer status) {
+        return StringUtils.isBlank(title) && Integer.valueOf(1).equals(status) && availableListingReadModel.isReady();
+    }
+    
+    /**
+     * 只看待出租房源且无标题条件时走排序索引；有标题条件时仅在按发布时间以外的字段排序时使用，
+     * 候选房屋由全文索引按标题包含关系筛出
+     */
+    private boolean useSortIndex(String title, Integer status, ListingSort sort) {
+        if (!Integer.valueOf(1).equals(status) || !houseSortIndex.isReady() || !availableListingReadModel.isReady()) {
+            return false;
+        }
+        return StringUtils.isBlank(title) || (sort != ListingSort.NEWEST && houseSearchIndex.isReady());
+    }
+    
+    /**
+     * 有标题条件且全文索引已就绪时按标题 n-gram 倒排表筛选，避免 title LIKE '%...%' 全表扫描
+     */
+    private boolean useTitleIndex(String title) {
+        return StringUtils.isNotEmpty(title) && houseSearchIndex.isReady();
+    }
+    
+    /**
+     * 关键词足够长且模糊索引、全文索引均已就绪时才做模糊匹配，否则退回精确检索
+     */
+    private boolean useFuzzyIndex(String title) {
+        return StringUtils.isNotBlank(title) && HouseFuzzyIndex.supports(title)
+                && houseFuzzyIndex.isReady() && houseSearchIndex.isReady();
+    }
+    
+    private static BitSet toBitSet(List<Long> ids) {
+        BitSet bits = new BitSet();
+        for (Long id : ids) {
+            if (id != null && id >= 0 && id < Integer.MAX_VALUE) {
+                bits.set(id.intValue());
+            }
+        }
+        return bits;
+    }
+    
+    /**
+     * 读模型只含待出租房源，过滤条件无需再带状态
+     */
+    private HouseFilter listingFilter(BigDecimal minPrice, BigDecimal maxPrice, Long typeId, Long landlordId,
+                                      BitSet houseIds) {
+        return HouseFilter.builder()
+                .minPrice(minPrice).maxPrice(maxPrice).typeId(typeId).landlordId(landlordId)
+                .houseIds(houseIds)
+                .build();
+    }
+    
+    /**
+     * 发布前校验：房屋类型存在、经纬度有效
+     */
+    void checkNewHouse(House house) {
+        if (!houseTypeDictionary.contains(house.getTypeId())) {
+            throw new ServiceException("所选房屋类型不存在");
+        }
+        checkLocation(house);
+    }
+    
+    /**
+     * 经纬度需同时填写且在有效范围内
+     */
+    private void checkLocation(House house) {
+        if (house.getLatitude() == null && house.getLongitude() == null) {
             return;
         }
-        
-        // 填充房屋类型名称
-        if (house.getTypeId() != null) {
-            HouseType houseType = houseTypeMapper.selectById(house.getTypeId());
-            if (houseType != null) {
-                house.setTypeName(houseType.getName());
+        if (house.getLatitude() == null || house.getLongitude() == null) {
+            throw new ServiceException("经度和纬度需同时填写");
+        }
+        checkCoordinate(house.getLatitude().doubleValue(), house.getLongitude().doubleValue());
+    }
+    
+    private void checkCoordinate(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null
+                || latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new ServiceException("经纬度不合法");
+        }
+    }
+    
+    private void checkBounds(Double minLat, Double minLng, Double maxLat, Double maxLng) {
+        checkCoordinate(minLat, minLng);
+        checkCoordinate(maxLat, maxLng);
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new ServiceException("查询范围不合法");
+        }
+    }
+    
+    /**
+     * 按距离排序的命中结果分页，并填充距离（公里，保留三位小数）
+     */
+    private Page<House> pageByHits(List<HouseGeoIndex.Hit> hits, Integer currentPage, Integer size) {
+        List<Long> ids = new ArrayList<>(hits.size());
+        Map<Long, Double> distances = new HashMap<>(hits.size() * 2);
+        for (HouseGeoIndex.Hit hit : hits) {
+            ids.add(hit.getId());
+            distances.put(hit.getId(), Math.round(hit.getDistance() * 1000) / 1000.0);
+        }
+        Page<House> page = pageByIds(ids, currentPage, size);
+        for (House house : page.getRecords()) {
+            house.setDistance(distances.get(house.getId()));
+        }
+        return page;
+    }
+    
+    /**
+     * 按设施位图求交得到候选房屋；指定了设施时只能走内存索引
+     * @return 候选房屋位图，未指定设施时返回 null
+     */
+    private BitSet housesWithFacilities(List<String> facilities) {
+        if (facilities == null || facilities.isEmpty()) {
+            return null;
+        }
+        if (!houseSearchIndex.isReady() || !houseFacilityIndex.isReady()) {
+            throw new ServiceException("搜索服务正在初始化，请稍后重试");
+        }
+        return houseFacilityIndex.housesWithAll(facilities);
+    }
+    
+    /**
+     * 按索引返回的有序ID分页，只加载当前页的房屋
+     */
+    private Page<House> pageByIds(List<Long> ids, Integer currentPage, Integer size) {
+        Page<House> page = new Page<>(currentPage, size, ids.size());
+        int from = (int) Math.min(page.offset(), ids.size());
+        int to = (int) Math.min(from + page.getSize(), ids.size());
+        page.setRecords(loadInOrder(ids.subList(from, to)));
+        return page;
+    }
+    
+    /**
+     * 批量加载房屋并填充关联信息，保持ID顺序，已被删除的房屋跳过
+     * 待出租房源直接取自读模型，其余房屋再查库
+     */
+    private List<House> loadInOrder(List<Long> ids) {
+        Map<Long, House> houses = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            House listing = availableListingReadModel.get(id);
+            if (listing != null) {
+                houses.put(id, listing);
+            } else {
+                missing.add(id);
             }
         }
-        
-        // 填充房东姓名
-        if (house.getLandlordId() != null) {
-            User landlord = userMapper.selectById(house.getLandlordId());
-            if (landlord != null) {
-                house.setLandlordName(landlord.getName());
-                house.setLandlordImg(landlord.getAvatar());
+        if (!missing.isEmpty()) {
+            Map<Long, House> loaded = associationLoader.loadHouses(missing);
+            associationLoader.fillHouseInfo(new ArrayList<>(loaded.values()));
+            houses.putAll(loaded);
+        }
+        List<House> records = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            House house = houses.get(id);
+            if (house != null) {
+                records.add(house);
             }
         }
+        return records;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
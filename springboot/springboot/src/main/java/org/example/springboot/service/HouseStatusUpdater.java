@@ -0,0 +1,159 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.House;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.HouseMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 房屋状态乐观锁更新
+ * 读取房屋及其版本号，校验前置条件后执行
+ * UPDATE house SET status = ?, version = version + 1 WHERE id = ? AND version = ?，
+ * 版本号已变化（期间有其他修改）时退避后重新读取、重新校验，最多重试 max-attempts 次，全程不加行锁。
+ * 重新读取必须能看到其他事务已提交的修改，调用方的事务需使用 READ_COMMITTED 隔离级别。
+ * 按房屋统计冲突次数、重试耗尽次数和前置条件不满足（抢租失败）次数。
+ */
+@Component
+public class HouseStatusUpdater {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HouseStatusUpdater.class);
+
+    /** 单次退避的上限（毫秒） */
+    private static final long MAX_BACKOFF_MILLIS = 200;
+    /** 最多统计的房屋数，超出后只计入总数 */
+    private static final int MAX_TRACKED_HOUSES = 10000;
+    private static final int TOP_HOUSES = 20;
+
+    /**
+     * 单套房屋的竞争统计
+     */
+    private static final class Contention {
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    @Resource
+    private HouseMapper houseMapper;
+
+    @Value("${house.cas.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${house.cas.backoff-ms:10}")
+    private long backoffMillis;
+
+    private final Contention total = new Contention();
+    private final Map<Long, Contention> byHouse = new ConcurrentHashMap<>();
+
+    /**
+     * 以版本号比较并设置房屋状态
+     * @param houseId 房屋ID
+     * @param precondition 基于最新数据的前置条件，不满足时不再重试
+     * @param rejectMessage 前置条件不满足时的提示
+     * @param status 新状态
+     * @return 更新后的房屋
+     */
+    public House compareAndSetStatus(Long houseId, Predicate<House> precondition, String rejectMessage, int status) {
+        for (int attempt = 1; ; attempt++) {
+            House house = houseMapper.selectById(houseId);
+            if (house == null) {
+                throw new ServiceException("房屋不存在");
+            }
+            if (!precondition.test(house)) {
+                record(houseId, c -> c.rejected, true);
+                throw new ServiceException(rejectMessage);
+            }
+            Integer version = house.getVersion();
+            LocalDateTime now = LocalDateTime.now();
+            int updated = houseMapper.update(null, new LambdaUpdateWrapper<House>()
+                    .eq(House::getId, houseId)
+                    .eq(House::getVersion, version)
+                    .set(House::getStatus, status)
+                    .set(House::getUpdateTime, now)
+                    .setSql("version = version + 1"));
+            if (updated > 0) {
+                record(houseId, c -> c.succeeded, false);
+                house.setStatus(status);
+                house.setUpdateTime(now);
+                house.setVersion(version + 1);
+                return house;
+            }
+            record(houseId, c -> c.conflicts, true);
+            if (attempt >= maxAttempts) {
+                record(houseId, c -> c.exhausted, true);
+                LOGGER.warn("房屋状态更新冲突，重试{}次后放弃: houseId={}", attempt, houseId);
+                throw new ServiceException("房屋正在被其他操作修改，请稍后重试");
+            }
+            backoff(attempt);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("succeeded", total.succeeded.sum());
+        stats.put("conflicts", total.conflicts.sum());
+        stats.put("exhausted", total.exhausted.sum());
+        stats.put("rejected", total.rejected.sum());
+        stats.put("trackedHouses", byHouse.size());
+        List<Map.Entry<Long, Contention>> entries = new ArrayList<>(byHouse.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<Long, Contention> e) ->
+                e.getValue().conflicts.sum() + e.getValue().rejected.sum()).reversed());
+        List<Map<String, Object>> hottest = new ArrayList<>();
+        for (Map.Entry<Long, Contention> entry : entries.subList(0, Math.min(TOP_HOUSES, entries.size()))) {
+            Contention c = entry.getValue();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("houseId", entry.getKey());
+            item.put("succeeded", c.succeeded.sum());
+            item.put("conflicts", c.conflicts.sum());
+            item.put("exhausted", c.exhausted.sum());
+            item.put("rejected", c.rejected.sum());
+            hottest.add(item);
+        }
+        stats.put("hottestHouses", hottest);
+        return stats;
+    }
+
+    /**
+     * 计入总数和房屋统计；只有发生过竞争的房屋才单独统计
+     */
+    private void record(Long houseId, Function<Contention, LongAdder> counter, boolean contended) {
+        counter.apply(total).increment();
+        Contention contention = byHouse.get(houseId);
+        if (contention == null && contended && byHouse.size() < MAX_TRACKED_HOUSES) {
+            contention = byHouse.computeIfAbsent(houseId, id -> new Contention());
+        }
+        if (contention != null) {
+            counter.apply(contention).increment();
+        }
+    }
+
+    /**
+     * 指数退避加随机抖动，避免同时冲突的请求再次同时重试
+     */
+    private void backoff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << Math.min(attempt - 1, 10));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("房屋状态更新被中断");
+        }
+    }
+}
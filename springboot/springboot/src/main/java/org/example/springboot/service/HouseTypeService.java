@@ -4,12 +4,15 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.cache.HouseTypeDictionary;
 import org.example.springboot.entity.HouseType;
+import org.example.springboot.event.HouseTypeChangedEvent;
 import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.HouseMapper;
 import org.example.springboot.mapper.HouseTypeMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +32,12 @@ public class HouseTypeService {
     @Resource
     private HouseMapper houseMapper;
     
+    @Resource
+    private HouseTypeDictionary houseTypeDictionary;
+    
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * 分页查询房屋类型
      * @param name 类型名称
@@ -55,8 +64,7 @@ public class HouseTypeService {
      * @return 房屋类型列表
      */
     public List<HouseType> getAllHouseTypes() {
-        return houseTypeMapper.selectList(new LambdaQueryWrapper<HouseType>()
-                .orderByAsc(HouseType::getId));
+        return houseTypeDictionary.getAll();
     }
     
     /**
@@ -65,7 +73,7 @@ public class HouseTypeService {
      * @return 房屋类型
      */
     public HouseType getHouseTypeById(Long id) {
-        HouseType houseType = houseTypeMapper.selectById(id);
+        HouseType houseType = houseTypeDictionary.get(id);
         if (houseType == null) {
             throw new ServiceException("房屋类型不存在");
         }
@@ -94,6 +102,8 @@ public class HouseTypeService {
         if (result <= 0) {
             throw new ServiceException("创建房屋类型失败");
         }
+        houseTypeDictionary.reloadAfterCommit();
+        eventPublisher.publishEvent(new HouseTypeChangedEvent(houseType.getId()));
     }
     
     /**
@@ -124,6 +134,8 @@ public class HouseTypeService {
         if (result <= 0) {
             throw new ServiceException("更新房屋类型失败");
         }
+        houseTypeDictionary.reloadAfterCommit();
+        eventPublisher.publishEvent(new HouseTypeChangedEvent(id));
     }
     
     /**
@@ -146,5 +158,7 @@ public class HouseTypeService {
         if (result <= 0) {
             throw new ServiceException("删除房屋类型失败");
         }
+        houseTypeDictionary.reloadAfterCommit();
+        eventPublisher.publishEvent(new HouseTypeChangedEvent(id));
     }
 } 
\ No newline at end of file
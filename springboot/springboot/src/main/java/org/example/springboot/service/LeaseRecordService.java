@@ -17,7 +17,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -38,6 +40,15 @@ public class LeaseRecordService {
     @Resource
     private ContractGenerator contractGenerator;
 
+    @Resource
+    private PageQueryTemplate pageQueryTemplate;
+
+    @Resource
+    private AssociationLoader associationLoader;
+
+    @Resource
+    private ContractJobService contractJobService;
+
     @Value("${contract.default.duration:12}")
     private int defaultContractDuration; // 默认合同期限（月）
 
@@ -51,7 +62,7 @@ public class LeaseRecordService {
         
         if (leaseRecord != null) {
             // 加载关联信息
-            loadAssociatedInfo(leaseRecord);
+            loadAssociatedInfo(Collections.singletonList(leaseRecord));
         }
         
         return leaseRecord;
@@ -64,13 +75,14 @@ public class LeaseRecordService {
         LeaseRecord leaseRecord = leaseRecordMapper.selectById(id);
         if (leaseRecord != null) {
             // 加载关联信息
-            loadAssociatedInfo(leaseRecord);
+            loadAssociatedInfo(Collections.singletonList(leaseRecord));
         }
         return leaseRecord;
     }
 
     /**
-     * 当订单确认后，创建租赁记录并生成合同
+     * 当订单确认后，创建租赁记录并登记合同生成任务
+     * 合同在事务提交后异步生成，完成后回填合同URL，确认订单不等待 PDF 渲染
      */
     @Transactional
     public LeaseRecord createLeaseRecord(Order order) {
@@ -103,12 +115,9 @@ public class LeaseRecordService {
         // 设置初始状态为租赁中
         leaseRecord.setStatus(1);
         
-        // 生成合同
-        String contractUrl = contractGenerator.generateContract(leaseRecord, order, house, tenant, landlord);
-        leaseRecord.setContractUrl(contractUrl);
-        
-        // 保存租赁记录
+        // 保存租赁记录，同一事务中写入合同生成任务
         leaseRecordMapper.insert(leaseRecord);
+        contractJobService.enqueue(leaseRecord.getId());
         
         return leaseRecord;
     }
@@ -117,20 +126,10 @@ public class LeaseRecordService {
      * 分页查询租赁记录（管理员）
      */
     public Page<LeaseRecord> getLeaseRecordsByPage(Integer currentPage, Integer size, Integer status) {
-        LambdaQueryWrapper<LeaseRecord> queryWrapper = new LambdaQueryWrapper<>();
-        
-        if (status != null) {
-            queryWrapper.eq(LeaseRecord::getStatus, status);
-        }
-        
-        Page<LeaseRecord> page = leaseRecordMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 加载关联信息
-        for (LeaseRecord record : page.getRecords()) {
-            loadAssociatedInfo(record);
-        }
-        
-        return page;
+        // 一条关联查询带出房屋、租客、房东和订单信息
+        return pageQueryTemplate.page("lease-records-admin", currentPage, size,
+                p -> leaseRecordMapper.selectLeaseRecordPage(p, status, null, null),
+                status);
     }
 
     /**
@@ -142,21 +141,10 @@ public class LeaseRecordService {
             throw new ServiceException("获取当前用户信息失败");
         }
         
-        LambdaQueryWrapper<LeaseRecord> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(LeaseRecord::getLandlordId, userId);
-        
-        if (status != null) {
-            queryWrapper.eq(LeaseRecord::getStatus, status);
-        }
-        
-        Page<LeaseRecord> page = leaseRecordMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 加载关联信息
-        for (LeaseRecord record : page.getRecords()) {
-            loadAssociatedInfo(record);
-        }
-        
-        return page;
+        // 一条关联查询带出房屋、租客、房东和订单信息
+        return pageQueryTemplate.page("lease-records-landlord", currentPage, size,
+                p -> leaseRecordMapper.selectLeaseRecordPage(p, status, null, userId),
+                status, userId);
     }
 
     /**
@@ -168,21 +156,10 @@ public class LeaseRecordService {
             throw new ServiceException("获取当前用户信息失败");
         }
         
-        LambdaQueryWrapper<LeaseRecord> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(LeaseRecord::getTenantId, userId);
-        
-        if (status != null) {
-            queryWrapper.eq(LeaseRecord::getStatus, status);
-        }
-        
-        Page<LeaseRecord> page = leaseRecordMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 加载关联信息
-        for (LeaseRecord record : page.getRecords()) {
-            loadAssociatedInfo(record);
-        }
-        
-        return page;
+        // 一条关联查询带出房屋、租客、房东和订单信息
+        return pageQueryTemplate.page("lease-records-tenant", currentPage, size,
+                p -> leaseRecordMapper.selectLeaseRecordPage(p, status, userId, null),
+                status, userId);
     }
 
     /**
@@ -214,24 +191,27 @@ public class LeaseRecordService {
     }
 
     /**
-     * 加载租赁记录关联信息
+     * 批量加载租赁记录关联信息
+     * 房屋、用户（租客与房东）、订单各执行一次批量查询
      */
-    private void loadAssociatedInfo(LeaseRecord leaseRecord) {
-        // 加载房屋信息
-        House house = houseMapper.selectById(leaseRecord.getHouseId());
-        leaseRecord.setHouse(house);
-        
-        // 加载租客信息
-        User tenant = userMapper.selectById(leaseRecord.getTenantId());
-        leaseRecord.setTenant(tenant);
-        
-        // 加载房东信息
-        User landlord = userMapper.selectById(leaseRecord.getLandlordId());
-        leaseRecord.setLandlord(landlord);
-        
-        // 加载订单信息
-        Order order = orderMapper.selectById(leaseRecord.getOrderId());
-        leaseRecord.setOrder(order);
+    private void loadAssociatedInfo(List<LeaseRecord> leaseRecords) {
+        if (leaseRecords == null || leaseRecords.isEmpty()) {
+            return;
+        }
+
+        Map<Long, House> houses = associationLoader.loadHouses(
+                AssociationLoader.collectIds(leaseRecords, LeaseRecord::getHouseId));
+        Map<Long, User> users = associationLoader.loadUsers(
+                AssociationLoader.collectIds(leaseRecords, LeaseRecord::getTenantId, LeaseRecord::getLandlordId));
+        Map<Long, Order> orders = associationLoader.loadOrders(
+                AssociationLoader.collectIds(leaseRecords, LeaseRecord::getOrderId));
+
+        for (LeaseRecord leaseRecord : leaseRecords) {
+            leaseRecord.setHouse(houses.get(leaseRecord.getHouseId()));
+            leaseRecord.setTenant(users.get(leaseRecord.getTenantId()));
+            leaseRecord.setLandlord(users.get(leaseRecord.getLandlordId()));
+            leaseRecord.setOrder(orders.get(leaseRecord.getOrderId()));
+        }
     }
 
     /**
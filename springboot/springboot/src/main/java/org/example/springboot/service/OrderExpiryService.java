@@ -0,0 +1,135 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.Order;
+import org.example.springboot.enumClass.OrderStatus;
+import org.example.springboot.enumClass.OrderTransition;
+import org.example.springboot.event.OrderCreatedEvent;
+import org.example.springboot.mapper.OrderMapper;
+import org.example.springboot.util.HierarchicalTimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 待支付订单超时取消
+ * 订单创建提交后把支付期限登记到内存中的分层时间轮，启动时按索引读取待支付订单重建；
+ * 每个刻度只取出到期的订单，按批执行 UPDATE ... WHERE id IN (...) AND status = 待支付，
+ * 期间已支付或已取消的订单不受影响，不需要定时扫描订单表。
+ * 待支付订单不占用房屋，取消后不能再支付，也不会再参与确认时的竞争。
+ */
+@Service
+public class OrderExpiryService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderExpiryService.class);
+
+    /** 取消失败的订单重新登记的延迟（毫秒） */
+    private static final long RETRY_DELAY_MILLIS = 10000;
+
+    @Resource
+    private OrderMapper orderMapper;
+
+    @Resource
+    private OrderStateMachine orderStateMachine;
+
+    @Value("${order.payment-timeout-minutes:30}")
+    private long paymentTimeoutMinutes;
+
+    @Value("${order.expiry.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${order.expiry.batch-size:500}")
+    private int batchSize;
+
+    private HierarchicalTimingWheel<Long> wheel;
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile int restored;
+
+    @PostConstruct
+    public void init() {
+        wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        schedule(event.getOrderId(), event.getCreateTime());
+    }
+
+    /**
+     * 启动后登记全部待支付订单，已超时的在下一个刻度取消
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<Order> orders = orderMapper.selectList(new LambdaQueryWrapper<Order>()
+                .select(Order::getId, Order::getCreateTime)
+                .eq(Order::getStatus, OrderStatus.WAITING_PAYMENT.getValue()));
+        for (Order order : orders) {
+            schedule(order.getId(), order.getCreateTime());
+        }
+        restored = orders.size();
+        LOGGER.info("待支付订单超时登记完成，共{}个", orders.size());
+    }
+
+    /**
+     * 每个刻度取出到期订单并按批取消
+     */
+    @Scheduled(fixedDelayString = "${order.expiry.tick-ms:1000}")
+    public void expire() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                int canceled = orderStateMachine.transitionAllAsSystem(batch, OrderTransition.CANCEL, now);
+                expired.addAndGet(canceled);
+                skipped.addAndGet(batch.size() - canceled);
+            } catch (Exception e) {
+                failedBatches.incrementAndGet();
+                LOGGER.error("超时订单取消失败，{}个订单稍后重试", batch.size(), e);
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                for (Long orderId : batch) {
+                    wheel.add(orderId, retryAt);
+                }
+            }
+        }
+        LOGGER.debug("超时订单处理完成，到期{}个", due.size());
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("paymentTimeoutMinutes", paymentTimeoutMinutes);
+        stats.put("tickMillis", tickMillis);
+        stats.put("restored", restored);
+        stats.put("scheduled", scheduled.get());
+        stats.put("pending", wheel.size());
+        stats.put("expired", expired.get());
+        stats.put("skipped", skipped.get());
+        stats.put("failedBatches", failedBatches.get());
+        return stats;
+    }
+
+    private void schedule(Long orderId, LocalDateTime createTime) {
+        LocalDateTime deadline = (createTime != null ? createTime : LocalDateTime.now()).plusMinutes(paymentTimeoutMinutes);
+        wheel.add(orderId, deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        scheduled.incrementAndGet();
+    }
+}
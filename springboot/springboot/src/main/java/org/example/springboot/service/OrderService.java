@@ -3,23 +3,32 @@ package org.example.springboot.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.cache.RequestIdentityMap;
+import org.example.springboot.common.CursorPage;
+import org.example.springboot.common.SeekCursor;
 import org.example.springboot.entity.*;
 import org.example.springboot.enumClass.OrderStatus;
+import org.example.springboot.enumClass.OrderTransition;
 import org.example.springboot.enumClass.TransactionType;
+import org.example.springboot.event.HouseChangedEvent;
+import org.example.springboot.event.OrderCreatedEvent;
 import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.HouseMapper;
 import org.example.springboot.mapper.OrderMapper;
 import org.example.springboot.mapper.TransactionMapper;
 import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.util.JwtTokenUtils;
+import org.example.springboot.util.SnowflakeIdGenerator;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.Resource;
-import org.apache.commons.lang3.StringUtils;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -43,6 +52,27 @@ public class OrderService {
     @Resource
     private LeaseRecordService leaseRecordService;
     
+    @Resource
+    private OrderStateMachine orderStateMachine;
+    
+    @Resource
+    private HouseStatusUpdater houseStatusUpdater;
+    
+    @Resource
+    private AssociationLoader associationLoader;
+    
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+    
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Resource
+    private PageQueryTemplate pageQueryTemplate;
+    
+    @Resource
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+    
     /**
      * 创建订单
      */
@@ -73,8 +103,9 @@ public class OrderService {
         order.setCreateTime(LocalDateTime.now());
         order.setUpdateTime(LocalDateTime.now());
         
-        // 保存订单
+        // 保存订单，提交后登记支付期限，超时未支付自动取消
         orderMapper.insert(order);
+        eventPublisher.publishEvent(new OrderCreatedEvent(order.getId(), order.getCreateTime()));
         
         return order;
     }
@@ -90,28 +121,10 @@ public class OrderService {
             throw new ServiceException("请先登录");
         }
         
-        // 查询订单
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
-            throw new ServiceException("订单不存在");
-        }
-        
-        // 验证操作权限
-        if (!order.getTenantId().equals(user.getId())) {
-            throw new ServiceException("无权操作此订单");
-        }
-        
-        // 检查订单状态
-        if (!order.getStatus().equals(OrderStatus.WAITING_PAYMENT.getValue())) {
-            throw new ServiceException("订单状态不正确，无法支付");
-        }
-        
-        // 更新订单状态为已支付待确认
-        order.setStatus(OrderStatus.PAID_WAITING_CONFIRM.getValue());
-        order.setPaymentTime(LocalDateTime.now());
-        order.setPaymentMethod(paymentMethod);
-        order.setUpdateTime(LocalDateTime.now());
-        orderMapper.updateById(order);
+        // 待支付 -> 已支付待确认，状态和租客身份在同一条 UPDATE 中校验
+        LocalDateTime now = LocalDateTime.now();
+        Order order = orderStateMachine.transition(orderId, OrderTransition.PAY, user, now,
+                wrapper -> wrapper.set(Order::getPaymentTime, now).set(Order::getPaymentMethod, paymentMethod));
         
         // 创建租客支出交易记录
         Transaction tenantExpense = new Transaction();
@@ -138,8 +151,11 @@ public class OrderService {
     
     /**
      * 确认订单
+     * 多个租客争抢同一套房屋时，先以版本号比较并把房屋从待出租改为已出租，成功的一方再确认订单，
+     * 随后取消该房屋其余未支付的订单、退还已支付的订单。先改房屋再改订单，并发确认时只会在房屋行上排队，
+     * 不会与释放其余订单的操作相互等待。隔离级别为 READ_COMMITTED，冲突重试时能读到最新版本。
      */
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Order confirmOrder(Long orderId) {
         // 获取当前登录用户
         User user = JwtTokenUtils.getCurrentUser();
@@ -147,38 +163,31 @@ public class OrderService {
             throw new ServiceException("请先登录");
         }
         
-        // 查询订单
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
+        // 先按读到的订单预先检查，明显不能确认的请求不去竞争房屋；最终以状态机的条件更新为准
+        Order current = orderMapper.selectById(orderId);
+        if (current == null) {
             throw new ServiceException("订单不存在");
         }
-        
-        // 验证操作权限，只有房东可以确认订单
-        if (!order.getLandlordId().equals(user.getId()) && !"ADMIN".equals(user.getRoleCode())) {
+        if (!current.getLandlordId().equals(user.getId()) && !"ADMIN".equals(user.getRoleCode())) {
             throw new ServiceException("无权操作此订单");
         }
-        
-        // 检查订单状态，只有已支付待确认的订单可以确认
-        if (!order.getStatus().equals(OrderStatus.PAID_WAITING_CONFIRM.getValue())) {
+        if (!OrderStatus.PAID_WAITING_CONFIRM.getValue().equals(current.getStatus())) {
             throw new ServiceException("订单状态不正确，无法确认");
         }
         
-        // 获取房屋信息
-        House house = houseMapper.selectById(order.getHouseId());
-        if (house == null) {
-            throw new ServiceException("房屋信息不存在");
-        }
+        // 房屋须仍为待出租，已被其他订单租下时确认失败
+        houseStatusUpdater.compareAndSetStatus(current.getHouseId(), house -> Integer.valueOf(1).equals(house.getStatus()),
+                "该房屋已出租或已下架，无法确认", 2); // 2表示已出租
         
-        // 更新房屋状态为已出租
-        house.setStatus(2); // 2表示已出租
-        houseMapper.updateById(house);
+        // 已支付待确认 -> 已确认，只有房东（或管理员）可以确认
+        LocalDateTime now = LocalDateTime.now();
+        Order order = orderStateMachine.transition(orderId, OrderTransition.CONFIRM, user, now, null);
+        requestIdentityMap.evictHouse(order.getHouseId());
+        eventPublisher.publishEvent(new HouseChangedEvent(order.getHouseId()));
         
-        // 更新订单状态为已确认
-        order.setStatus(OrderStatus.CONFIRMED.getValue());
-        order.setUpdateTime(LocalDateTime.now());
-        orderMapper.updateById(order);
+        releaseCompetingOrders(order, now);
         
-        // 创建租赁记录并生成合同
+        // 创建租赁记录，合同在提交后异步生成
         LeaseRecord leaseRecord = leaseRecordService.createLeaseRecord(order);
         log.info("创建租赁记录成功，ID：{}", leaseRecord.getId());
         
@@ -196,28 +205,8 @@ public class OrderService {
             throw new ServiceException("请先登录");
         }
         
-        // 查询订单
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
-            throw new ServiceException("订单不存在");
-        }
-        
-        // 验证操作权限
-        if (!order.getTenantId().equals(user.getId())) {
-            throw new ServiceException("无权操作此订单");
-        }
-        
-        // 检查订单状态，只有待支付的订单可以取消
-        if (!order.getStatus().equals(OrderStatus.WAITING_PAYMENT.getValue())) {
-            throw new ServiceException("订单状态不正确，无法取消");
-        }
-        
-        // 更新订单状态为已取消
-        order.setStatus(OrderStatus.CANCELED.getValue());
-        order.setUpdateTime(LocalDateTime.now());
-        orderMapper.updateById(order);
-        
-        return order;
+        // 只有待支付的订单可以取消
+        return orderStateMachine.transition(orderId, OrderTransition.CANCEL, user, LocalDateTime.now(), null);
     }
     
     /**
@@ -231,31 +220,46 @@ public class OrderService {
             throw new ServiceException("请先登录");
         }
         
-        // 查询订单
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
-            throw new ServiceException("订单不存在");
-        }
-        
-        // 验证操作权限，只有租客可以申请退款
-        if (!order.getTenantId().equals(user.getId())) {
-            throw new ServiceException("无权操作此订单");
+        // 只有已支付待确认的订单可以由租客申请退款
+        Order order = orderStateMachine.transition(orderId, OrderTransition.REFUND, user, LocalDateTime.now(), null);
+        recordRefund(order);
+        return order;
+    }
+    
+    /**
+     * 房屋已被某个订单租下后，取消同一房屋其余未支付的订单，退还已支付待确认的订单
+     * 每个订单仍按状态条件更新，租客同时取消或退款时以先提交的为准
+     */
+    private void releaseCompetingOrders(Order winner, LocalDateTime now) {
+        List<Order> competing = orderMapper.selectList(new LambdaQueryWrapper<Order>()
+                .eq(Order::getHouseId, winner.getHouseId())
+                .ne(Order::getId, winner.getId())
+                .in(Order::getStatus, OrderStatus.WAITING_PAYMENT.getValue(), OrderStatus.PAID_WAITING_CONFIRM.getValue()));
+        int canceled = 0;
+        int refunded = 0;
+        for (Order order : competing) {
+            if (OrderStatus.WAITING_PAYMENT.getValue().equals(order.getStatus())) {
+                if (orderStateMachine.transitionAsSystem(order.getId(), OrderTransition.CANCEL, now)) {
+                    canceled++;
+                }
+            } else if (orderStateMachine.transitionAsSystem(order.getId(), OrderTransition.REFUND, now)) {
+                recordRefund(order);
+                refunded++;
+            }
         }
-        
-        // 检查订单状态，只有已支付待确认的订单可以退款
-        if (!order.getStatus().equals(OrderStatus.PAID_WAITING_CONFIRM.getValue())) {
-            throw new ServiceException("订单状态不正确，无法申请退款");
+        if (!competing.isEmpty()) {
+            log.info("房屋已出租，释放其余订单: houseId={}, 取消{}个, 退款{}个", winner.getHouseId(), canceled, refunded);
         }
-        
-        // 更新订单状态为已退款
-        order.setStatus(OrderStatus.REFUNDED.getValue());
-        order.setUpdateTime(LocalDateTime.now());
-        orderMapper.updateById(order);
-        
+    }
+    
+    /**
+     * 记录退款的交易流水：租客收入、房东支出
+     */
+    private void recordRefund(Order order) {
         // 创建租客收入交易记录（退款）
         Transaction tenantIncome = new Transaction();
-        tenantIncome.setOrderId(orderId);
-        tenantIncome.setUserId(user.getId());
+        tenantIncome.setOrderId(order.getId());
+        tenantIncome.setUserId(order.getTenantId());
         tenantIncome.setType(TransactionType.INCOME.getValue());
         tenantIncome.setAmount(order.getAmount());
         tenantIncome.setDescription("退款收入-订单号:" + order.getOrderNo());
@@ -264,15 +268,13 @@ public class OrderService {
         
         // 创建房东支出交易记录（退款）
         Transaction landlordExpense = new Transaction();
-        landlordExpense.setOrderId(orderId);
+        landlordExpense.setOrderId(order.getId());
         landlordExpense.setUserId(order.getLandlordId());
         landlordExpense.setType(TransactionType.EXPENSE.getValue());
         landlordExpense.setAmount(order.getAmount());
         landlordExpense.setDescription("退款支出-订单号:" + order.getOrderNo());
         landlordExpense.setCreateTime(LocalDateTime.now());
         transactionMapper.insert(landlordExpense);
-        
-        return order;
     }
     
     /**
@@ -294,9 +296,7 @@ public class OrderService {
 
         
         // 获取关联信息
-        order.setHouse(houseMapper.selectById(order.getHouseId()));
-        order.setTenant(userMapper.selectById(order.getTenantId()));
-        order.setLandlord(userMapper.selectById(order.getLandlordId()));
+        fillOrderInfo(Collections.singletonList(order));
         
         return order;
     }
@@ -311,30 +311,10 @@ public class OrderService {
             throw new ServiceException("请先登录");
         }
         
-        LambdaQueryWrapper<Order> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(Order::getTenantId, user.getId());
-        
-        // 添加查询条件
-        if (StringUtils.isNotBlank(orderNo)) {
-            queryWrapper.like(Order::getOrderNo, orderNo);
-        }
-        if (status != null) {
-            queryWrapper.eq(Order::getStatus, status);
-        }
-        
-        // 按创建时间降序排序
-        queryWrapper.orderByDesc(Order::getCreateTime);
-        
-        // 分页查询
-        Page<Order> page = orderMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 填充关联信息
-        for (Order order : page.getRecords()) {
-            order.setHouse(houseMapper.selectById(order.getHouseId()));
-            order.setLandlord(userMapper.selectById(order.getLandlordId()));
-        }
-        
-        return page;
+        // 一条关联查询带出房屋、租客和房东信息
+        return pageQueryTemplate.page("orders-tenant", currentPage, size,
+                p -> orderMapper.selectOrderPage(p, orderNo, status, user.getId(), null, null, null),
+                orderNo, status, user.getId());
     }
     
     /**
@@ -347,105 +327,62 @@ public class OrderService {
             throw new ServiceException("请先登录");
         }
         
-        LambdaQueryWrapper<Order> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(Order::getLandlordId, user.getId());
-        
-        // 添加查询条件
-        if (StringUtils.isNotBlank(orderNo)) {
-            queryWrapper.like(Order::getOrderNo, orderNo);
-        }
-        if (status != null) {
-            queryWrapper.eq(Order::getStatus, status);
-        }
-        
-        // 按创建时间降序排序
-        queryWrapper.orderByDesc(Order::getCreateTime);
-        
-        // 分页查询
-        Page<Order> page = orderMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 填充关联信息
-        for (Order order : page.getRecords()) {
-            order.setHouse(houseMapper.selectById(order.getHouseId()));
-            order.setTenant(userMapper.selectById(order.getTenantId()));
-        }
-        
-        return page;
+        // 一条关联查询带出房屋、租客和房东信息
+        return pageQueryTemplate.page("orders-landlord", currentPage, size,
+                p -> orderMapper.selectOrderPage(p, orderNo, status, null, user.getId(), null, null),
+                orderNo, status, user.getId());
     }
     
     /**
      * 管理员获取所有订单列表
      */
     public Page<Order> getAllOrders(String orderNo, Integer status, String tenantUsername, String landlordUsername, Integer currentPage, Integer size) {
-        // 如果有用户名查询条件，先查询用户ID
-        Long tenantId = null;
-        Long landlordId = null;
-        
-
-        
-        LambdaQueryWrapper<Order> queryWrapper = new LambdaQueryWrapper<>();
-
-        if (StringUtils.isNotBlank(tenantUsername)) {
-            LambdaQueryWrapper<User> tenantQuery = new LambdaQueryWrapper<>();
-            tenantQuery.like(User::getUsername, tenantUsername);
-            List<User> tenants = userMapper.selectList(tenantQuery);
-            List<Long> tenantIds = tenants.stream().map(User::getId).toList();
-            if(!tenantIds.isEmpty()){
-                queryWrapper.in(Order::getTenantId, tenantIds);
-            }else{
-                return new Page<>(currentPage, size);
-            }
-
-        }
-
-        if (StringUtils.isNotBlank(landlordUsername)) {
-            LambdaQueryWrapper<User> landlordQuery = new LambdaQueryWrapper<>();
-            landlordQuery.like(User::getUsername, landlordUsername);
-            List<User> landlords = userMapper.selectList(landlordQuery);
-            List<Long> landlordIds = landlords.stream().map(User::getId).toList();
-            if(!landlordIds.isEmpty()){
-                queryWrapper.in(Order::getLandlordId, landlordIds);
-            }else {
-                return new Page<>(currentPage, size);
-            }
-
-
-        }
-        
-        // 添加查询条件
-        if (StringUtils.isNotBlank(orderNo)) {
-            queryWrapper.like(Order::getOrderNo, orderNo);
-        }
-        if (status != null) {
-            queryWrapper.eq(Order::getStatus, status);
-        }
-        if (tenantId != null) {
-            queryWrapper.eq(Order::getTenantId, tenantId);
-        }
-        if (landlordId != null) {
-            queryWrapper.eq(Order::getLandlordId, landlordId);
+        // 租客、房东用户名条件直接在关联查询中过滤，不再预先查询用户ID
+        return pageQueryTemplate.page("orders-admin", currentPage, size,
+                p -> orderMapper.selectOrderPage(p, orderNo, status, null, null, tenantUsername, landlordUsername),
+                orderNo, status, tenantUsername, landlordUsername);
+    }
+    
+    /**
+     * 管理员游标方式查询所有订单，按创建时间倒序，不执行 COUNT
+     * @param cursor 上一页返回的 nextCursor，空字符串表示第一页
+     * @param size 每页大小，不能小于 1，超过 pagination.cursor.max-size 时按上限返回
+     * @return 当前页数据和下一页游标
+     */
+    public CursorPage<Order> getAllOrdersByCursor(String orderNo, Integer status, String tenantUsername, String landlordUsername,
+                                                  String cursor, Integer size) {
+        int limit = pageQueryTemplate.cursorSize(size);
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<Order> rows = orderMapper.selectOrderSlice(orderNo, status, null, null, tenantUsername, landlordUsername,
+                after != null ? after.getCreateTime() : null, after != null ? after.getId() : null, limit + 1);
+        return CursorPage.of(rows, limit, order -> new SeekCursor(order.getCreateTime(), order.getId()));
+    }
+    
+    /**
+     * 批量填充订单关联的房屋、租客和房东信息
+     * @param orders 订单列表
+     */
+    private void fillOrderInfo(List<Order> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return;
         }
         
-        // 按创建时间降序排序
-        queryWrapper.orderByDesc(Order::getCreateTime);
-        
-        // 分页查询
-        Page<Order> page = orderMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
+        Map<Long, House> houses = associationLoader.loadHouses(AssociationLoader.collectIds(orders, Order::getHouseId));
+        // 租客和房东都来自用户表，合并为一次查询
+        Map<Long, User> users = associationLoader.loadUsers(
+                AssociationLoader.collectIds(orders, Order::getTenantId, Order::getLandlordId));
         
-        // 填充关联信息
-        for (Order order : page.getRecords()) {
-            order.setHouse(houseMapper.selectById(order.getHouseId()));
-            order.setTenant(userMapper.selectById(order.getTenantId()));
-            order.setLandlord(userMapper.selectById(order.getLandlordId()));
+        for (Order order : orders) {
+            order.setHouse(houses.get(order.getHouseId()));
+            order.setTenant(users.get(order.getTenantId()));
+            order.setLandlord(users.get(order.getLandlordId()));
         }
-        
-        return page;
     }
     
     /**
      * 生成订单编号
      */
     private String generateOrderNo() {
-        return "ORD" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 4);
+        return snowflakeIdGenerator.nextOrderNo();
     }
 } 
\ No newline at end of file
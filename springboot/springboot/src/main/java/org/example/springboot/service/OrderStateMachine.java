@@ -0,0 +1,171 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.Order;
+import org.example.springboot.entity.User;
+import org.example.springboot.enumClass.OrderTransition;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.OrderMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 订单状态机
+ * 按 OrderTransition 表执行状态流转：一条
+ * UPDATE `order` SET status = 目标状态 ... WHERE id = ? AND status = 原状态 AND tenant_id / landlord_id = 当前用户，
+ * 以影响行数判断是否成功，并发的两个请求只有一个能改到这一行；失败时才查询订单给出具体原因。
+ * 每种流转分别统计成功数、冲突数和语句耗时。
+ */
+@Component
+public class OrderStateMachine {
+
+    /**
+     * 单种流转的统计
+     */
+    private static final class Metrics {
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(boolean success, long nanos) {
+            record(success ? 1 : 0, success ? 0 : 1, nanos);
+        }
+
+        private void record(long success, long conflict, long nanos) {
+            succeeded.add(success);
+            conflicts.add(conflict);
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    @Resource
+    private OrderMapper orderMapper;
+
+    private final Map<OrderTransition, Metrics> metrics = new EnumMap<>(OrderTransition.class);
+
+    public OrderStateMachine() {
+        for (OrderTransition transition : OrderTransition.values()) {
+            metrics.put(transition, new Metrics());
+        }
+    }
+
+    /**
+     * 执行状态流转
+     * @param orderId 订单ID
+     * @param transition 流转
+     * @param user 当前用户
+     * @param now 更新时间
+     * @param extra 需要同时更新的其他字段，可为空
+     * @return 流转后的订单
+     */
+    public Order transition(Long orderId, OrderTransition transition, User user, LocalDateTime now,
+                            Consumer<LambdaUpdateWrapper<Order>> extra) {
+        LambdaUpdateWrapper<Order> wrapper = new LambdaUpdateWrapper<Order>()
+                .set(Order::getStatus, transition.getTo().getValue())
+                .set(Order::getUpdateTime, now)
+                .eq(Order::getId, orderId)
+                .eq(Order::getStatus, transition.getFrom().getValue());
+        if (!isAdminOverride(transition, user)) {
+            wrapper.eq(transition.getActor() == OrderTransition.Actor.TENANT ? Order::getTenantId : Order::getLandlordId,
+                    user.getId());
+        }
+        if (extra != null) {
+            extra.accept(wrapper);
+        }
+        long start = System.nanoTime();
+        int updated = orderMapper.update(null, wrapper);
+        metrics.get(transition).record(updated > 0, System.nanoTime() - start);
+        if (updated <= 0) {
+            throw failure(orderId, transition, user);
+        }
+        // 本事务已锁定该行，读到的就是刚写入的状态
+        return orderMapper.selectById(orderId);
+    }
+
+    /**
+     * 由系统执行的状态流转，不限操作人，例如房屋被他人租下后释放其余订单
+     * @return 订单仍处于原状态并已完成流转时返回 true
+     */
+    public boolean transitionAsSystem(Long orderId, OrderTransition transition, LocalDateTime now) {
+        LambdaUpdateWrapper<Order> wrapper = new LambdaUpdateWrapper<Order>()
+                .set(Order::getStatus, transition.getTo().getValue())
+                .set(Order::getUpdateTime, now)
+                .eq(Order::getId, orderId)
+                .eq(Order::getStatus, transition.getFrom().getValue());
+        long start = System.nanoTime();
+        int updated = orderMapper.update(null, wrapper);
+        metrics.get(transition).record(updated > 0, System.nanoTime() - start);
+        return updated > 0;
+    }
+
+    /**
+     * 由系统批量执行的状态流转，一条 UPDATE ... WHERE id IN (...) AND status = 原状态，
+     * 已不处于原状态的订单（例如已支付）不受影响
+     * @return 完成流转的订单数
+     */
+    public int transitionAllAsSystem(Collection<Long> orderIds, OrderTransition transition, LocalDateTime now) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        LambdaUpdateWrapper<Order> wrapper = new LambdaUpdateWrapper<Order>()
+                .set(Order::getStatus, transition.getTo().getValue())
+                .set(Order::getUpdateTime, now)
+                .in(Order::getId, orderIds)
+                .eq(Order::getStatus, transition.getFrom().getValue());
+        long start = System.nanoTime();
+        int updated = orderMapper.update(null, wrapper);
+        metrics.get(transition).record(updated, orderIds.size() - updated, System.nanoTime() - start);
+        return updated;
+    }
+
+    /**
+     * 各流转的统计
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<OrderTransition, Metrics> entry : metrics.entrySet()) {
+            Metrics m = entry.getValue();
+            long succeeded = m.succeeded.sum();
+            long conflicts = m.conflicts.sum();
+            long total = succeeded + conflicts;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("succeeded", succeeded);
+            item.put("conflicts", conflicts);
+            item.put("avgMicros", total > 0 ? TimeUnit.NANOSECONDS.toMicros(m.totalNanos.sum() / total) : 0);
+            item.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(m.maxNanos.get()));
+            stats.put(entry.getKey().name(), item);
+        }
+        return stats;
+    }
+
+    private static boolean isAdminOverride(OrderTransition transition, User user) {
+        return transition.isAdminAllowed() && "ADMIN".equals(user.getRoleCode());
+    }
+
+    /**
+     * 条件更新未命中时查询订单，区分不存在、无权操作和状态不符
+     */
+    private ServiceException failure(Long orderId, OrderTransition transition, User user) {
+        Order order = orderMapper.selectById(orderId);
+        if (order == null) {
+            return new ServiceException("订单不存在");
+        }
+        Long actorId = transition.getActor() == OrderTransition.Actor.TENANT ? order.getTenantId() : order.getLandlordId();
+        if (!isAdminOverride(transition, user) && !user.getId().equals(actorId)) {
+            return new ServiceException("无权操作此订单");
+        }
+        return new ServiceException("订单状态不正确，无法" + transition.getAction());
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.Resource;
+import org.example.springboot.common.PageCountMode;
+import org.example.springboot.common.ProbePage;
+import org.example.springboot.exception.ServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 分页查询模板
+ * 按接口配置决定是否执行 COUNT：
+ * pagination.count-mode.&lt;接口名&gt;=EXACT | NONE | CACHED，未配置时取 pagination.count-mode.default。
+ * CACHED 模式按“接口名 + 规范化后的查询条件”缓存总数，有效期内翻页不再执行 COUNT。
+ */
+@Component
+public class PageQueryTemplate {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageQueryTemplate.class);
+
+    private static final String MODE_PROPERTY_PREFIX = "pagination.count-mode.";
+
+    @Resource
+    private Environment environment;
+
+    @Value("${pagination.count-cache.ttl-seconds:30}")
+    private long countCacheTtlSeconds;
+
+    @Value("${pagination.count-cache.max-entries:1000}")
+    private int countCacheMaxEntries;
+
+    @Value("${pagination.cursor.max-size:100}")
+    private int cursorMaxSize;
+
+    private final Map<String, PageCountMode> modes = new ConcurrentHashMap<>();
+    private final Map<String, CachedCount> countCache = new ConcurrentHashMap<>();
+
+    private final LongAdder exactCounts = new LongAdder();
+    private final LongAdder skippedCounts = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    private static final class CachedCount {
+        private final long total;
+        private final long expiresAt;
+
+        private CachedCount(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 执行分页查询
+     * @param endpoint 接口名，对应配置项 pagination.count-mode.&lt;endpoint&gt;
+     * @param currentPage 当前页
+     * @param size 每页大小
+     * @param query 实际查询，传入的分页对象需原样交给 Mapper
+     * @param filters 影响总数的全部查询条件（含当前用户ID等隐含条件），用于生成缓存键
+     * @return 分页数据
+     */
+    public <T> Page<T> page(String endpoint, Integer currentPage, Integer size,
+                            Function<Page<T>, Page<T>> query, Object... filters) {
+        PageCountMode mode = modeOf(endpoint);
+        if (mode == PageCountMode.NONE) {
+            skippedCounts.increment();
+            return probe(currentPage, size, query);
+        }
+        if (mode == PageCountMode.CACHED) {
+            String key = cacheKey(endpoint, filters);
+            CachedCount cached = countCache.get(key);
+            if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+                cacheHits.increment();
+                ProbePage<T> page = probe(currentPage, size, query);
+                // 缓存的总数可能已落后于实际数据，至少不小于本页推算出的下界
+                page.setTotal(Math.max(cached.total, page.getTotal()));
+                return page;
+            }
+            cacheMisses.increment();
+            Page<T> page = exact(currentPage, size, query);
+            putCount(key, page.getTotal());
+            return page;
+        }
+        return exact(currentPage, size, query);
+    }
+
+    /**
+     * 校验游标分页的每页大小，须在拼装查询前调用：小于 1 时拒绝，超过上限时按上限查询
+     * @param size 请求的每页大小
+     * @return 实际使用的每页大小
+     */
+    public int cursorSize(Integer size) {
+        if (size == null || size < 1) {
+            throw new ServiceException("每页大小必须大于0");
+        }
+        return Math.min(size, cursorMaxSize);
+    }
+
+    /**
+     * 累计统计数据
+     */
+    public Map<String, Object> getStatistics() {
+        long hits = cacheHits.sum();
+        long misses = cacheMisses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("exactCounts", exactCounts.sum());
+        stats.put("skippedCounts", skippedCounts.sum());
+        stats.put("cacheHits", hits);
+        stats.put("cacheMisses", misses);
+        stats.put("cacheHitRate", hits + misses == 0 ? 0D : (double) hits / (hits + misses));
+        stats.put("cachedEntries", countCache.size());
+        stats.put("modes", new LinkedHashMap<>(modes));
+        return stats;
+    }
+
+    private <T> Page<T> exact(Integer currentPage, Integer size, Function<Page<T>, Page<T>> query) {
+        exactCounts.increment();
+        Page<T> page = new Page<>(currentPage, size);
+        query.apply(page);
+        return page;
+    }
+
+    private <T> ProbePage<T> probe(Integer currentPage, Integer size, Function<Page<T>, Page<T>> query) {
+        ProbePage<T> page = new ProbePage<>(currentPage, size);
+        query.apply(page);
+        return page.finish();
+    }
+
+    private PageCountMode modeOf(String endpoint) {
+        return modes.computeIfAbsent(endpoint, key -> {
+            String value = environment.getProperty(MODE_PROPERTY_PREFIX + key,
+                    environment.getProperty(MODE_PROPERTY_PREFIX + "default", PageCountMode.EXACT.name()));
+            try {
+                return PageCountMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("分页总数配置无效 {}{}={}，按 EXACT 处理", MODE_PROPERTY_PREFIX, key, value);
+                return PageCountMode.EXACT;
+            }
+        });
+    }
+
+    private void putCount(String key, long total) {
+        long now = System.currentTimeMillis();
+        if (countCache.size() >= countCacheMaxEntries) {
+            countCache.values().removeIf(entry -> entry.expiresAt <= now);
+            if (countCache.size() >= countCacheMaxEntries) {
+                countCache.clear();
+            }
+        }
+        countCache.put(key, new CachedCount(total, now + countCacheTtlSeconds * 1000));
+    }
+
+    /**
+     * 规范化查询条件：空值和空白字符串视为同一条件，字符串忽略首尾空白和大小写，数值去掉多余的零
+     */
+    private static String cacheKey(String endpoint, Object... filters) {
+        StringBuilder key = new StringBuilder(endpoint);
+        for (Object filter : filters) {
+            key.append('|');
+            if (filter instanceof String text) {
+                key.append(text.trim().toLowerCase(Locale.ROOT));
+            } else if (filter instanceof BigDecimal number) {
+                key.append(number.stripTrailingZeros().toPlainString());
+            } else if (filter != null) {
+                key.append(filter);
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,265 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.entity.House;
+import org.example.springboot.entity.SavedSearch;
+import org.example.springboot.entity.SearchAlert;
+import org.example.springboot.entity.User;
+import org.example.springboot.event.HouseListedEvent;
+import org.example.springboot.event.SavedSearchChangedEvent;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.SavedSearchMapper;
+import org.example.springboot.mapper.SearchAlertMapper;
+import org.example.springboot.search.HouseFacilityIndex;
+import org.example.springboot.search.SavedSearchPercolator;
+import org.example.springboot.util.JwtTokenUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 保存的搜索服务类
+ * 租客保存搜索条件，有符合条件的房源上架时生成提醒
+ */
+@Service
+public class SavedSearchService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SavedSearchService.class);
+
+    @Resource
+    private SavedSearchMapper savedSearchMapper;
+
+    @Resource
+    private SearchAlertMapper searchAlertMapper;
+
+    @Resource
+    private SavedSearchPercolator savedSearchPercolator;
+
+    @Resource
+    private AssociationLoader associationLoader;
+
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${saved-search.max-per-user:20}")
+    private int maxPerUser;
+
+    /**
+     * 当前用户保存的搜索，按创建时间倒序
+     */
+    public List<SavedSearch> getMySavedSearches() {
+        User user = currentUser();
+        return savedSearchMapper.selectList(new LambdaQueryWrapper<SavedSearch>()
+                .eq(SavedSearch::getUserId, user.getId())
+                .orderByDesc(SavedSearch::getCreateTime)
+                .orderByDesc(SavedSearch::getId));
+    }
+
+    /**
+     * 保存搜索
+     * @param search 搜索条件
+     */
+    @Transactional
+    public void createSavedSearch(SavedSearch search) {
+        User user = currentUser();
+        checkConditions(search);
+        Long count = savedSearchMapper.selectCount(new LambdaQueryWrapper<SavedSearch>()
+                .eq(SavedSearch::getUserId, user.getId()));
+        if (count >= maxPerUser) {
+            throw new ServiceException("最多保存" + maxPerUser + "个搜索");
+        }
+        search.setId(null);
+        search.setUserId(user.getId());
+        if (search.getNotifyEnabled() == null) {
+            search.setNotifyEnabled(1);
+        }
+        search.setCreateTime(LocalDateTime.now());
+        search.setUpdateTime(LocalDateTime.now());
+        if (savedSearchMapper.insert(search) <= 0) {
+            throw new ServiceException("保存失败");
+        }
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(search.getId()));
+    }
+
+    /**
+     * 修改保存的搜索
+     * 搜索条件整体替换，未传的条件即清除；名称和提醒开关未传时保留原值。校验合并后的完整条件
+     * @param id 搜索ID
+     * @param search 新的搜索条件
+     */
+    @Transactional
+    public void updateSavedSearch(Long id, SavedSearch search) {
+        SavedSearch existing = getOwned(id);
+        existing.setKeyword(search.getKeyword());
+        existing.setMinPrice(search.getMinPrice());
+        existing.setMaxPrice(search.getMaxPrice());
+        existing.setTypeId(search.getTypeId());
+        existing.setFacilities(search.getFacilities());
+        if (search.getName() != null) {
+            existing.setName(search.getName());
+        }
+        if (search.getNotifyEnabled() != null) {
+            existing.setNotifyEnabled(search.getNotifyEnabled());
+        }
+        checkConditions(existing);
+        existing.setUpdateTime(LocalDateTime.now());
+        // 显式写入每个条件列（含空值），默认的更新策略会跳过空字段
+        int updated = savedSearchMapper.update(null, new LambdaUpdateWrapper<SavedSearch>()
+                .set(SavedSearch::getName, existing.getName())
+                .set(SavedSearch::getKeyword, existing.getKeyword())
+                .set(SavedSearch::getMinPrice, existing.getMinPrice())
+                .set(SavedSearch::getMaxPrice, existing.getMaxPrice())
+                .set(SavedSearch::getTypeId, existing.getTypeId())
+                .set(SavedSearch::getFacilities, existing.getFacilities())
+                .set(SavedSearch::getNotifyEnabled, existing.getNotifyEnabled())
+                .set(SavedSearch::getUpdateTime, existing.getUpdateTime())
+                .eq(SavedSearch::getId, id));
+        if (updated <= 0) {
+            throw new ServiceException("更新失败");
+        }
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(id));
+    }
+
+    /**
+     * 删除保存的搜索，已生成的提醒保留
+     * @param id 搜索ID
+     */
+    @Transactional
+    public void deleteSavedSearch(Long id) {
+        getOwned(id);
+        if (savedSearchMapper.deleteById(id) <= 0) {
+            throw new ServiceException("删除失败");
+        }
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(id));
+    }
+
+    /**
+     * 分页查询当前用户的房源提醒，最新的在前
+     * @param readStatus 是否已读，为空时不限
+     */
+    public Page<SearchAlert> getMyAlerts(Integer readStatus, Integer currentPage, Integer size) {
+        User user = currentUser();
+        LambdaQueryWrapper<SearchAlert> queryWrapper = new LambdaQueryWrapper<SearchAlert>()
+                .eq(SearchAlert::getUserId, user.getId())
+                .eq(readStatus != null, SearchAlert::getReadStatus, readStatus)
+                .orderByDesc(SearchAlert::getId);
+        Page<SearchAlert> page = searchAlertMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
+        fillHouses(page.getRecords());
+        return page;
+    }
+
+    /**
+     * 当前用户的未读提醒数
+     */
+    public Long countUnreadAlerts() {
+        User user = currentUser();
+        return searchAlertMapper.selectCount(new LambdaQueryWrapper<SearchAlert>()
+                .eq(SearchAlert::getUserId, user.getId())
+                .eq(SearchAlert::getReadStatus, 0));
+    }
+
+    /**
+     * 标记提醒已读
+     * @param id 提醒ID，为空时标记当前用户全部提醒
+     */
+    public void markAlertsRead(Long id) {
+        User user = currentUser();
+        searchAlertMapper.update(null, new LambdaUpdateWrapper<SearchAlert>()
+                .eq(SearchAlert::getUserId, user.getId())
+                .eq(id != null, SearchAlert::getId, id)
+                .eq(SearchAlert::getReadStatus, 0)
+                .set(SearchAlert::getReadStatus, 1));
+    }
+
+    /**
+     * 房源上架后匹配保存的搜索并写入提醒
+     * 在独立线程池中执行，房东的写操作不等待；房东自己保存的搜索不提醒
+     */
+    @Async("searchAlertExecutor")
+    @EventListener
+    public void onHouseListed(HouseListedEvent event) {
+        House house = event.getHouse();
+        try {
+            List<SavedSearchPercolator.Match> matches = savedSearchPercolator.percolate(house);
+            List<SearchAlert> alerts = new ArrayList<>(matches.size());
+            LocalDateTime now = LocalDateTime.now();
+            for (SavedSearchPercolator.Match match : matches) {
+                if (match.getUserId() == null || match.getUserId().equals(house.getLandlordId())) {
+                    continue;
+                }
+                SearchAlert alert = new SearchAlert();
+                alert.setUserId(match.getUserId());
+                alert.setSavedSearchId(match.getSavedSearchId());
+                alert.setHouseId(house.getId());
+                alert.setReadStatus(0);
+                alert.setCreateTime(now);
+                alerts.add(alert);
+            }
+            if (!alerts.isEmpty()) {
+                searchAlertMapper.insert(alerts);
+            }
+            LOGGER.debug("房源上架提醒: houseId={}, 命中搜索{}个", house.getId(), alerts.size());
+        } catch (Exception e) {
+            LOGGER.error("生成房源提醒失败: houseId={}", house.getId(), e);
+        }
+    }
+
+    private User currentUser() {
+        User user = JwtTokenUtils.getCurrentUser();
+        if (user == null) {
+            throw new ServiceException("请先登录");
+        }
+        return user;
+    }
+
+    private SavedSearch getOwned(Long id) {
+        User user = currentUser();
+        SavedSearch search = savedSearchMapper.selectById(id);
+        if (search == null || !user.getId().equals(search.getUserId())) {
+            throw new ServiceException("搜索不存在");
+        }
+        return search;
+    }
+
+    /**
+     * 至少要有一项条件，价格区间需有效
+     */
+    private void checkConditions(SavedSearch search) {
+        if (StringUtils.isBlank(search.getKeyword()) && search.getMinPrice() == null && search.getMaxPrice() == null
+                && search.getTypeId() == null && HouseFacilityIndex.parseFacilities(search.getFacilities()).isEmpty()) {
+            throw new ServiceException("请至少设置一个搜索条件");
+        }
+        if (search.getMinPrice() != null && search.getMaxPrice() != null
+                && search.getMinPrice().compareTo(search.getMaxPrice()) > 0) {
+            throw new ServiceException("最低价格不能高于最高价格");
+        }
+        if (search.getNotifyEnabled() != null && search.getNotifyEnabled() != 0 && search.getNotifyEnabled() != 1) {
+            throw new ServiceException("提醒开关不合法");
+        }
+    }
+
+    private void fillHouses(List<SearchAlert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        Map<Long, House> houses = associationLoader.loadHouses(
+                AssociationLoader.collectIds(alerts, SearchAlert::getHouseId));
+        associationLoader.fillHouseInfo(new ArrayList<>(houses.values()));
+        for (SearchAlert alert : alerts) {
+            alert.setHouse(houses.get(alert.getHouseId()));
+        }
+    }
+}
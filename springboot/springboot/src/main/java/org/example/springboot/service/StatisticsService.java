@@ -1,7 +1,9 @@
 package org.example.springboot.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.cache.HouseTypeDictionary;
 import org.example.springboot.dto.StatisticsDTO;
 import org.example.springboot.entity.*;
 import org.example.springboot.mapper.*;
@@ -35,7 +37,10 @@ public class StatisticsService {
     private LeaseRecordMapper leaseRecordMapper;
     
     @Resource
-    private HouseTypeMapper houseTypeMapper;
+    private HouseTypeDictionary houseTypeDictionary;
+    
+    @Resource
+    private AssociationLoader associationLoader;
     
     /**
      * 获取仪表盘统计数据
@@ -127,10 +132,16 @@ public class StatisticsService {
         List<LeaseRecord> leases = leaseRecordMapper.selectList(query);
         List<StatisticsDTO.RecentLease> result = new ArrayList<>();
         
+        // 批量加载房屋和用户信息
+        Map<Long, House> houses = associationLoader.loadHouses(
+                AssociationLoader.collectIds(leases, LeaseRecord::getHouseId));
+        Map<Long, User> users = associationLoader.loadUsers(
+                AssociationLoader.collectIds(leases, LeaseRecord::getTenantId, LeaseRecord::getLandlordId));
+        
         for (LeaseRecord lease : leases) {
-            House house = houseMapper.selectById(lease.getHouseId());
-            User tenant = userMapper.selectById(lease.getTenantId());
-            User landlord = userMapper.selectById(lease.getLandlordId());
+            House house = houses.get(lease.getHouseId());
+            User tenant = users.get(lease.getTenantId());
+            User landlord = users.get(lease.getLandlordId());
             
             if (house != null && tenant != null && landlord != null) {
                 StatisticsDTO.RecentLease recentLease = StatisticsDTO.RecentLease.builder()
@@ -194,19 +205,24 @@ public class StatisticsService {
      * 获取房源类型分布
      */
     public List<StatisticsDTO.HouseTypeData> getHouseTypeDistribution() {
-        // 获取所有房屋类型
-        List<HouseType> houseTypes = houseTypeMapper.selectList(null);
-        List<StatisticsDTO.HouseTypeData> result = new ArrayList<>();
+        // 各类型房源数量一次分组查询得出
+        QueryWrapper<House> countQuery = new QueryWrapper<>();
+        countQuery.select("type_id", "COUNT(*) AS count").groupBy("type_id");
+        Map<Long, Long> counts = new HashMap<>();
+        for (Map<String, Object> row : houseMapper.selectMaps(countQuery)) {
+            Object typeId = row.get("type_id");
+            Object count = row.get("count");
+            if (typeId != null && count != null) {
+                counts.put(((Number) typeId).longValue(), ((Number) count).longValue());
+            }
+        }
         
-        for (HouseType type : houseTypes) {
-            // 查询该类型的房源数量
-            LambdaQueryWrapper<House> query = new LambdaQueryWrapper<>();
-            query.eq(House::getTypeId, type.getId());
-            long count = houseMapper.selectCount(query);
-            
+        // 房屋类型取自内存字典
+        List<StatisticsDTO.HouseTypeData> result = new ArrayList<>();
+        for (HouseType type : houseTypeDictionary.getAll()) {
             StatisticsDTO.HouseTypeData typeData = StatisticsDTO.HouseTypeData.builder()
                     .name(type.getName())
-                    .count(count)
+                    .count(counts.getOrDefault(type.getId(), 0L))
                     .build();
             
             result.add(typeData);
@@ -214,4 +230,4 @@ public class StatisticsService {
         
         return result;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,14 +1,12 @@
 package org.example.springboot.service;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import org.example.springboot.entity.Order;
+import org.example.springboot.common.CursorPage;
+import org.example.springboot.common.SeekCursor;
 import org.example.springboot.entity.Transaction;
 import org.example.springboot.entity.User;
 import org.example.springboot.exception.ServiceException;
-import org.example.springboot.mapper.OrderMapper;
 import org.example.springboot.mapper.TransactionMapper;
-import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.util.JwtTokenUtils;
 import org.springframework.stereotype.Service;
 
@@ -22,10 +20,7 @@ public class TransactionService {
     private TransactionMapper transactionMapper;
     
     @Resource
-    private OrderMapper orderMapper;
-    
-    @Resource
-    private UserMapper userMapper;
+    private PageQueryTemplate pageQueryTemplate;
     
     /**
      * 获取当前用户的交易记录
@@ -37,27 +32,10 @@ public class TransactionService {
             throw new ServiceException("请先登录");
         }
         
-        LambdaQueryWrapper<Transaction> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(Transaction::getUserId, user.getId());
-        
-        // 添加类型查询条件
-        if (type != null) {
-            queryWrapper.eq(Transaction::getType, type);
-        }
-        
-        // 按创建时间降序排序
-        queryWrapper.orderByDesc(Transaction::getCreateTime);
-        
-        // 分页查询
-        Page<Transaction> page = transactionMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 填充关联信息
-        for (Transaction transaction : page.getRecords()) {
-            Order order = orderMapper.selectById(transaction.getOrderId());
-            transaction.setOrder(order);
-        }
-        
-        return page;
+        // 一条关联查询带出订单信息
+        return pageQueryTemplate.page("transactions-user", currentPage, size,
+                p -> transactionMapper.selectTransactionPage(p, user.getId(), type, null),
+                user.getId(), type);
     }
     
     /**
@@ -70,40 +48,29 @@ public class TransactionService {
             throw new ServiceException("请先登录");
         }
         
-        LambdaQueryWrapper<Transaction> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 如果有用户名查询条件，先查询用户ID
-        if (org.apache.commons.lang3.StringUtils.isNotBlank(username)) {
-            LambdaQueryWrapper<User> userQuery = new LambdaQueryWrapper<>();
-            userQuery.like(User::getUsername, username);
-            List<User> users = userMapper.selectList(userQuery);
-            List<Long> userIds = users.stream().map(User::getId).toList();
-            if (!userIds.isEmpty()) {
-                queryWrapper.in(Transaction::getUserId, userIds);
-            } else {
-                // 如果没有找到匹配的用户，返回空结果
-                return new Page<>(currentPage, size);
-            }
-        }
-        
-        // 添加类型查询条件
-        if (type != null) {
-            queryWrapper.eq(Transaction::getType, type);
-        }
-        
-        // 按创建时间降序排序
-        queryWrapper.orderByDesc(Transaction::getCreateTime);
-        
-        // 分页查询
-        Page<Transaction> page = transactionMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
-        
-        // 填充关联信息
-        for (Transaction transaction : page.getRecords()) {
-            transaction.setOrder(orderMapper.selectById(transaction.getOrderId()));
-            transaction.setUser(userMapper.selectById(transaction.getUserId()));
+        // 用户名条件直接在关联查询中过滤，不再预先查询用户ID
+        return pageQueryTemplate.page("transactions-admin", currentPage, size,
+                p -> transactionMapper.selectTransactionPage(p, null, type, username),
+                type, username);
+    }
+    
+    /**
+     * 管理员游标方式获取所有交易记录，按创建时间倒序，不执行 COUNT
+     * @param cursor 上一页返回的 nextCursor，空字符串表示第一页
+     * @param size 每页大小，不能小于 1，超过 pagination.cursor.max-size 时按上限返回
+     */
+    public CursorPage<Transaction> getAllTransactionsByCursor(String username, Integer type, String cursor, Integer size) {
+        // 获取当前登录用户
+        User user = JwtTokenUtils.getCurrentUser();
+        if (user == null) {
+            throw new ServiceException("请先登录");
         }
         
-        return page;
+        int limit = pageQueryTemplate.cursorSize(size);
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<Transaction> rows = transactionMapper.selectTransactionSlice(null, type, username,
+                after != null ? after.getCreateTime() : null, after != null ? after.getId() : null, limit + 1);
+        return CursorPage.of(rows, limit, tr -> new SeekCursor(tr.getCreateTime(), tr.getId()));
     }
     
     /**
@@ -5,13 +5,16 @@ import com.baomidou.mybatisplus.core.toolkit.StringUtils;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
 
+import org.example.springboot.cache.RequestIdentityMap;
 import org.example.springboot.entity.User;
 import org.example.springboot.DTO.UserPasswordUpdateDTO;
 import org.example.springboot.enumClass.AccountStatus;
+import org.example.springboot.event.UserChangedEvent;
 import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.util.JwtTokenUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +25,12 @@ public class UserService {
     @Resource
     private UserMapper userMapper;
     
+    @Resource
+    private RequestIdentityMap requestIdentityMap;
+    
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+    
 
     
     @Value("${user.defaultPassword}")
@@ -117,6 +126,8 @@ public class UserService {
         if (userMapper.updateById(user) <= 0) {
             throw new ServiceException("用户更新失败");
         }
+        requestIdentityMap.evictUser(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 
     public User getByUsername(String username) {
@@ -134,6 +145,10 @@ public class UserService {
         if (userMapper.deleteByIds(ids) <= 0) {
             throw new ServiceException("批量删除失败");
         }
+        ids.forEach(id -> {
+            requestIdentityMap.evictUser(id.longValue());
+            eventPublisher.publishEvent(new UserChangedEvent(id.longValue()));
+        });
     }
 
     public List<User> getUserList() {
@@ -145,7 +160,8 @@ public class UserService {
     }
 
     public User getUserById(Long id) {
-        User user = userMapper.selectById(id);
+        // 拦截器、JwtTokenUtils和各业务方法在同一请求内会反复查询当前用户，经请求级缓存只查一次
+        User user = requestIdentityMap.getUser(id);
         if (user == null) {
             throw new ServiceException("用户不存在");
         }
@@ -186,6 +202,7 @@ public class UserService {
         if (userMapper.updateById(user) <= 0) {
             throw new ServiceException("密码修改失败");
         }
+        requestIdentityMap.evictUser(id);
     }
 
     public void forgetPassword(String email, String newPassword) {
@@ -201,11 +218,14 @@ public class UserService {
         if (userMapper.updateById(user) <= 0) {
             throw new ServiceException("密码重置失败");
         }
+        requestIdentityMap.evictUser(user.getId());
     }
 
     public void deleteUserById(Long id) {
         if (userMapper.deleteById(id) <= 0) {
             throw new ServiceException("删除失败");
         }
+        requestIdentityMap.evictUser(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 }
@@ -14,6 +14,7 @@ import org.example.springboot.entity.House;
 import org.example.springboot.entity.LeaseRecord;
 import org.example.springboot.entity.Order;
 import org.example.springboot.entity.User;
+import jakarta.annotation.Resource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
@@ -22,7 +23,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 @Slf4j
 @Component
@@ -31,6 +31,9 @@ public class ContractGenerator {
     private static final String BASE_PATH = "files/contract/";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy年MM月dd日");
 
+    @Resource
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
     static {
         // 确保存储合同的目录存在
         File contractDir = new File(BASE_PATH);
@@ -49,7 +52,7 @@ public class ContractGenerator {
      * @return 生成的合同文件路径
      */
     public String generateContract(LeaseRecord leaseRecord, Order order, House house, User tenant, User landlord) {
-        String fileName = "contract_" + UUID.randomUUID().toString().replace("-", "") + ".pdf";
+        String fileName = "contract_" + snowflakeIdGenerator.nextId() + ".pdf";
         String filePath = BASE_PATH + fileName;
         
         try (PDDocument document = new PDDocument()) {
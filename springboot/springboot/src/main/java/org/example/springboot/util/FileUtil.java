@@ -33,7 +33,6 @@ public class FileUtil {
     public static String saveFile(MultipartFile file, String folderName, String baseDir) {
         String originalFilename = file.getOriginalFilename();
         assert originalFilename != null;
-        long timestamp = System.currentTimeMillis();
         String extension = ""; // 文件扩展名，默认为空
 
         // 获取文件扩展名
@@ -42,7 +41,7 @@ public class FileUtil {
             extension = originalFilename.substring(dotIndex);
         }
 
-        String dFileName = timestamp + extension;
+        String dFileName = SnowflakeIdGenerator.shared().nextId() + extension;
 
         // 获取项目根目录路径
         Path projectRootPath = null;
@@ -0,0 +1,144 @@
+package org.example.springboot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * 共 LEVELS 层，每层 SLOTS 个槽，第 0 层一格为一个刻度，第 n 层一格为 SLOTS^n 个刻度。
+ * 到期时间距当前刻度越远放在越高的层；每当低一层转满一圈，把高一层当前槽中的任务重新放入较低的层，
+ * 到期任务最终都落在第 0 层，随指针走到该槽时取出。添加和推进都与任务总数无关。
+ * 超出最高层范围的任务先放在最高层最远的槽，降层时按剩余时间重新放置。
+ * 推进由调用方定时驱动，添加和推进可在不同线程中调用。
+ *
+ * @param <T> 任务类型
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * 槽中的任务及其到期刻度
+     */
+    private static final class Entry<T> {
+        private final T task;
+        private final long tick;
+
+        private Entry(T task, long tick) {
+            this.task = task;
+            this.tick = tick;
+        }
+    }
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> buckets;
+    /** 已处理到的刻度，该刻度及之前到期的任务都已取出 */
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis 刻度（毫秒），到期任务最多延迟一个刻度取出
+     * @param startMillis 起始时间
+     */
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("刻度必须大于0: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.buckets = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * 添加任务，已到期的任务在下一次推进时取出
+     * @param task 任务
+     * @param deadlineMillis 到期时间
+     */
+    public synchronized void add(T task, long deadlineMillis) {
+        // 向上取整，保证不早于到期时间取出
+        long tick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        place(new Entry<>(task, tick));
+        size++;
+    }
+
+    /**
+     * 推进到指定时间，取出期间到期的任务
+     * @param nowMillis 当前时间
+     * @return 到期的任务，按到期先后排列
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+            List<Entry<T>> bucket = buckets.get((int) (currentTick & SLOT_MASK));
+            if (!bucket.isEmpty()) {
+                for (Entry<T> entry : bucket) {
+                    expired.add(entry.task);
+                }
+                size -= bucket.size();
+                bucket.clear();
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 尚未到期的任务数
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * 指针走到某层一圈的起点时，把上一层对应槽中的任务降层；先处理高层，降下来的任务可继续降到第 0 层
+     */
+    private void cascade() {
+        int top = 0;
+        while (top + 1 < LEVELS && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            List<Entry<T>> bucket = buckets.get(level * SLOTS + slot(currentTick, level));
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Entry<T>> moving = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Entry<T> entry : moving) {
+                place(entry);
+            }
+        }
+    }
+
+    /**
+     * 按距当前刻度的远近选择层和槽
+     */
+    private void place(Entry<T> entry) {
+        long delta = entry.tick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                buckets.get(level * SLOTS + slot(entry.tick, level)).add(entry);
+                return;
+            }
+        }
+        // 超出范围：放在最高层中当前槽的前一格，即最晚降层的位置，降层时重新计算
+        int level = LEVELS - 1;
+        buckets.get(level * SLOTS + ((slot(currentTick, level) - 1) & SLOT_MASK)).add(entry);
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+}
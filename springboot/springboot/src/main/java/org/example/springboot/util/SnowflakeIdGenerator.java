@@ -0,0 +1,180 @@
+package org.example.springboot.util;
+
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake 风格的ID生成器
+ * ID 为 63 位正整数：41 位毫秒时间戳（自 2024-01-01 起）| 10 位节点号 | 12 位序列号，按生成时间递增。
+ * 时间戳和序列号合并保存在一个 AtomicLong 中，生成ID只需一次 CAS，不加锁；
+ * 同一毫秒内序列号用完时直接进位到下一毫秒（预支时间），不等待时钟，时钟回拨时同样继续预支，ID 不重复也不倒退。
+ * 预支超过 MAX_LEAD_MILLIS 后才短暂等待时钟追上。
+ * 同时作为 MyBatis-Plus 的 IdentifierGenerator，IdType.ASSIGN_ID 的实体在插入前即分配主键，可直接批量插入。
+ */
+@Component
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnowflakeIdGenerator.class);
+
+    /** 2024-01-01T00:00:00Z */
+    public static final long EPOCH = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    /** 允许预支的最长时间（毫秒） */
+    private static final long MAX_LEAD_MILLIS = 1000;
+    /** 订单号中ID部分的固定长度，63 位正整数的 36 进制最多 13 位 */
+    private static final int ORDER_NO_DIGITS = 13;
+
+    private static volatile SnowflakeIdGenerator shared;
+
+    private final long nodeId;
+    /** 毫秒时钟 */
+    private final LongSupplier clock;
+    /** 高位为最后使用的时间戳（相对 EPOCH），低 12 位为该毫秒已用的序列号 */
+    private final AtomicLong state = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+
+    /**
+     * @param nodeId 节点号 0~1023，多实例部署时每个实例必须不同；小于 0 时由网卡地址和进程号推算
+     */
+    @Autowired
+    public SnowflakeIdGenerator(@Value("${id-generator.node-id:-1}") long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock 毫秒时钟，测试时用于模拟时钟停滞和回拨
+     */
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号超出范围: " + nodeId);
+        }
+        this.nodeId = nodeId >= 0 ? nodeId : deriveNodeId();
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        shared = this;
+        LOGGER.info("ID生成器初始化完成，节点号{}", nodeId);
+    }
+
+    /**
+     * 供静态工具类使用的实例
+     */
+    public static SnowflakeIdGenerator shared() {
+        SnowflakeIdGenerator generator = shared;
+        if (generator == null) {
+            throw new IllegalStateException("ID生成器尚未初始化");
+        }
+        return generator;
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long now = clock.getAsLong() - EPOCH;
+            long last = current >>> SEQUENCE_BITS;
+            // 时钟前进时从新毫秒的 0 号开始，否则序列号加一，溢出时自然进位到下一毫秒
+            long next = now > last ? now << SEQUENCE_BITS : current + 1;
+            if ((next >>> SEQUENCE_BITS) - now > MAX_LEAD_MILLIS) {
+                waits.incrementAndGet();
+                LockSupport.parkNanos(100_000);
+                continue;
+            }
+            if (state.compareAndSet(current, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | nodeId << SEQUENCE_BITS
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * 生成订单号："ORD" + 定长 36 进制ID，共 16 位，按生成时间排序
+     */
+    public String nextOrderNo() {
+        String digits = Long.toString(nextId(), 36).toUpperCase();
+        StringBuilder orderNo = new StringBuilder(3 + ORDER_NO_DIGITS).append("ORD");
+        for (int i = digits.length(); i < ORDER_NO_DIGITS; i++) {
+            orderNo.append('0');
+        }
+        return orderNo.append(digits).toString();
+    }
+
+    @Override
+    public Long nextId(Object entity) {
+        return nextId();
+    }
+
+    /**
+     * 解析ID中的生成时间（毫秒时间戳）
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    /**
+     * 解析ID中的节点号
+     */
+    public static long nodeIdOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    public Map<String, Object> getStatistics() {
+        long last = state.get() >>> SEQUENCE_BITS;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("lastTimestamp", last == 0 ? 0 : last + EPOCH);
+        stats.put("leadMillis", Math.max(0, last - (clock.getAsLong() - EPOCH)));
+        stats.put("waits", waits.get());
+        return stats;
+    }
+
+    /**
+     * 未配置节点号时由网卡地址和进程号推算，多实例部署时应显式配置，避免推算结果相同
+     */
+    private static long deriveNodeId() {
+        long hash = ManagementFactory.getRuntimeMXBean().getPid();
+        try {
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces != null && interfaces.hasMoreElements()) {
+                byte[] mac = interfaces.nextElement().getHardwareAddress();
+                if (mac != null) {
+                    for (byte b : mac) {
+                        hash = hash * 31 + (b & 0xFF);
+                    }
+                }
+            }
+            hash = hash * 31 + InetAddress.getLocalHost().getHostName().hashCode();
+        } catch (Exception e) {
+            LOGGER.warn("读取网卡地址失败，仅按进程号推算节点号: {}", e.getMessage());
+        }
+        hash ^= hash >>> 32;
+        hash ^= hash >>> 16;
+        return hash & MAX_NODE_ID;
+    }
+}
@@ -0,0 +1,77 @@
+-- 数据库结构升级脚本，按顺序执行
+
+-- 列表键集分页：按 (create_time, id) 倒序定位
+ALTER TABLE `house` ADD INDEX `idx_house_create_time_id` (`create_time`, `id`);
+ALTER TABLE `order` ADD INDEX `idx_order_create_time_id` (`create_time`, `id`);
+ALTER TABLE `transaction` ADD INDEX `idx_transaction_create_time_id` (`create_time`, `id`);
+
+-- 房屋经纬度，用于附近房源检索和地图聚合
+ALTER TABLE `house` ADD COLUMN `latitude` DECIMAL(10, 7) NULL COMMENT '纬度' AFTER `address`;
+ALTER TABLE `house` ADD COLUMN `longitude` DECIMAL(10, 7) NULL COMMENT '经度' AFTER `latitude`;
+
+-- 保存的搜索及新房源提醒
+CREATE TABLE IF NOT EXISTS `saved_search` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `name` VARCHAR(64) NULL COMMENT '名称',
+    `keyword` VARCHAR(100) NULL COMMENT '关键词',
+    `min_price` DECIMAL(10, 2) NULL COMMENT '最低价格',
+    `max_price` DECIMAL(10, 2) NULL COMMENT '最高价格',
+    `type_id` BIGINT NULL COMMENT '房屋类型ID',
+    `facilities` VARCHAR(255) NULL COMMENT '必须具备的配套设施，逗号分隔',
+    `notify_enabled` TINYINT NOT NULL DEFAULT 1 COMMENT '是否提醒(0:否,1:是)',
+    `create_time` DATETIME NULL COMMENT '创建时间',
+    `update_time` DATETIME NULL COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    INDEX `idx_saved_search_user` (`user_id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '保存的搜索';
+
+CREATE TABLE IF NOT EXISTS `search_alert` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `saved_search_id` BIGINT NOT NULL COMMENT '保存的搜索ID',
+    `house_id` BIGINT NOT NULL COMMENT '房屋ID',
+    `read_status` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已读(0:未读,1:已读)',
+    `create_time` DATETIME NULL COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    INDEX `idx_search_alert_user` (`user_id`, `read_status`, `id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '房源提醒';
+
+-- 房屋浏览量、收藏数（计数先在内存累加，定时批量写入）
+CREATE TABLE IF NOT EXISTS `house_stat` (
+    `house_id` BIGINT NOT NULL COMMENT '房屋ID',
+    `view_count` BIGINT NOT NULL DEFAULT 0 COMMENT '浏览量',
+    `favorite_count` BIGINT NOT NULL DEFAULT 0 COMMENT '收藏数',
+    `update_time` DATETIME NULL COMMENT '更新时间',
+    PRIMARY KEY (`house_id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '房屋计数';
+
+CREATE TABLE IF NOT EXISTS `house_favorite` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `house_id` BIGINT NOT NULL COMMENT '房屋ID',
+    `create_time` DATETIME NULL COMMENT '收藏时间',
+    PRIMARY KEY (`id`),
+    UNIQUE INDEX `uk_house_favorite_user_house` (`user_id`, `house_id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '房屋收藏';
+
+-- 房屋乐观锁版本号：状态变更按版本号比较并更新
+ALTER TABLE `house` ADD COLUMN `version` INT NOT NULL DEFAULT 0 COMMENT '版本号' AFTER `update_time`;
+
+-- 待支付订单超时取消：启动时只按索引读取待支付订单重建时间轮
+ALTER TABLE `order` ADD INDEX `idx_order_status_create_time` (`status`, `create_time`);
+
+-- 合同生成任务（事务发件箱）：确认订单时与租赁记录在同一事务中写入，异步生成合同
+CREATE TABLE IF NOT EXISTS `contract_job` (
+    `id` BIGINT NOT NULL COMMENT 'ID（由ID生成器分配）',
+    `lease_record_id` BIGINT NOT NULL COMMENT '租赁记录ID',
+    `status` TINYINT NOT NULL DEFAULT 0 COMMENT '状态(0:待执行,1:执行中,2:已完成,3:已放弃)',
+    `attempts` INT NOT NULL DEFAULT 0 COMMENT '已尝试次数',
+    `next_run_time` DATETIME NOT NULL COMMENT '最早执行时间',
+    `last_error` VARCHAR(500) NULL COMMENT '最近一次失败原因',
+    `create_time` DATETIME NULL COMMENT '创建时间',
+    `update_time` DATETIME NULL COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    INDEX `idx_contract_job_status_next_run` (`status`, `next_run_time`),
+    INDEX `idx_contract_job_lease_record` (`lease_record_id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '合同生成任务';
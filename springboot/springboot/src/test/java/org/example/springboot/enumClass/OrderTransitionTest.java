@@ -0,0 +1,53 @@
+package org.example.springboot.enumClass;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderTransitionTest {
+
+    @Test
+    void tableMatchesOrderLifecycle() {
+        assertTransition(OrderTransition.PAY, OrderStatus.WAITING_PAYMENT, OrderStatus.PAID_WAITING_CONFIRM,
+                OrderTransition.Actor.TENANT, false);
+        assertTransition(OrderTransition.CONFIRM, OrderStatus.PAID_WAITING_CONFIRM, OrderStatus.CONFIRMED,
+                OrderTransition.Actor.LANDLORD, true);
+        assertTransition(OrderTransition.CANCEL, OrderStatus.WAITING_PAYMENT, OrderStatus.CANCELED,
+                OrderTransition.Actor.TENANT, false);
+        assertTransition(OrderTransition.REFUND, OrderStatus.PAID_WAITING_CONFIRM, OrderStatus.REFUNDED,
+                OrderTransition.Actor.TENANT, false);
+        assertEquals(4, OrderTransition.values().length);
+    }
+
+    @Test
+    void terminalStatusesHaveNoOutgoingTransition() {
+        Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+        Set<OrderStatus> targets = EnumSet.noneOf(OrderStatus.class);
+        for (OrderTransition transition : OrderTransition.values()) {
+            assertNotEquals(transition.getFrom(), transition.getTo(), transition.name());
+            sources.add(transition.getFrom());
+            targets.add(transition.getTo());
+        }
+        assertEquals(EnumSet.of(OrderStatus.WAITING_PAYMENT, OrderStatus.PAID_WAITING_CONFIRM), sources);
+        // 已确认、已取消、已退款为终态，不能再流转；待支付只能由下单产生
+        for (OrderStatus terminal : EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.CANCELED, OrderStatus.REFUNDED)) {
+            assertFalse(sources.contains(terminal), terminal.name());
+            assertTrue(targets.contains(terminal), terminal.name());
+        }
+        assertFalse(targets.contains(OrderStatus.WAITING_PAYMENT));
+    }
+
+    private static void assertTransition(OrderTransition transition, OrderStatus from, OrderStatus to,
+                                         OrderTransition.Actor actor, boolean adminAllowed) {
+        assertEquals(from, transition.getFrom(), transition.name());
+        assertEquals(to, transition.getTo(), transition.name());
+        assertEquals(actor, transition.getActor(), transition.name());
+        assertEquals(adminAllowed, transition.isAdminAllowed(), transition.name());
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.springboot.search;
+
+import org.example.springboot.DTO.HouseClusterDTO;
+import org.example.springboot.entity.House;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HouseClusterIndexTest {
+
+    @Test
+    void viewportCrossingAntimeridianCoversBothSides() {
+        HouseClusterIndex index = new HouseClusterIndex();
+        index.rebuild(List.of(
+                house(1L, -17.7, 179.6),
+                house(2L, -17.8, -179.7),
+                house(3L, -17.8, 170.0),
+                house(4L, -17.8, -170.0)));
+
+        for (int zoom = 0; zoom <= 22; zoom++) {
+            // 经度 179 到 -179（跨越 180 度经线）只含 1、2 号；缩放级别很小时一个瓦片较宽，同时带上 3、4 号
+            assertEquals(zoom <= 3 ? 4 : 2, total(index.clusters(-18.5, 179.0, -17.0, -179.0, zoom)), "zoom=" + zoom);
+            assertEquals(zoom <= 3 ? 2 : 1, total(index.clusters(-18.5, 179.0, -17.0, 180.0, zoom)), "zoom=" + zoom);
+        }
+        // 同一视野不跨越经线时为 -179 到 179 之间
+        assertEquals(2, total(index.clusters(-18.5, -179.0, -17.0, 179.0, 10)));
+    }
+
+    private static int total(List<HouseClusterDTO> clusters) {
+        return clusters.stream().mapToInt(HouseClusterDTO::getCount).sum();
+    }
+
+    private static House house(Long id, double latitude, double longitude) {
+        House house = new House();
+        house.setId(id);
+        house.setStatus(1);
+        house.setPrice(new BigDecimal("3000"));
+        house.setLatitude(BigDecimal.valueOf(latitude));
+        house.setLongitude(BigDecimal.valueOf(longitude));
+        return house;
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.springboot.search;
+
+import org.example.springboot.entity.House;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HouseFuzzyIndexTest {
+
+    @Test
+    void myersDistanceMatchesDynamicProgramming() {
+        Random random = new Random(42);
+        String alphabet = "abcd朝阳区";
+        for (int round = 0; round < 20000; round++) {
+            String pattern = randomText(random, alphabet, 1 + random.nextInt(32));
+            String text = randomText(random, alphabet, random.nextInt(60));
+            int expected = substringDistance(pattern, text);
+            int actual = HouseFuzzyIndex.searchDistance(pattern, HouseFuzzyIndex.patternMasks(pattern), text);
+            assertEquals(expected, actual, () -> "pattern=" + pattern + ", text=" + text);
+        }
+    }
+
+    @Test
+    void myersDistanceEdgeCases() {
+        assertEquals(3, distance("abc", ""));
+        assertEquals(0, distance("abc", "xxabcxx"));
+        assertEquals(1, distance("abc", "xxabxx"));
+        assertEquals(1, distance("abcd", "abxd"));
+        String full = "abcdefghijklmnopqrstuvwxyz012345";
+        assertEquals(32, full.length());
+        assertEquals(0, distance(full, "--" + full + "--"));
+        assertEquals(2, distance(full, full.replace('k', '_').replace('t', '_')));
+    }
+
+    @Test
+    void matchToleratesTyposByQueryLength() {
+        HouseFuzzyIndex index = new HouseFuzzyIndex();
+        index.rebuild(List.of(
+                house(1L, "朝阳区精装两居室", "北京市朝阳区望京街"),
+                house(2L, "海淀区一居室", "北京市海淀区中关村"),
+                house(3L, "朝区小户型", "某地"),
+                house(4L, "Sunny Apartment", "Main Street")));
+
+        // 2 个字符须精确包含
+        assertEquals(Map.of(1L, 0), index.match("朝阳"));
+        // 3 个字符允许 1 处错误：中间字写错、中间字漏写都能通过跳跃二元组召回
+        Map<Long, Integer> typo = index.match("朝杨区");
+        assertEquals(1, typo.get(1L));
+        assertEquals(1, typo.get(3L));
+        assertFalse(typo.containsKey(2L));
+        // 6 个字符以上允许 2 处错误，大小写不敏感
+        assertEquals(Map.of(4L, 2), index.match("SUNNI APARTMNT"));
+        assertTrue(index.match("完全无关的查询").isEmpty());
+    }
+
+    @Test
+    void matchOrdersByDistanceThenNewestId() {
+        HouseFuzzyIndex index = new HouseFuzzyIndex();
+        index.rebuild(List.of(
+                house(1L, "望京精装", ""),
+                house(2L, "望金精装", ""),
+                house(3L, "望京精装修", "")));
+
+        List<Long> ids = new ArrayList<>(index.match("望京精装").keySet());
+        assertEquals(List.of(3L, 1L, 2L), ids);
+    }
+
+    @Test
+    void upsertAndRemoveUpdateCandidates() {
+        HouseFuzzyIndex index = new HouseFuzzyIndex();
+        index.rebuild(List.of(house(1L, "望京精装", "")));
+        index.upsert(house(1L, "中关村公寓", ""));
+        assertTrue(index.match("望京精装").isEmpty());
+        assertEquals(Map.of(1L, 0), index.match("中关村"));
+        index.remove(1L);
+        assertTrue(index.match("中关村").isEmpty());
+    }
+
+    @Test
+    void supportsRequiresTwoNormalizedCharacters() {
+        assertFalse(HouseFuzzyIndex.supports("朝"));
+        assertFalse(HouseFuzzyIndex.supports("，。 "));
+        assertTrue(HouseFuzzyIndex.supports("朝阳"));
+    }
+
+    private static int distance(String pattern, String text) {
+        return HouseFuzzyIndex.searchDistance(pattern, HouseFuzzyIndex.patternMasks(pattern), text);
+    }
+
+    /**
+     * 模式串与文本任意子串的最小编辑距离（动态规划，第 0 行全为 0）
+     */
+    private static int substringDistance(String pattern, String text) {
+        int m = pattern.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+        for (int j = 1; j <= text.length(); j++) {
+            current[0] = 0;
+            for (int i = 1; i <= m; i++) {
+                int cost = pattern.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            }
+            best = Math.min(best, current[m]);
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return best;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static House house(Long id, String title, String address) {
+        House house = new House();
+        house.setId(id);
+        house.setTitle(title);
+        house.setAddress(address);
+        return house;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.springboot.search;
+
+import org.example.springboot.entity.House;
+import org.example.springboot.event.HouseChangedEvent;
+import org.example.springboot.mapper.HouseMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HouseIndexUpdaterTest {
+
+    /**
+     * 以房屋ID -> 标题记录内容的索引；第一次构建时模拟一个在读取快照之后提交的变更
+     */
+    private static final class RecordingIndex implements HouseIndex {
+        private final Map<Long, String> titles = new HashMap<>();
+        private Runnable duringRebuild;
+
+        @Override
+        public void rebuild(List<House> houses) {
+            if (duringRebuild != null) {
+                duringRebuild.run();
+                duringRebuild = null;
+            }
+            titles.clear();
+            houses.forEach(this::upsert);
+        }
+
+        @Override
+        public void upsert(House house) {
+            titles.put(house.getId(), house.getTitle());
+        }
+
+        @Override
+        public void remove(Long houseId) {
+            titles.remove(houseId);
+        }
+    }
+
+    @Test
+    void changesCommittedDuringRebuildAreReappliedAfterIt() {
+        HouseMapper houseMapper = mock(HouseMapper.class);
+        RecordingIndex index = new RecordingIndex();
+        HouseIndexUpdater updater = new HouseIndexUpdater();
+        ReflectionTestUtils.setField(updater, "houseMapper", houseMapper);
+        ReflectionTestUtils.setField(updater, "houseIndexes", List.of(index));
+
+        // 快照中 1 号为旧标题、2 号尚存；构建期间 1 号被修改、2 号被删除
+        when(houseMapper.selectList(isNull())).thenReturn(List.of(house(1L, "旧标题"), house(2L, "待删除")));
+        when(houseMapper.selectById(1L)).thenReturn(house(1L, "新标题"));
+        when(houseMapper.selectById(2L)).thenReturn(null);
+        when(houseMapper.selectBatchIds(anyList())).thenAnswer(invocation -> {
+            List<?> ids = invocation.getArgument(0);
+            return ids.contains(1L) ? List.of(house(1L, "新标题")) : List.of();
+        });
+        index.duringRebuild = () -> {
+            updater.onHouseChanged(new HouseChangedEvent(1L));
+            updater.onHouseChanged(new HouseChangedEvent(2L));
+        };
+
+        updater.rebuildAll();
+
+        assertEquals("新标题", index.titles.get(1L));
+        assertFalse(index.titles.containsKey(2L));
+    }
+
+    private static House house(Long id, String title) {
+        House house = new House();
+        house.setId(id);
+        house.setTitle(title);
+        return house;
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.springboot.search;
+
+import org.example.springboot.entity.House;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HouseSearchIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void titleFilterMatchesSubstringsOfAnyScript() {
+        HouseSearchIndex index = new HouseSearchIndex();
+        index.rebuild(List.of(
+                house(1L, "朝阳区精装两居室 300平"),
+                house(2L, "Sunny Apartment 30F"),
+                house(3L, "海淀区一居室"),
+                house(4L, null)));
+
+        assertEquals(List.of(2L, 1L), titleSearch(index, "30"));
+        assertEquals(List.of(1L), titleSearch(index, "300"));
+        assertEquals(List.of(2L), titleSearch(index, "30f"));
+        assertEquals(List.of(2L), titleSearch(index, "SUNNY APART"));
+        assertEquals(List.of(3L, 1L), titleSearch(index, "居室"));
+        assertEquals(List.of(2L, 1L), titleSearch(index, " "));
+        assertEquals(List.of(1L), titleSearch(index, "朝"));
+        assertTrue(titleSearch(index, "阳区两").isEmpty());
+        assertTrue(titleSearch(index, "不存在").isEmpty());
+    }
+
+    @Test
+    void titleFilterCombinesWithOtherConditionsAndFollowsUpdates() {
+        HouseSearchIndex index = new HouseSearchIndex();
+        House rented = house(1L, "望京两居室");
+        rented.setStatus(2);
+        index.rebuild(List.of(rented, house(2L, "望京一居室")));
+
+        HouseFilter available = HouseFilter.builder().status(1).title("望京").build();
+        assertEquals(List.of(2L), index.search(null, available, HouseSearchIndex.SortMode.NEWEST));
+
+        index.upsert(house(2L, "中关村一居室"));
+        assertTrue(index.search(null, available, HouseSearchIndex.SortMode.NEWEST).isEmpty());
+        assertEquals(List.of(2L), titleSearch(index, "中关村"));
+        index.remove(2L);
+        assertTrue(titleSearch(index, "中关村").isEmpty());
+        assertEquals(List.of(1L), index.searchAfter(null, HouseFilter.builder().title("两居").build(), null, null, 10));
+    }
+
+    @Test
+    void titleFilterAgreesWithContains() {
+        Random random = new Random(11);
+        String alphabet = "aB3 朝阳区0";
+        List<House> houses = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            houses.add(house(id, randomText(random, alphabet, random.nextInt(12))));
+        }
+        HouseSearchIndex index = new HouseSearchIndex();
+        index.rebuild(houses);
+        for (int round = 0; round < 500; round++) {
+            String query = randomText(random, alphabet, 1 + random.nextInt(4));
+            HouseFilter filter = HouseFilter.builder().title(query).build();
+            List<Long> expected = new ArrayList<>();
+            for (int i = houses.size() - 1; i >= 0; i--) {
+                if (filter.matchesTitle(houses.get(i).getTitle())) {
+                    expected.add(houses.get(i).getId());
+                }
+            }
+            assertEquals(expected, index.search(null, filter, HouseSearchIndex.SortMode.NEWEST), query);
+        }
+    }
+
+    private static List<Long> titleSearch(HouseSearchIndex index, String title) {
+        return index.search(null, HouseFilter.builder().title(title).build(), HouseSearchIndex.SortMode.NEWEST);
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static House house(Long id, String title) {
+        House house = new House();
+        house.setId(id);
+        house.setTitle(title);
+        house.setStatus(1);
+        house.setCreateTime(BASE.plusMinutes(id));
+        return house;
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.entity.Order;
+import org.example.springboot.entity.User;
+import org.example.springboot.enumClass.OrderStatus;
+import org.example.springboot.enumClass.OrderTransition;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.OrderMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStateMachineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+    private static final long TENANT_ID = 10L;
+    private static final long LANDLORD_ID = 20L;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @InjectMocks
+    private OrderStateMachine orderStateMachine;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaUpdateWrapper 依据表信息解析列名
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Order.class);
+    }
+
+    @Test
+    void transitionGuardsOnSourceStatusAndActor() {
+        Order paid = order(OrderStatus.PAID_WAITING_CONFIRM);
+        when(orderMapper.update(isNull(), any())).thenReturn(1);
+        when(orderMapper.selectById(1L)).thenReturn(paid);
+
+        Order result = orderStateMachine.transition(1L, OrderTransition.PAY, user(TENANT_ID, "USER"), NOW, null);
+
+        assertSame(paid, result);
+        LambdaUpdateWrapper<Order> wrapper = capturedUpdate();
+        assertTrue(wrapper.getSqlSet().contains("status="));
+        assertTrue(wrapper.getSqlSet().contains("update_time="));
+        String where = wrapper.getSqlSegment();
+        assertTrue(where.contains("id ="), where);
+        assertTrue(where.contains("status ="), where);
+        assertTrue(where.contains("tenant_id ="), where);
+        assertFalse(where.contains("landlord_id"), where);
+        assertTrue(wrapper.getParamNameValuePairs().values().containsAll(List.of(
+                OrderStatus.PAID_WAITING_CONFIRM.getValue(), OrderStatus.WAITING_PAYMENT.getValue(), TENANT_ID, NOW)));
+    }
+
+    @Test
+    void landlordTransitionGuardsOnLandlordAndAppliesExtraColumns() {
+        when(orderMapper.update(isNull(), any())).thenReturn(1);
+
+        orderStateMachine.transition(1L, OrderTransition.CONFIRM, user(LANDLORD_ID, "LANDLORD"), NOW,
+                w -> w.set(Order::getPaymentMethod, "ALIPAY"));
+
+        LambdaUpdateWrapper<Order> wrapper = capturedUpdate();
+        assertTrue(wrapper.getSqlSegment().contains("landlord_id ="));
+        assertFalse(wrapper.getSqlSegment().contains("tenant_id"));
+        assertTrue(wrapper.getSqlSet().contains("payment_method="));
+        assertTrue(wrapper.getParamNameValuePairs().values().contains(OrderStatus.CONFIRMED.getValue()));
+    }
+
+    @Test
+    void adminSkipsActorGuardOnlyWhereAllowed() {
+        when(orderMapper.update(isNull(), any())).thenReturn(1);
+        User admin = user(1L, "ADMIN");
+
+        orderStateMachine.transition(1L, OrderTransition.CONFIRM, admin, NOW, null);
+        String confirmWhere = capturedUpdate().getSqlSegment();
+        assertFalse(confirmWhere.contains("landlord_id"), confirmWhere);
+        assertTrue(confirmWhere.contains("status ="), confirmWhere);
+
+        orderStateMachine.transition(2L, OrderTransition.REFUND, admin, NOW, null);
+        ArgumentCaptor<LambdaUpdateWrapper<Order>> captor = updateCaptor();
+        verify(orderMapper, times(2)).update(isNull(), captor.capture());
+        assertTrue(captor.getAllValues().get(1).getSqlSegment().contains("tenant_id ="));
+    }
+
+    @Test
+    void missingOrderIsReported() {
+        when(orderMapper.update(isNull(), any())).thenReturn(0);
+        when(orderMapper.selectById(1L)).thenReturn(null);
+
+        ServiceException e = assertThrows(ServiceException.class,
+                () -> orderStateMachine.transition(1L, OrderTransition.PAY, user(TENANT_ID, "USER"), NOW, null));
+        assertEquals("订单不存在", e.getMessage());
+    }
+
+    @Test
+    void otherUsersOrderIsRejected() {
+        when(orderMapper.update(isNull(), any())).thenReturn(0);
+        when(orderMapper.selectById(1L)).thenReturn(order(OrderStatus.WAITING_PAYMENT));
+
+        ServiceException tenant = assertThrows(ServiceException.class,
+                () -> orderStateMachine.transition(1L, OrderTransition.PAY, user(99L, "USER"), NOW, null));
+        assertEquals("无权操作此订单", tenant.getMessage());
+        // 租客不能执行房东的确认
+        ServiceException landlord = assertThrows(ServiceException.class,
+                () -> orderStateMachine.transition(1L, OrderTransition.CONFIRM, user(TENANT_ID, "USER"), NOW, null));
+        assertEquals("无权操作此订单", landlord.getMessage());
+        // 管理员不能代替租客取消
+        ServiceException admin = assertThrows(ServiceException.class,
+                () -> orderStateMachine.transition(1L, OrderTransition.CANCEL, user(1L, "ADMIN"), NOW, null));
+        assertEquals("无权操作此订单", admin.getMessage());
+    }
+
+    @Test
+    void wrongStatusIsReportedWithAction() {
+        when(orderMapper.update(isNull(), any())).thenReturn(0);
+        when(orderMapper.selectById(1L)).thenReturn(order(OrderStatus.CANCELED));
+
+        ServiceException pay = assertThrows(ServiceException.class,
+                () -> orderStateMachine.transition(1L, OrderTransition.PAY, user(TENANT_ID, "USER"), NOW, null));
+        assertEquals("订单状态不正确，无法支付", pay.getMessage());
+        ServiceException confirm = assertThrows(ServiceException.class,
+                () -> orderStateMachine.transition(1L, OrderTransition.CONFIRM, user(1L, "ADMIN"), NOW, null));
+        assertEquals("订单状态不正确，无法确认", confirm.getMessage());
+    }
+
+    @Test
+    void systemTransitionsGuardOnStatusOnly() {
+        when(orderMapper.update(isNull(), any())).thenReturn(1, 0, 2);
+
+        assertTrue(orderStateMachine.transitionAsSystem(1L, OrderTransition.CANCEL, NOW));
+        assertFalse(orderStateMachine.transitionAsSystem(1L, OrderTransition.CANCEL, NOW));
+        assertEquals(2, orderStateMachine.transitionAllAsSystem(List.of(1L, 2L, 3L), OrderTransition.CANCEL, NOW));
+
+        ArgumentCaptor<LambdaUpdateWrapper<Order>> captor = updateCaptor();
+        verify(orderMapper, times(3)).update(isNull(), captor.capture());
+        for (LambdaUpdateWrapper<Order> wrapper : captor.getAllValues()) {
+            String where = wrapper.getSqlSegment();
+            assertTrue(where.contains("status ="), where);
+            assertFalse(where.contains("tenant_id") || where.contains("landlord_id"), where);
+        }
+        assertTrue(captor.getAllValues().get(2).getSqlSegment().contains("id IN"));
+        verify(orderMapper, never()).selectById(any());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> cancel = (Map<String, Object>) orderStateMachine.getStatistics().get("CANCEL");
+        assertEquals(3L, cancel.get("succeeded"));
+        assertEquals(2L, cancel.get("conflicts"));
+    }
+
+    @Test
+    void emptyBatchDoesNotQuery() {
+        assertEquals(0, orderStateMachine.transitionAllAsSystem(List.of(), OrderTransition.CANCEL, NOW));
+        verifyNoInteractions(orderMapper);
+    }
+
+    private LambdaUpdateWrapper<Order> capturedUpdate() {
+        ArgumentCaptor<LambdaUpdateWrapper<Order>> captor = updateCaptor();
+        verify(orderMapper).update(isNull(), captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentCaptor<LambdaUpdateWrapper<Order>> updateCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(LambdaUpdateWrapper.class);
+    }
+
+    private static Order order(OrderStatus status) {
+        Order order = new Order();
+        order.setId(1L);
+        order.setTenantId(TENANT_ID);
+        order.setLandlordId(LANDLORD_ID);
+        order.setStatus(status.getValue());
+        return order;
+    }
+
+    private static User user(Long id, String roleCode) {
+        User user = new User();
+        user.setId(id);
+        user.setRoleCode(roleCode);
+        return user;
+    }
+}
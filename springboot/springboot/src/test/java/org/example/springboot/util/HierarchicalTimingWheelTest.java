@@ -0,0 +1,140 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+    /** 第 n 层一格的刻度数 */
+    private static final long LEVEL1 = 64;
+    private static final long LEVEL2 = 64 * 64;
+    private static final long LEVEL3 = 64 * 64 * 64;
+    private static final long RANGE = 64L * 64 * 64 * 64;
+
+    @Test
+    void expiresLevelZeroTasksAtTheirTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 0);
+        wheel.add("a", 30);
+        wheel.add("b", 31);
+        wheel.add("c", 50);
+        assertEquals(3, wheel.size());
+
+        assertTrue(wheel.advance(29).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(39));
+        // 到期时间向上取整到刻度，不会提前取出
+        assertEquals(List.of("b"), wheel.advance(40));
+        assertEquals(List.of("c"), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromEachLevelDownToLevelZero() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 0);
+        Map<String, Long> ticks = Map.of(
+                "level1", LEVEL1 + 5,
+                "level2", LEVEL2 + LEVEL1 * 3 + 7,
+                "level3", LEVEL3 + LEVEL2 * 2 + LEVEL1 + 1,
+                "level3-boundary", LEVEL3 * 5);
+        ticks.forEach((task, tick) -> wheel.add(task, tick * TICK));
+
+        for (Map.Entry<String, Long> entry : sortedByValue(ticks)) {
+            long tick = entry.getValue();
+            assertTrue(wheel.advance((tick - 1) * TICK).isEmpty(), entry.getKey() + " 提前到期");
+            assertEquals(List.of(entry.getKey()), wheel.advance(tick * TICK));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void placesOutOfRangeTasksAndReplacesThemOnCascade() {
+        long start = 12345;
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, start);
+        long far = start + RANGE * 3 + 777;
+        long edge = start + RANGE - 1;
+        wheel.add("far", far);
+        wheel.add("edge", edge);
+
+        assertEquals(List.of("edge"), wheel.advance(edge));
+        assertTrue(wheel.advance(start + RANGE * 2).isEmpty());
+        assertTrue(wheel.advance(far - 1).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(far));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlinesFireOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 1000);
+        wheel.add("past", 0);
+        wheel.add("now", 1000);
+        assertEquals(2, wheel.size());
+        assertTrue(wheel.advance(1000).isEmpty());
+        assertEquals(List.of("past", "now"), wheel.advance(1010));
+    }
+
+    @Test
+    void randomizedDeadlinesMatchBruteForce() {
+        Random random = new Random(7);
+        long start = 987_654;
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1, start);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        // 实际到期刻度：已过期的任务在添加后的下一个刻度取出
+        Map<Integer, Long> dueTicks = new HashMap<>();
+        long now = start;
+        int next = 0;
+        for (int step = 0; step < 2000; step++) {
+            int adds = random.nextInt(5);
+            for (int i = 0; i < adds; i++) {
+                // 覆盖各层和超出范围的跨度
+                long span = switch (random.nextInt(5)) {
+                    case 0 -> random.nextInt((int) LEVEL1);
+                    case 1 -> random.nextInt((int) LEVEL2);
+                    case 2 -> random.nextInt((int) LEVEL3);
+                    case 3 -> (long) (random.nextDouble() * RANGE);
+                    default -> RANGE + (long) (random.nextDouble() * RANGE);
+                };
+                long deadline = now + span - 3;
+                wheel.add(next, deadline);
+                deadlines.put(next, deadline);
+                dueTicks.put(next, Math.max(deadline, now + 1));
+                next++;
+            }
+            now += 1 + (long) (random.nextDouble() * random.nextDouble() * LEVEL3);
+            List<Integer> expired = wheel.advance(now);
+            long current = now;
+            long previousTick = Long.MIN_VALUE;
+            for (Integer task : expired) {
+                deadlines.remove(task);
+                long tick = dueTicks.remove(task);
+                assertTrue(tick <= current, "任务" + task + "提前到期");
+                assertTrue(tick >= previousTick, "到期顺序错误");
+                previousTick = tick;
+            }
+            for (Map.Entry<Integer, Long> pending : dueTicks.entrySet()) {
+                assertTrue(pending.getValue() > current, "任务" + pending.getKey() + "到期未取出");
+            }
+            assertEquals(deadlines.size(), wheel.size());
+        }
+        assertTrue(next > 1000);
+    }
+
+    @Test
+    void rejectsNonPositiveTick() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<String>(0, 0));
+    }
+
+    private static List<Map.Entry<String, Long>> sortedByValue(Map<String, Long> map) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(map.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        return entries;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID生成吞吐量的简单计时基准，不引入 JMH，只输出结果不做断言；默认构建不运行，使用 mvn test -Pbenchmark 运行。
+ * 每轮生成的ID不到一秒的预支额度，测到的是预支范围内的突发吞吐，不是受每毫秒 4096 个限制的持续吞吐（约每秒 400 万）。
+ */
+@Tag("benchmark")
+class SnowflakeIdGeneratorBenchmarkTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnowflakeIdGeneratorBenchmarkTest.class);
+
+    private static final int WARMUP = 200_000;
+    private static final int IDS = 2_000_000;
+
+    @Test
+    void singleThreadBurstThroughput() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink ^= generator.nextId();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < IDS; i++) {
+            sink ^= generator.nextId();
+        }
+        report("单线程", IDS, System.nanoTime() - start, sink);
+    }
+
+    @Test
+    void multiThreadBurstThroughput() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(2);
+        int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        int perThread = IDS / threads;
+        for (int i = 0; i < WARMUP; i++) {
+            generator.nextId();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    long sink = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        sink ^= generator.nextId();
+                    }
+                    return sink;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            long sink = 0;
+            for (Future<Long> future : futures) {
+                sink ^= future.get(60, TimeUnit.SECONDS);
+            }
+            report(threads + "线程", (long) perThread * threads, System.nanoTime() - begin, sink);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void report(String name, long count, long nanos, long sink) {
+        long rate = count * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+        LOGGER.info("{}生成{}个ID，耗时{}ms，突发吞吐{}个/秒（校验位{}）",
+                name, count, TimeUnit.NANOSECONDS.toMillis(nanos), rate, sink & 1);
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long BASE = SnowflakeIdGenerator.EPOCH + 1_000_000L;
+    private static final int SEQUENCES = 4096;
+
+    @Test
+    void sequenceExhaustionCarriesIntoNextMillisecond() {
+        AtomicLong now = new AtomicLong(BASE);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, now::get);
+
+        long previous = -1;
+        for (int i = 0; i < SEQUENCES * 3; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            // 时钟停在 BASE，每用完 4096 个序列号预支一毫秒，序列号从 0 重新开始
+            assertEquals(BASE + i / SEQUENCES, SnowflakeIdGenerator.timestampOf(id));
+            assertEquals(i % SEQUENCES, id & (SEQUENCES - 1));
+            assertEquals(7, SnowflakeIdGenerator.nodeIdOf(id));
+            previous = id;
+        }
+        assertEquals(2L, generator.getStatistics().get("leadMillis"));
+
+        // 时钟追上后从新毫秒的 0 号开始
+        now.set(BASE + 10);
+        long id = generator.nextId();
+        assertEquals(BASE + 10, SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(0, id & (SEQUENCES - 1));
+    }
+
+    @Test
+    void clockRollbackNeitherRepeatsNorDecreases() {
+        AtomicLong now = new AtomicLong(BASE);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, now::get);
+
+        long before = generator.nextId();
+        now.set(BASE - 500);
+        long previous = before;
+        for (int i = 0; i < 100; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            // 回拨期间沿用最后的时间戳继续编号
+            assertEquals(BASE, SnowflakeIdGenerator.timestampOf(id));
+            previous = id;
+        }
+        assertEquals(0L, generator.getStatistics().get("waits"));
+
+        now.set(BASE + 1);
+        long after = generator.nextId();
+        assertTrue(after > previous);
+        assertEquals(BASE + 1, SnowflakeIdGenerator.timestampOf(after));
+    }
+
+    @Test
+    void waitsForClockWhenLeadExceedsLimit() throws Exception {
+        AtomicLong now = new AtomicLong(BASE);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, now::get);
+        // 超过 1 秒的回拨不再预支，等待时钟追上
+        generator.nextId();
+        now.set(BASE - 2000);
+
+        CompletableFuture<Long> pending = CompletableFuture.supplyAsync(generator::nextId);
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertFalse(pending.isDone());
+        assertTrue((Long) generator.getStatistics().get("waits") > 0);
+
+        now.set(BASE);
+        long id = pending.get(5, TimeUnit.SECONDS);
+        assertEquals(BASE, SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(1, id & (SEQUENCES - 1));
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        int threads = 8;
+        int perThread = 100_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    long[] ids = new long[perThread];
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            long[] all = new long[threads * perThread];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get(60, TimeUnit.SECONDS);
+                for (int i = 1; i < ids.length; i++) {
+                    assertTrue(ids[i] > ids[i - 1], "同一线程内ID必须递增");
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertTrue(all[i] != all[i - 1], "ID重复: " + all[i]);
+            }
+            assertTrue(all[0] > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void orderNoIsFixedLengthAndSortable() {
+        AtomicLong now = new AtomicLong(BASE);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, now::get);
+        String previous = "";
+        for (int i = 0; i < SEQUENCES + 10; i++) {
+            String orderNo = generator.nextOrderNo();
+            assertEquals(16, orderNo.length());
+            assertTrue(orderNo.matches("ORD[0-9A-Z]{13}"), orderNo);
+            assertTrue(orderNo.compareTo(previous) > 0);
+            previous = orderNo;
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+        long derived = new SnowflakeIdGenerator(-1).getNodeId();
+        assertTrue(derived >= 0 && derived <= SnowflakeIdGenerator.MAX_NODE_ID);
+    }
+}